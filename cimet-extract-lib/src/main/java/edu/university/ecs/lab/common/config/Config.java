@@ -31,6 +31,21 @@ public class Config {
     @JsonAlias({"branch", "baseBranch"})
     private String branch;
 
+    /**
+     * Number of commits to clone, 0 for the full history
+     */
+    private int cloneDepth;
+
+    /**
+     * Only check out the files the IR is extracted from, see FileUtils.VALID_FILES
+     */
+    private boolean sparseCheckout;
+
+    /**
+     * Use an existing clone as it is instead of fetching the new commits of the remote
+     */
+    private boolean offline;
+
 
     public Config(String systemName, String repositoryURL, String branch) throws Exception {
         validateConfig(systemName, repositoryURL, branch);
@@ -69,9 +84,11 @@ public class Config {
      * @return the plain string repository name with no path related characters
      */
     public String getRepoName() {
-        int lastSlashIndex = repositoryURL.lastIndexOf("/");
-        int lastDotIndex = repositoryURL.lastIndexOf('.');
-        return repositoryURL.substring(lastSlashIndex + 1, lastDotIndex);
+        // Local file:// remotes of directories may end with a separator
+        String url = repositoryURL.replaceAll("/+$", "");
+        int lastSlashIndex = url.lastIndexOf("/");
+        int lastDotIndex = url.lastIndexOf('.');
+        return url.substring(lastSlashIndex + 1, lastDotIndex > lastSlashIndex ? lastDotIndex : url.length());
     }
 
 }
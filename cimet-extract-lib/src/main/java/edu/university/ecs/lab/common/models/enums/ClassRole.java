@@ -13,6 +13,7 @@ public enum ClassRole {
     ENTITY(JClass.class),
     REP_REST_RSC(JClass.class),
     FEIGN_CLIENT(JClass.class),
+    SECURITY_CONFIG(JClass.class),
     UNKNOWN(null);
 
     /**
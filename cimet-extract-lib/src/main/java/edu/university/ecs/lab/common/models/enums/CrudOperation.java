@@ -0,0 +1,41 @@
+package edu.university.ecs.lab.common.models.enums;
+
+import java.util.List;
+
+/**
+ * Enum to represent the kind of operation a repository method performs
+ */
+public enum CrudOperation {
+    CREATE,
+    READ,
+    UPDATE,
+    DELETE;
+
+    private static final List<String> CREATE_UPDATE_WORDS = List.of("create", "add", "insert", "save", "update");
+    private static final List<String> READ_WORDS = List.of("read", "find", "get", "query");
+    private static final List<String> DELETE_WORDS = List.of("delete", "remove");
+
+    /**
+     * Classify a repository method by the words in its name. Creating and updating
+     * methods are told apart by the HTTP method of the endpoint calling them.
+     *
+     * @param methodName the name of the called repository method
+     * @param httpMethod the HTTP method of the endpoint the call is reached from
+     * @return the operation or null if the name does not suggest one
+     */
+    public static CrudOperation classify(String methodName, HttpMethod httpMethod) {
+        if (containsAny(methodName, CREATE_UPDATE_WORDS)) {
+            return HttpMethod.POST.equals(httpMethod) ? CREATE : UPDATE;
+        } else if (containsAny(methodName, READ_WORDS)) {
+            return READ;
+        } else if (containsAny(methodName, DELETE_WORDS)) {
+            return DELETE;
+        }
+
+        return null;
+    }
+
+    private static boolean containsAny(String methodName, List<String> words) {
+        return words.stream().anyMatch(methodName::contains);
+    }
+}
@@ -10,6 +10,7 @@ import edu.university.ecs.lab.intermediate.utils.StringParserUtils;
 import javassist.expr.Expr;
 import lombok.Getter;
 
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -27,11 +28,23 @@ public class RestCallTemplate {
 
     private final String url;
     private final HttpMethod httpMethod;
-    private final CompilationUnit cu;
+    private final List<FieldDeclaration> fieldDeclarations;
     private final MethodCallExpr mce;
 
     public RestCallTemplate(MethodCallExpr mce, MethodCall mc, CompilationUnit cu) {
-        this.cu = cu;
+        this(mce, mc, cu.findAll(FieldDeclaration.class));
+    }
+
+    /**
+     * Create a rest call template resolving field references against the
+     * already collected field declarations of the compilation unit
+     *
+     * @param mce the method call
+     * @param mc the method call model
+     * @param fieldDeclarations all field declarations of the compilation unit
+     */
+    public RestCallTemplate(MethodCallExpr mce, MethodCall mc, List<FieldDeclaration> fieldDeclarations) {
+        this.fieldDeclarations = fieldDeclarations;
         this.mce = mce;
         this.url = simplifyEndpointURL(preParseURL(mce, mc));
         this.httpMethod = getHttpFromName(mce);
@@ -180,7 +193,7 @@ public class RestCallTemplate {
     }
 
     private String parseFieldValue(String fieldName) {
-        for (FieldDeclaration fd : cu.findAll(FieldDeclaration.class)) {
+        for (FieldDeclaration fd : fieldDeclarations) {
             if (fd.getVariables().toString().contains(fieldName)) {
                 Expression init = fd.getVariable(0).getInitializer().orElse(null);
                 if (init != null) {
@@ -0,0 +1,23 @@
+package edu.university.ecs.lab.common.models.enums;
+
+/**
+ * Enum to represent the access a Spring Security rule grants to the requests it matches
+ */
+public enum SecurityAccess {
+    /**
+     * Any request is allowed, including unauthenticated ones (permitAll)
+     */
+    PERMIT_ALL,
+    /**
+     * Any authenticated user is allowed (authenticated)
+     */
+    AUTHENTICATED,
+    /**
+     * Only users with one of the rule's roles are allowed (hasRole, hasAnyRole, hasAuthority, hasAnyAuthority)
+     */
+    ROLES,
+    /**
+     * No request is allowed (denyAll)
+     */
+    DENY_ALL
+}
@@ -3,6 +3,7 @@ package edu.university.ecs.lab.common.models.ir;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.github.javaparser.ast.expr.*;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -46,8 +47,14 @@ public class Annotation extends Component {
         return getAttributes().entrySet().stream().map(entry -> entry.getKey() + "=" + entry.getValue()).collect(Collectors.joining(","));
     }
 
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        attributes = internTable.internAll(attributes);
+    }
+
     /**
-     * Map attributes from annotation expression
+     * Map attributes from annotation expression, string arrays are kept as comma-delimited lists
      * 
      * @param annotationExpr annotation expression object to parse
      * @return map of annotation attributes and their values
@@ -58,19 +65,38 @@ public class Annotation extends Component {
         if(annotationExpr instanceof MarkerAnnotationExpr) {
             return attributes;
         } else if (annotationExpr instanceof SingleMemberAnnotationExpr smAnnotationExpr) {
-            if(smAnnotationExpr.getMemberValue() instanceof StringLiteralExpr sle) {
-                attributes.put("default", sle.asString());
+            String value = parseAttributeValue(smAnnotationExpr.getMemberValue());
+            if(value != null) {
+                attributes.put("default", value);
             } else {
                 return attributes;
             }
         } else if (annotationExpr instanceof NormalAnnotationExpr nAnnotationExpr) {
             for(MemberValuePair mvp : nAnnotationExpr.getPairs()) {
-                if(mvp.getValue() instanceof StringLiteralExpr sle) {
-                    attributes.put(mvp.getNameAsString(), sle.asString());
+                String value = parseAttributeValue(mvp.getValue());
+                if(value != null) {
+                    attributes.put(mvp.getNameAsString(), value);
                 }
             }
         }
 
         return attributes;
     }
+
+    /**
+     * Get the value of a string literal or of an array of string literals
+     *
+     * @param expression the attribute value
+     * @return the string, the comma-delimited strings of an array or null for any other value
+     */
+    private static String parseAttributeValue(Expression expression) {
+        if(expression instanceof StringLiteralExpr sle) {
+            return sle.asString();
+        } else if(expression instanceof ArrayInitializerExpr aie && !aie.getValues().isEmpty()
+                && aie.getValues().stream().allMatch(Expression::isStringLiteralExpr)) {
+            return aie.getValues().stream().map(value -> value.asStringLiteralExpr().asString()).collect(Collectors.joining(","));
+        }
+
+        return null;
+    }
 }
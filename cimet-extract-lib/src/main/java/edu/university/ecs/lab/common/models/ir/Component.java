@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -59,7 +60,7 @@ public abstract class Component extends Node {
 
         // TODO: Perhaps a better implementation strategy instead of checking type here
         if(this instanceof MethodCall) {
-            id += "[" + location.startLine + "-" + location.endLine + "]";
+            id += "[" + location.getStartLine() + "-" + location.getEndLine() + "]";
         }
 
         return id;
@@ -85,6 +86,19 @@ public abstract class Component extends Node {
         return Objects.hash(super.hashCode(), name, packageName, className, location);
     }
 
+    /**
+     * Replace the names and location of the component by the instances shared through
+     * the intern table of the system
+     *
+     * @param internTable the intern table
+     */
+    public void intern(InternTable internTable) {
+        name = internTable.intern(name);
+        packageName = internTable.intern(packageName);
+        className = internTable.intern(className);
+        location = internTable.intern(location);
+    }
+
     /**
      * Converts a packageAndClassName to separate package and class names
      * @param packageAndClassName The package and class name to set for this Component
@@ -1,11 +1,17 @@
 package edu.university.ecs.lab.common.models.ir;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.models.enums.SecurityAccess;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents an extension of a method declaration. An endpoint exists at the controller level and
  * signifies an open mapping that can be the target of a rest call.
@@ -27,9 +33,53 @@ public class Endpoint extends Method {
      */
     private HttpMethod httpMethod;
 
+    /**
+     * The repositories reached from the endpoint within its microservice, see
+     * {@link edu.university.ecs.lab.common.utils.EndpointReachability}. They are derived
+     * after the endpoint is added to its class, so they are not part of its hash
+     */
+    @EqualsAndHashCode.Exclude
+    @JsonDeserialize(as = ArrayList.class)
+    private List<RepositoryAccess> repositoryAccesses = new ArrayList<>();
+
+    /**
+     * The access granted by the first rule of the microservice's security configuration
+     * matching the endpoint, see {@link edu.university.ecs.lab.common.utils.EndpointSecurity}.
+     * Null if the microservice has no security configuration or no rule matches
+     */
+    @EqualsAndHashCode.Exclude
+    private SecurityAccess securityAccess;
+
+    /**
+     * The roles the security configuration allows if its access is restricted to roles,
+     * as a bitset over {@link MicroserviceSystem#getRoles()}
+     */
+    @EqualsAndHashCode.Exclude
+    private long[] securityRoles = new long[0];
+
+    /**
+     * The access granted by the @PreAuthorize, @Secured, @RolesAllowed, @PermitAll or @DenyAll
+     * annotation of the endpoint, or of its class if the endpoint has none. Null if neither has one
+     */
+    @EqualsAndHashCode.Exclude
+    private SecurityAccess methodSecurityAccess;
+
+    /**
+     * The roles the security annotation allows if its access is restricted to roles,
+     * as a bitset over {@link MicroserviceSystem#getRoles()}
+     */
+    @EqualsAndHashCode.Exclude
+    private long[] methodSecurityRoles = new long[0];
+
     public Endpoint(Method method, String url, HttpMethod httpMethod) {
         super(method.name, method.packageName + "." + method.className, method.parameters, method.returnType, method.annotations, method.microserviceName, method.className, method.protection, method.isAbstract(), method.isStatic(), method.isFinal(), method.getThrownExceptions(), method.getLocation());
         this.url = url;
         this.httpMethod = httpMethod;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        url = internTable.intern(url);
+    }
+}
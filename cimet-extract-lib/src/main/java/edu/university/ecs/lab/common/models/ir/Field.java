@@ -2,6 +2,7 @@ package edu.university.ecs.lab.common.models.ir;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import edu.university.ecs.lab.common.models.enums.AccessModifier;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -49,4 +50,11 @@ public class Field extends Component {
         this.location = location;
         this.initializer = initializer;
     }
+
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        fieldType = internTable.intern(fieldType);
+        initializer = internTable.intern(initializer);
+    }
 }
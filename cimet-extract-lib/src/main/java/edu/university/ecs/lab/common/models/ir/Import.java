@@ -1,6 +1,7 @@
 package edu.university.ecs.lab.common.models.ir;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -46,6 +47,13 @@ public class Import extends Component {
         this.location = location;
     }
 
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        importPackage = internTable.intern(importPackage);
+        importObject = internTable.intern(importObject);
+    }
+
     /**
      * Returns whether the import is for an entire package (i.e., com.package.*)
      * @return True if it imports a full package, false if otherwise
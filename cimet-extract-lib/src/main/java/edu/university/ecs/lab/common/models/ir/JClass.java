@@ -1,15 +1,15 @@
 package edu.university.ecs.lab.common.models.ir;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import edu.university.ecs.lab.common.models.enums.AccessModifier;
 import edu.university.ecs.lab.common.models.enums.ClassRole;
 import edu.university.ecs.lab.common.models.enums.FileType;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
-import lombok.NoArgsConstructor;
+import edu.university.ecs.lab.common.utils.InternTable;
+import lombok.*;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -92,6 +92,24 @@ public class JClass extends ProjectFile {
     @JsonDeserialize(as = ArrayList.class)
     private List<MethodCall> methodCalls;
 
+    /**
+     * The authorization rules of a security configuration class in declaration order,
+     * null and left out of the IR for classes of any other role
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonDeserialize(as = ArrayList.class)
+    private List<SecurityRule> securityRules;
+
+    /**
+     * Derived collections, dropped whenever a member set is replaced
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private DerivedViews views;
+
     /**
      * Whether the class is static (nested classes only)
      */
@@ -150,38 +168,142 @@ public class JClass extends ProjectFile {
      * This method returns all endpoints found in the methods of this class,
      * grouped under the same list as an Endpoint is an extension of a Method
      * see {@link Endpoint}
-     * @return set of all endpoints
+     * @return unmodifiable set of all endpoints
      */
     @JsonIgnore
     public Set<Endpoint> getEndpoints() {
-        if((!getClassRole().equals(ClassRole.CONTROLLER) && !getClassRole().equals(ClassRole.REP_REST_RSC)) || getMethods().isEmpty()) {
-            return new HashSet<>();
+        DerivedViews views = getViews();
+        if (views.endpoints == null) {
+            if ((!getClassRole().equals(ClassRole.CONTROLLER) && !getClassRole().equals(ClassRole.REP_REST_RSC)) || getMethods().isEmpty()) {
+                views.endpoints = Set.of();
+            } else {
+                views.endpoints = methods.stream().filter(method -> method instanceof Endpoint).map(method -> (Endpoint) method).collect(Collectors.toUnmodifiableSet());
+            }
         }
-        return methods.stream().filter(method -> method instanceof Endpoint).map(method -> (Endpoint) method).collect(Collectors.toUnmodifiableSet());
+        return views.endpoints;
     }
 
     /**
      * This method returns all restCalls found in the methodCalls of this class,
      * grouped under the same list as an RestCall is an extension of a MethodCall
      * see {@link RestCall}
-     * @return set of all restCalls
+     * @return unmodifiable list of all restCalls
      */
     @JsonIgnore
     public List<RestCall> getRestCalls() {
-
-        return methodCalls.stream().filter(methodCall -> methodCall instanceof RestCall).map(methodCall -> (RestCall) methodCall).collect(Collectors.toUnmodifiableList());
+        DerivedViews views = getViews();
+        if (views.restCalls == null) {
+            views.restCalls = methodCalls.stream().filter(methodCall -> methodCall instanceof RestCall).map(methodCall -> (RestCall) methodCall).collect(Collectors.toUnmodifiableList());
+        }
+        return views.restCalls;
     }
 
+    /**
+     * @return unmodifiable list of the method calls, fields, annotations and methods of this class
+     */
     @JsonIgnore
     public List<Component> getComponents() {
-        List<Component> components = new ArrayList<>();
-        components.addAll(getMethodCalls());
-        components.addAll(getFields());
-        components.addAll(getAnnotations());
-        components.addAll(getMethods());
-        components.addAll(getMethodCalls());
-
-        return components;
+        DerivedViews views = getViews();
+        if (views.components == null) {
+            List<Component> components = new ArrayList<>();
+            components.addAll(getMethodCalls());
+            components.addAll(getFields());
+            components.addAll(getAnnotations());
+            components.addAll(getMethods());
+            views.components = Collections.unmodifiableList(components);
+        }
+
+        return views.components;
+    }
+
+    /**
+     * The getters of the member sets return unmodifiable views, the members are changed
+     * through the setters so that the derived collections are dropped
+     *
+     * @return unmodifiable view of the methods
+     */
+    public Set<Method> getMethods() {
+        return methods == null ? null : Collections.unmodifiableSet(methods);
+    }
+
+    public Set<Field> getFields() {
+        return fields == null ? null : Collections.unmodifiableSet(fields);
+    }
+
+    public Set<Annotation> getAnnotations() {
+        return annotations == null ? null : Collections.unmodifiableSet(annotations);
+    }
+
+    public List<MethodCall> getMethodCalls() {
+        return methodCalls == null ? null : Collections.unmodifiableList(methodCalls);
+    }
+
+    public void setClassRole(ClassRole classRole) {
+        this.classRole = classRole;
+        changed();
+    }
+
+    public void setMethods(Set<Method> methods) {
+        this.methods = methods;
+        changed();
+    }
+
+    public void setFields(Set<Field> fields) {
+        this.fields = fields;
+        changed();
+    }
+
+    public void setAnnotations(Set<Annotation> annotations) {
+        this.annotations = annotations;
+        changed();
+    }
+
+    public void setMethodCalls(List<MethodCall> methodCalls) {
+        this.methodCalls = methodCalls;
+        changed();
+    }
+
+    /**
+     * See {@link ProjectFile#intern(InternTable)}, also interns all components of the class
+     */
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        packageName = internTable.intern(packageName);
+        implementedTypes = internTable.internAll(implementedTypes);
+        extendedTypes = internTable.internAll(extendedTypes);
+        for (Collection<? extends Component> components : Arrays.asList(imports, methods, fields, annotations, methodCalls)) {
+            if (components != null) {
+                components.forEach(component -> component.intern(internTable));
+            }
+        }
+    }
+
+    /**
+     * Collections derived from the members of the class, each computed on first use
+     */
+    private static final class DerivedViews {
+        private Set<Endpoint> endpoints;
+        private List<RestCall> restCalls;
+        private List<Component> components;
+    }
+
+    private DerivedViews getViews() {
+        if (views == null) {
+            views = new DerivedViews();
+        }
+        return views;
+    }
+
+    /**
+     * Drop the derived collections after a member set was replaced,
+     * including those of the microservice holding the class
+     */
+    private void changed() {
+        views = null;
+        if (getParent() instanceof Microservice) {
+            ((Microservice) getParent()).changed();
+        }
     }
 
     /**
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 import edu.university.ecs.lab.common.models.enums.AccessModifier;
 import edu.university.ecs.lab.common.models.enums.ClassRole;
 import edu.university.ecs.lab.common.models.enums.FileType;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.*;
 
 import java.util.HashSet;
@@ -30,4 +31,10 @@ public class JEnum extends JClass {
         this.fileType = FileType.JENUM;
         this.enumTypes = enumTypes;
     }
+
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        enumTypes = internTable.internAll(enumTypes);
+    }
 }
@@ -1,14 +1,24 @@
 package edu.university.ecs.lab.common.models.ir;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.javaparser.Range;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
-@Data
-@NoArgsConstructor
+/**
+ * Immutable line range of a component, equal locations are shared between components
+ * by the {@link edu.university.ecs.lab.common.utils.InternTable}
+ */
+@Value
 public class Location {
-    protected int startLine;
-    protected int endLine;
+    int startLine;
+    int endLine;
+
+    @JsonCreator
+    public Location(@JsonProperty("startLine") int startLine, @JsonProperty("endLine") int endLine) {
+        this.startLine = startLine;
+        this.endLine = endLine;
+    }
 
     public Location(Range range) {
         if(range == null) {
@@ -19,4 +29,4 @@ public class Location {
             endLine = range.end.line;
         }
     }
-}
\ No newline at end of file
+}
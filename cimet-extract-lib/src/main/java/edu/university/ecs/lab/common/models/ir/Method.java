@@ -7,6 +7,7 @@ import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.type.ReferenceType;
 import edu.university.ecs.lab.common.models.enums.AccessModifier;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -132,4 +133,21 @@ public class Method extends Component {
         return parameterSet;
     }
 
+    /**
+     * See {@link Component#intern(InternTable)}, also interns the parameters and annotations
+     */
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        className = internTable.intern(className);
+        returnType = internTable.intern(returnType);
+        microserviceName = internTable.intern(microserviceName);
+        thrownExceptions = internTable.internAll(thrownExceptions);
+        if (parameters != null) {
+            parameters.forEach(parameter -> parameter.intern(internTable));
+        }
+        if (annotations != null) {
+            annotations.forEach(annotation -> annotation.intern(internTable));
+        }
+    }
 }
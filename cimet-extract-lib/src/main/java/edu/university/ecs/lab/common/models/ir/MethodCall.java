@@ -3,6 +3,7 @@ package edu.university.ecs.lab.common.models.ir;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -74,4 +75,13 @@ public class MethodCall extends Component {
 
     }
 
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        objectName = internTable.intern(objectName);
+        objectType = internTable.intern(objectType);
+        calledFrom = internTable.intern(calledFrom);
+        parameterContents = internTable.intern(parameterContents);
+        microserviceName = internTable.intern(microserviceName);
+    }
 }
@@ -3,14 +3,10 @@ package edu.university.ecs.lab.common.models.ir;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import edu.university.ecs.lab.common.utils.FileUtils;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
-import lombok.NoArgsConstructor;
-
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import edu.university.ecs.lab.common.utils.InternTable;
+import lombok.*;
+
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -35,25 +31,25 @@ public class Microservice extends Node {
     /**
      * Controller classes belonging to the microservice.
      */
-    @JsonDeserialize(as = HashSet.class)
+    @JsonDeserialize(as = NodeSet.class)
     private Set<JClass> controllers;
 
     /**
      * Service classes to the microservice.
      */
-    @JsonDeserialize(as = HashSet.class)
+    @JsonDeserialize(as = NodeSet.class)
     private Set<JClass> services;
 
     /**
      * Repository classes belonging to the microservice.
      */
-    @JsonDeserialize(as = HashSet.class)
+    @JsonDeserialize(as = NodeSet.class)
     private Set<JClass> repositories;
 
     /**
      * Entity classes belonging to the microservice.
      */
-    @JsonDeserialize(as = HashSet.class)
+    @JsonDeserialize(as = NodeSet.class)
     private Set<JClass> entities;
 
     /**
@@ -64,25 +60,127 @@ public class Microservice extends Node {
     /**
      * Feign client classes belonging to the microservice.
      */
-    @JsonDeserialize(as = HashSet.class)
+    @JsonDeserialize(as = NodeSet.class)
     private Set<JClass> feignClients;
 
+    /**
+     * Spring Security configuration classes belonging to the microservice, empty
+     * when reading an IR written before they were extracted
+     */
+    @JsonDeserialize(as = NodeSet.class)
+    private Set<JClass> securityConfigurations = new NodeSet<>();
+
     /**
      * Static files belonging to the microservice.
      */
-    @JsonDeserialize(as = HashSet.class)
+    @JsonDeserialize(as = NodeSet.class)
     private Set<ConfigFile> files;
 
+    /**
+     * Classes and files by their path, built on first lookup and kept in sync by
+     * the add and remove methods of this class
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private Map<String, ProjectFile> fileIndex;
+
+    /**
+     * Derived collections, dropped whenever a class or file is added or removed
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private DerivedViews views;
+
     public Microservice(String name, String path) {
         this.name = name;
         this.path = path;
-        this.controllers = new HashSet<>();
-        this.services = new HashSet<>();
-        this.repositories = new HashSet<>();
-        this.entities = new HashSet<>();
+        this.controllers = new NodeSet<>();
+        this.services = new NodeSet<>();
+        this.repositories = new NodeSet<>();
+        this.entities = new NodeSet<>();
 //        this.embeddables = new HashSet<>();
-        this.feignClients = new HashSet<>();
-        this.files = new HashSet<>();
+        this.feignClients = new NodeSet<>();
+        this.files = new NodeSet<>();
+    }
+
+    /**
+     * The getters of the class and file sets return unmodifiable views, the sets are changed
+     * through {@link #addJClass(JClass)}, {@link #addFile(ConfigFile)}, the remove methods and
+     * the setters so that the derived collections are dropped
+     *
+     * @return unmodifiable view of the controllers
+     */
+    public Set<JClass> getControllers() {
+        return unmodifiable(controllers);
+    }
+
+    public Set<JClass> getServices() {
+        return unmodifiable(services);
+    }
+
+    public Set<JClass> getRepositories() {
+        return unmodifiable(repositories);
+    }
+
+    public Set<JClass> getEntities() {
+        return unmodifiable(entities);
+    }
+
+    public Set<JClass> getFeignClients() {
+        return unmodifiable(feignClients);
+    }
+
+    public Set<JClass> getSecurityConfigurations() {
+        return unmodifiable(securityConfigurations);
+    }
+
+    public Set<ConfigFile> getFiles() {
+        return unmodifiable(files);
+    }
+
+    private static <T> Set<T> unmodifiable(Set<T> set) {
+        return set == null ? null : Collections.unmodifiableSet(set);
+    }
+
+    public void setControllers(Set<JClass> controllers) {
+        this.controllers = NodeSet.of(controllers);
+        setsReplaced();
+    }
+
+    public void setServices(Set<JClass> services) {
+        this.services = NodeSet.of(services);
+        setsReplaced();
+    }
+
+    public void setRepositories(Set<JClass> repositories) {
+        this.repositories = NodeSet.of(repositories);
+        setsReplaced();
+    }
+
+    public void setEntities(Set<JClass> entities) {
+        this.entities = NodeSet.of(entities);
+        setsReplaced();
+    }
+
+    public void setFeignClients(Set<JClass> feignClients) {
+        this.feignClients = NodeSet.of(feignClients);
+        setsReplaced();
+    }
+
+    public void setSecurityConfigurations(Set<JClass> securityConfigurations) {
+        this.securityConfigurations = NodeSet.of(securityConfigurations);
+        setsReplaced();
+    }
+
+    public void setFiles(Set<ConfigFile> files) {
+        this.files = NodeSet.of(files);
+        setsReplaced();
     }
 
     /**
@@ -112,7 +210,43 @@ public class Microservice extends Node {
             case FEIGN_CLIENT:
                 feignClients.add(jClass);
                 break;
+            case SECURITY_CONFIG:
+                securityConfigurations.add(jClass);
+                break;
+            default:
+                // Classes without a role are not part of the microservice
+                return;
+        }
+
+        if (fileIndex != null) {
+            fileIndex.put(jClass.getPath(), jClass);
+        }
+        changed();
+    }
+
+    /**
+     * Adds a configuration file to the microservice
+     *
+     * @param configFile the ConfigFile to add
+     */
+    public void addFile(ConfigFile configFile) {
+        configFile.setParent(this);
+        files.add(configFile);
+
+        if (fileIndex != null) {
+            fileIndex.put(configFile.getPath(), configFile);
         }
+        changed();
+    }
+
+    /**
+     * Find a class or configuration file of the microservice by its path
+     *
+     * @param path the path to search for
+     * @return the file or null if the microservice has no file with the path
+     */
+    public ProjectFile findFile(String path) {
+        return getFileIndex().get(path);
     }
 
     /**
@@ -122,40 +256,11 @@ public class Microservice extends Node {
      * @param path the path to search for removal
      */
     public void removeJClass(String path) {
-        Set<JClass> classes = getClasses();
-        JClass removeClass = null;
-
-        for (JClass jClass : classes) {
-            if (jClass.getPath().equals(path)) {
-                removeClass = jClass;
-                break;
-            }
-        }
+        ProjectFile file = findFile(path);
 
         // If we cannot find the class no problem, we will skip it quietly
-        if (removeClass == null) {
-            return;
-        }
-
-        removeClass.setParent(null);
-
-        switch (removeClass.getClassRole()) {
-            case CONTROLLER:
-                controllers.remove(removeClass);
-                break;
-            case SERVICE:
-                services.remove(removeClass);
-                break;
-            case REPOSITORY:
-            case REP_REST_RSC:
-                repositories.remove(removeClass);
-                break;
-            case ENTITY:
-                entities.remove(removeClass);
-                break;
-            case FEIGN_CLIENT:
-                feignClients.remove(removeClass);
-                break;
+        if (file instanceof JClass) {
+            removeFile(file);
         }
     }
 
@@ -166,138 +271,212 @@ public class Microservice extends Node {
      * @param filePath the path to search for
      */
     public void removeProjectFile(String filePath) {
+        ProjectFile file = findFile(filePath);
 
-        if(FileUtils.isConfigurationFile(filePath)) {
-            // First search configFile because there are less
-            ConfigFile removeFile = null;
-
-            for (ConfigFile configFile : getFiles()) {
-                if (configFile.getPath().equals(filePath)) {
-                    removeFile = configFile;
-                    break;
-                }
-            }
-
-            // If we cannot find the class no problem, we will skip it quietly
-            if (removeFile == null) {
-                return;
-            }
-
-            removeFile.setParent(null);
-
-            getFiles().remove(removeFile);
-
-        } else {
-            Set<JClass> classes = getClasses();
-            JClass removeClass = null;
-
-            for (JClass jClass : classes) {
-                if (jClass.getPath().equals(filePath)) {
-                    removeClass = jClass;
-                    break;
-                }
-            }
-
-            // If we cannot find the class no problem, we will skip it quietly
-            if (removeClass == null) {
-                return;
-            }
+        // If we cannot find the file no problem, we will skip it quietly
+        if (file != null) {
+            removeFile(file);
+        }
+    }
 
-            removeClass.setParent(null);
+    /**
+     * Remove a file of this microservice from the set it is held in
+     *
+     * @param file a file found in the index
+     */
+    private void removeFile(ProjectFile file) {
+        file.setParent(null);
 
-            switch (removeClass.getClassRole()) {
+        if (file instanceof JClass) {
+            switch (((JClass) file).getClassRole()) {
                 case CONTROLLER:
-                    controllers.remove(removeClass);
+                    controllers.remove(file);
                     break;
                 case SERVICE:
-                    services.remove(removeClass);
+                    services.remove(file);
                     break;
                 case REPOSITORY:
                 case REP_REST_RSC:
-                    repositories.remove(removeClass);
+                    repositories.remove(file);
                     break;
                 case ENTITY:
-                    entities.remove(removeClass);
+                    entities.remove(file);
                     break;
                 case FEIGN_CLIENT:
-                    feignClients.remove(removeClass);
+                    feignClients.remove(file);
+                    break;
+                case SECURITY_CONFIG:
+                    securityConfigurations.remove(file);
                     break;
             }
+        } else {
+            files.remove(file);
+        }
+
+        fileIndex.remove(file.getPath());
+        changed();
+    }
+
+    /**
+     * Replace the strings and locations held by the microservice and its files by
+     * the instances shared through the intern table of the system
+     *
+     * @param internTable the intern table
+     */
+    public void intern(InternTable internTable) {
+        name = internTable.intern(name);
+        path = internTable.intern(path);
+        getAllFiles().forEach(file -> file.intern(internTable));
+    }
+
+    /**
+     * Drop the path index after a set of classes or files was replaced
+     */
+    private void setsReplaced() {
+        fileIndex = null;
+        changed();
+    }
+
+    /**
+     * Drop the derived collections and let the system holding this
+     * microservice know that its lookup tables are stale
+     */
+    void changed() {
+        views = null;
+        if (getParent() instanceof MicroserviceSystem) {
+            ((MicroserviceSystem) getParent()).clearIndex();
+        }
+    }
 
+    private Map<String, ProjectFile> getFileIndex() {
+        if (fileIndex == null) {
+            fileIndex = new HashMap<>();
+            for (ConfigFile configFile : getFiles()) {
+                fileIndex.put(configFile.getPath(), configFile);
+            }
+            for (JClass jClass : getClasses()) {
+                fileIndex.put(jClass.getPath(), jClass);
+            }
         }
+        return fileIndex;
     }
 
     /**
-     * This method returns all classes of the microservice in a new set
+     * This method returns all classes of the microservice, the set is
+     * kept until the classes of the microservice change
      *
-     * @return the set of all JClasses
+     * @return the unmodifiable set of all JClasses
      */
     @JsonIgnore
     public Set<JClass> getClasses() {
-        Set<JClass> classes = new HashSet<>();
-        classes.addAll(getControllers());
-        classes.addAll(getServices());
-        classes.addAll(getRepositories());
-        classes.addAll(getEntities());
-        classes.addAll(getFeignClients());
+        DerivedViews views = getViews();
+        if (views.classes == null) {
+            Set<JClass> classes = new NodeSet<>();
+            classes.addAll(getControllers());
+            classes.addAll(getServices());
+            classes.addAll(getRepositories());
+            classes.addAll(getEntities());
+            classes.addAll(getFeignClients());
+            classes.addAll(getSecurityConfigurations());
+            views.classes = Collections.unmodifiableSet(classes);
+        }
 
-        return classes;
+        return views.classes;
     }
 
     /**
      * This method returns all files of a microservice, it is
      * the aggregate of getClasses() and getFiles()
      *
-     * @return the set of all classes and files
+     * @return the unmodifiable set of all classes and files
      */
     @JsonIgnore
     public Set<ProjectFile> getAllFiles() {
-        Set<ProjectFile> set = new HashSet<>(getClasses());
-        set.addAll(getFiles());
-        set.addAll(getClasses());
-        return set;
+        DerivedViews views = getViews();
+        if (views.allFiles == null) {
+            Set<ProjectFile> set = new NodeSet<>(getClasses());
+            set.addAll(getFiles());
+            views.allFiles = Collections.unmodifiableSet(set);
+        }
+        return views.allFiles;
     }
 
     /**
      * This method returns all rest calls of a microservice
      *
-     * @return the list of all rest calls
+     * @return the unmodifiable list of all rest calls
      */
     @JsonIgnore
     public List<RestCall> getRestCalls() {
-        return getClasses().stream()
-                .flatMap(jClass -> jClass.getRestCalls().stream()).collect(Collectors.toList());
+        DerivedViews views = getViews();
+        if (views.restCalls == null) {
+            views.restCalls = getClasses().stream()
+                    .flatMap(jClass -> jClass.getRestCalls().stream()).collect(Collectors.toUnmodifiableList());
+        }
+        return views.restCalls;
     }
 
     /**
      * This method returns all endpoints of a microservice
      *
-     * @return the set of all endpoints
+     * @return the unmodifiable set of all endpoints
      */
     @JsonIgnore
     public Set<Endpoint> getEndpoints() {
-        return getControllers().stream().flatMap(controller ->
-                controller.getEndpoints().stream()).collect(Collectors.toSet());
+        DerivedViews views = getViews();
+        if (views.endpoints == null) {
+            views.endpoints = getControllers().stream().flatMap(controller ->
+                    controller.getEndpoints().stream()).collect(Collectors.toUnmodifiableSet());
+        }
+        return views.endpoints;
     }
 
     /**
      * This method returns all method calls of a microservice
      *
-     * @return the set of all method calls
+     * @return the unmodifiable set of all method calls
      */
     @JsonIgnore
     public Set<MethodCall> getMethodCalls() {
-        return getClasses().stream().flatMap(jClass -> jClass.getMethodCalls().stream()).collect(Collectors.toSet());
+        DerivedViews views = getViews();
+        if (views.methodCalls == null) {
+            views.methodCalls = getClasses().stream().flatMap(jClass -> jClass.getMethodCalls().stream()).collect(Collectors.toUnmodifiableSet());
+        }
+        return views.methodCalls;
     }
 
     /**
      * This method returns all methods of a microservice
      *
-     * @return the set of all methods
+     * @return the unmodifiable set of all methods
      */
     @JsonIgnore
     public Set<Method> getMethods() {
-        return getClasses().stream().flatMap(jClass -> jClass.getMethods().stream()).collect(Collectors.toSet());
+        DerivedViews views = getViews();
+        if (views.methods == null) {
+            views.methods = getClasses().stream().flatMap(jClass -> jClass.getMethods().stream()).collect(Collectors.toUnmodifiableSet());
+        }
+        return views.methods;
+    }
+
+    /**
+     * Collections derived from the classes and files of the microservice,
+     * each computed on first use
+     */
+    private static final class DerivedViews {
+        private Set<JClass> classes;
+        private Set<ProjectFile> allFiles;
+        private List<RestCall> restCalls;
+        private Set<Endpoint> endpoints;
+        private Set<MethodCall> methodCalls;
+        private Set<Method> methods;
+    }
+
+    private DerivedViews getViews() {
+        if (views == null) {
+            views = new DerivedViews();
+        }
+        return views;
     }
 
     /**
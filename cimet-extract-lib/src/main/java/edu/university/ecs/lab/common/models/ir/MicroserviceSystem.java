@@ -4,12 +4,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import edu.university.ecs.lab.common.models.enums.FileType;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
-import lombok.NoArgsConstructor;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.utils.EndpointMatcher;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.InternTable;
+import edu.university.ecs.lab.common.utils.PathTrie;
+import lombok.*;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Represents the intermediate structure of a microservice system.
@@ -32,34 +35,214 @@ public class MicroserviceSystem extends Node {
     /**
      * Set of microservices in the system
      */
-    @JsonDeserialize(as = HashSet.class)
+    @JsonDeserialize(as = NodeSet.class)
     private Set<Microservice> microservices;
 
     /**
      * Set of present files (class or configurations) who have no microservice
      */
-    @JsonDeserialize(as = HashSet.class)
+    @JsonDeserialize(as = NodeSet.class)
     private Set<ProjectFile> orphans;
 
+    /**
+     * Table of all roles named by the security configurations and annotations of the system,
+     * the position of a role is its bit in the role bitsets of endpoints
+     */
+    @JsonDeserialize(as = ArrayList.class)
+    private List<String> roles = new ArrayList<>();
+
+    /**
+     * Positions of the roles in the role table, built on first lookup
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private Map<String, Integer> roleIndex;
+
+    /**
+     * Microservices by their path, built on first lookup and kept in sync by
+     * {@link #addMicroservice(Microservice)} and {@link #removeMicroservice(Microservice)}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private PathTrie<Microservice> microserviceIndex;
+
+    /**
+     * Orphans by their path, built on first lookup and kept in sync by
+     * {@link #addOrphan(ProjectFile)} and {@link #removeOrphan(String)}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private PathTrie<ProjectFile> orphanIndex;
+
+    /**
+     * Lookup tables over all files, see {@link #getIndex()}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private Index index;
+
+    /**
+     * Strings and locations shared by the nodes of the system, see {@link #intern(InternTable)}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private InternTable internTable;
+
     public MicroserviceSystem(String name, String commitID, Set<Microservice> microservices, Set<ProjectFile> orphans) {
         this.name = name;
         this.commitID = commitID;
-        this.microservices = microservices;
-        this.orphans = orphans;
+        this.microservices = NodeSet.of(microservices);
+        this.orphans = NodeSet.of(orphans);
 
         // Fill back references
         this.microservices.forEach(mis -> mis.setParent(this));
         this.orphans.forEach(orp -> orp.setParent(this));
     }
 
+    public void setMicroservices(Set<Microservice> microservices) {
+        this.microservices = NodeSet.of(microservices);
+        this.microserviceIndex = null;
+        this.index = null;
+        this.microservices.forEach(microservice -> microservice.setParent(this));
+    }
+
+    public void setOrphans(Set<ProjectFile> orphans) {
+        this.orphans = NodeSet.of(orphans);
+        this.orphanIndex = null;
+        this.index = null;
+        this.orphans.forEach(orphan -> orphan.setParent(this));
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+        this.roleIndex = null;
+    }
+
+    /**
+     * Get the bitset of the given roles over the role table
+     *
+     * @param roleNames the names of the roles, each must be in the role table
+     * @return the bitset of the roles as returned by {@link BitSet#toLongArray()}
+     */
+    public long[] getRoleBits(Collection<String> roleNames) {
+        if (roleIndex == null) {
+            roleIndex = new HashMap<>();
+            for (int i = 0; i < roles.size(); i++) {
+                roleIndex.put(roles.get(i), i);
+            }
+        }
+
+        BitSet roleBits = new BitSet(roles.size());
+        for (String roleName : roleNames) {
+            Integer bit = roleIndex.get(roleName);
+            if (bit == null) {
+                throw new IllegalArgumentException("Role " + roleName + " is not in the role table");
+            }
+            roleBits.set(bit);
+        }
+        return roleBits.toLongArray();
+    }
+
     /**
-     * Returns the microservice whose path is the start of the passed path
+     * Get the names of the roles in a bitset over the role table
+     *
+     * @param roleBits the bitset as returned by {@link #getRoleBits(Collection)}
+     * @return the names of the roles in the order of the role table
+     */
+    public List<String> getRoleNames(long[] roleBits) {
+        return BitSet.valueOf(roleBits).stream().mapToObj(roles::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the microservice with the longest path that is the start of the passed path
      *
      * @param path the path to search for
      * @return microservice instance of matching path or null
      */
     public Microservice findMicroserviceByPath(String path) {
-        return getMicroservices().stream().filter(microservice -> path.startsWith(microservice.getPath())).findFirst().orElse(null);
+        return getMicroserviceIndex().findLongestPrefix(path);
+    }
+
+    /**
+     * Check whether a microservice is nested below the passed path
+     *
+     * @param path the folder path
+     * @return true if the path of a microservice is more specific than the passed path
+     */
+    public boolean hasMicroservicesBelow(String path) {
+        return getMicroserviceIndex().hasDescendants(path);
+    }
+
+    /**
+     * Add a microservice to the system
+     *
+     * @param microservice the microservice to add
+     */
+    public void addMicroservice(Microservice microservice) {
+        microservice.setParent(this);
+        getMicroservices().add(microservice);
+        getMicroserviceIndex().put(microservice.getPath(), microservice);
+        index = null;
+    }
+
+    private static String endpointKey(HttpMethod httpMethod, String url) {
+        return httpMethod + " " + url;
+    }
+
+    /**
+     * Remove a microservice from the system, its files are not orphanized
+     *
+     * @param microservice the microservice to remove
+     */
+    public void removeMicroservice(Microservice microservice) {
+        getMicroservices().remove(microservice);
+        PathTrie<Microservice> microservicePaths = getMicroserviceIndex();
+        if (microservicePaths.get(microservice.getPath()) == microservice) {
+            microservicePaths.remove(microservice.getPath());
+        }
+        index = null;
+    }
+
+    /**
+     * Add a file without a microservice to the orphans
+     *
+     * @param file the orphaned file
+     */
+    public void addOrphan(ProjectFile file) {
+        file.setParent(this);
+        getOrphans().add(file);
+        getOrphanIndex().put(file.getPath(), file);
+        index = null;
+    }
+
+    /**
+     * Remove an orphan by its path
+     *
+     * @param path the path of the orphan
+     * @return the removed orphan or null if there is no orphan with the path
+     */
+    public ProjectFile removeOrphan(String path) {
+        ProjectFile file = getOrphanIndex().remove(path);
+        if (file != null) {
+            getOrphans().remove(file);
+            index = null;
+        }
+        return file;
     }
 
     /**
@@ -70,39 +253,102 @@ public class MicroserviceSystem extends Node {
      * @param microservice the microservice to orphanize
      */
     public void orphanize(Microservice microservice) {
-        Set<JClass> classes = microservice.getClasses();
-        classes.forEach(c -> c.updateMicroserviceName(""));
-        classes.forEach(c -> c.setParent(this));
-        orphans.addAll(classes);
+        for (JClass jClass : microservice.getClasses()) {
+            jClass.updateMicroserviceName("");
+            addOrphan(jClass);
+        }
     }
 
     /**
      * Given a new or modified microservice, we must adopt awaiting
-     * orphans based on their file paths containing the microservices
-     * (folder) path
+     * orphans based on their file paths being below the microservices
+     * (folder) path. Orphans below a more specific microservice are left
+     * for that microservice.
      *
      * @param microservice the microservice adopting orphans
      */
     public void adopt(Microservice microservice) {
-        Set<ProjectFile> updatedOrphans = new HashSet<>(getOrphans());
-
-        for (ProjectFile file : getOrphans()) {
-            // If the microservice is in the same folder as the path to the microservice
-            if (file.getPath().contains(microservice.getPath())) {
-                if(file.getFileType().equals(FileType.JCLASS)) {
-                    JClass jClass = (JClass) file;
-                    jClass.updateMicroserviceName(microservice.getName());
-                    jClass.setParent(microservice);
-                    microservice.addJClass(jClass);
-                    updatedOrphans.remove(file);
-                } else {
-                    microservice.getFiles().add((ConfigFile) file);
-                    file.setParent(microservice);
-                }
+        for (ProjectFile file : getOrphanIndex().findAll(microservice.getPath())) {
+            Microservice owner = findMicroserviceByPath(file.getPath());
+            if (owner != null && owner != microservice && owner.getPath().length() > microservice.getPath().length()) {
+                continue;
+            }
+
+            removeOrphan(file.getPath());
+            if (file.getFileType().equals(FileType.JCLASS)) {
+                // The microservice name and parent are updated see addJClass()
+                microservice.addJClass((JClass) file);
+            } else {
+                microservice.addFile((ConfigFile) file);
+            }
+        }
+    }
+
+    /**
+     * Lookup tables over all classes and files of the system. They are
+     * rebuilt on first use after the system or one of its microservices changed
+     */
+    private static final class Index {
+        private final Map<String, ProjectFile> files = new HashMap<>();
+        private final Map<String, JClass> classes = new HashMap<>();
+        private final Map<String, List<Endpoint>> endpoints = new HashMap<>();
+        private final Map<String, List<RestCall>> restCalls = new HashMap<>();
+
+        private void add(ProjectFile file) {
+            files.put(file.getPath(), file);
+            if (!(file instanceof JClass)) {
+                return;
             }
 
+            JClass jClass = (JClass) file;
+            classes.put(jClass.getPackageName() + "." + jClass.getName(), jClass);
+            for (Endpoint endpoint : jClass.getEndpoints()) {
+                endpoints.computeIfAbsent(endpointKey(endpoint.getHttpMethod(), EndpointMatcher.normalizeURL(endpoint.getUrl())), key -> new ArrayList<>()).add(endpoint);
+            }
+            List<RestCall> classRestCalls = jClass.getRestCalls();
+            if (!classRestCalls.isEmpty()) {
+                restCalls.put(jClass.getPath(), classRestCalls);
+            }
+        }
+    }
+
+    private Index getIndex() {
+        if (index == null) {
+            index = new Index();
+            for (Microservice microservice : getMicroservices()) {
+                microservice.getFiles().forEach(index::add);
+                microservice.getClasses().forEach(index::add);
+            }
+            getOrphans().forEach(index::add);
+        }
+        return index;
+    }
+
+    /**
+     * Drop the lookup tables after a microservice of the system changed
+     */
+    void clearIndex() {
+        index = null;
+    }
+
+    private PathTrie<Microservice> getMicroserviceIndex() {
+        if (microserviceIndex == null) {
+            microserviceIndex = new PathTrie<>(FileUtils.GIT_SEPARATOR);
+            for (Microservice microservice : getMicroservices()) {
+                microserviceIndex.put(microservice.getPath(), microservice);
+            }
+        }
+        return microserviceIndex;
+    }
+
+    private PathTrie<ProjectFile> getOrphanIndex() {
+        if (orphanIndex == null) {
+            orphanIndex = new PathTrie<>(FileUtils.GIT_SEPARATOR);
+            for (ProjectFile file : getOrphans()) {
+                orphanIndex.put(file.getPath(), file);
+            }
         }
-        setOrphans(updatedOrphans);
+        return orphanIndex;
     }
 
     /**
@@ -113,13 +359,8 @@ public class MicroserviceSystem extends Node {
      */
     @JsonIgnore
     public JClass findClass(String path){
-        JClass returnClass = null;
-        returnClass = getMicroservices().stream().flatMap(m -> m.getClasses().stream()).filter(c -> c.getPath().equals(path)).findFirst().orElse(null);
-        if(returnClass == null){
-            returnClass = getOrphans().stream().filter(c -> c instanceof JClass).filter(c -> c.getPath().equals(path)).map(c -> (JClass) c).findFirst().orElse(null);
-        }
-
-        return returnClass;
+        ProjectFile file = findFile(path);
+        return file instanceof JClass ? (JClass) file : null;
     }
 
     /**
@@ -130,31 +371,63 @@ public class MicroserviceSystem extends Node {
      */
     @JsonIgnore
     public ProjectFile findFile(String path){
-        ProjectFile returnFile = null;
-        returnFile = getMicroservices().stream().flatMap(m -> m.getAllFiles().stream()).filter(c -> c.getPath().equals(path)).findFirst().orElse(null);
-        if(returnFile == null){
-            returnFile = getOrphans().stream().filter(c -> c.getPath().equals(path)).findFirst().orElse(null);
+        return getIndex().files.get(path);
+    }
+
+    /**
+     * Get a class by its fully qualified name
+     *
+     * @param qualifiedName the package and name of the class, e.g. com.example.UserController
+     * @return the class or null if none has the name
+     */
+    @JsonIgnore
+    public JClass findClassByName(String qualifiedName) {
+        return getIndex().classes.get(qualifiedName);
+    }
+
+    /**
+     * Get the endpoints serving an HTTP method and URL. Endpoints mapped to
+     * all HTTP methods are included, query parameters of the URL are ignored
+     *
+     * @param httpMethod the HTTP method
+     * @param url the URL, path arguments may be given as {?} or {name}
+     * @return the endpoints, empty if there are none
+     */
+    @JsonIgnore
+    public List<Endpoint> findEndpoints(HttpMethod httpMethod, String url) {
+        Index index = getIndex();
+        String normalizedURL = EndpointMatcher.normalizeURL(url);
+        List<Endpoint> endpoints = new ArrayList<>(index.endpoints.getOrDefault(endpointKey(httpMethod, normalizedURL), List.of()));
+        if (!httpMethod.equals(HttpMethod.ALL)) {
+            endpoints.addAll(index.endpoints.getOrDefault(endpointKey(HttpMethod.ALL, normalizedURL), List.of()));
         }
+        return endpoints;
+    }
 
-        return returnFile;
+    /**
+     * Get the rest calls made by a class
+     *
+     * @param path the path of the class
+     * @return the rest calls, empty if the class makes none or does not exist
+     */
+    @JsonIgnore
+    public List<RestCall> findRestCalls(String path) {
+        return getIndex().restCalls.getOrDefault(path, List.of());
     }
 
     /**
      * This method returns the name of the microservice associated with
-     * a file that exists in the system. Note this method will not work
-     * if the file is not present somewhere in the system
+     * a class or configuration file that exists in the system. Note this
+     * method will not work if the file is not present somewhere in the system
      *
      * @param path the ProjectFile path
      * @return string name of microservice or "" if it does not exist
      */
     @JsonIgnore
     public String getMicroserviceFromFile(String path){
-        for(Microservice microservice : getMicroservices()) {
-            for(ProjectFile file : microservice.getFiles()) {
-                if(file.getPath().equals(path)) {
-                    return microservice.getName();
-                }
-            }
+        ProjectFile file = findFile(path);
+        if (file != null && file.getParent() instanceof Microservice) {
+            return ((Microservice) file.getParent()).getName();
         }
 
         return "";
@@ -167,6 +440,33 @@ public class MicroserviceSystem extends Node {
         }
     }
 
+    /**
+     * Replace the strings and locations held by the system by instances shared through
+     * the given intern table, see {@link InternTable}. The table is kept to intern nodes
+     * added to the system later on
+     *
+     * @param internTable the intern table
+     */
+    public void intern(InternTable internTable) {
+        this.internTable = internTable;
+        name = internTable.intern(name);
+        commitID = internTable.intern(commitID);
+        roles = internTable.internAll(roles);
+        microservices.forEach(microservice -> microservice.intern(internTable));
+        orphans.forEach(orphan -> orphan.intern(internTable));
+    }
+
+    /**
+     * @return the intern table of the system, a new table if the system was never interned
+     */
+    @JsonIgnore
+    public InternTable getInternTable() {
+        if (internTable == null) {
+            internTable = new InternTable();
+        }
+        return internTable;
+    }
+
     /**
      * Microservice systems don't have parents, so none can be set
      * @param parent Ignored parameter
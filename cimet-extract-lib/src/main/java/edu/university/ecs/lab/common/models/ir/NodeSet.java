@@ -0,0 +1,86 @@
+package edu.university.ecs.lab.common.models.ir;
+
+import java.util.*;
+
+/**
+ * Set of nodes keyed by their ID, see {@link Node#getID()}. Adding, finding and removing a
+ * node only hashes its ID instead of all of its contents, and a node can still be found
+ * after fields that are not part of its ID changed, e.g. its parent or microservice name.
+ * <p>
+ * At most one node is kept per ID, adding a node replaces a different node with the same ID.
+ * Nodes are only considered contained if they are equal to the node held for their ID, so
+ * the set compares equal to any other set holding equal nodes. Iteration follows insertion order.
+ *
+ * @param <T> the type of the nodes, their IDs must be unique within the set
+ */
+public class NodeSet<T extends Node> extends AbstractSet<T> {
+    private final Map<String, T> nodes;
+
+    public NodeSet() {
+        this.nodes = new LinkedHashMap<>();
+    }
+
+    public NodeSet(Collection<? extends T> nodes) {
+        this.nodes = new LinkedHashMap<>(Math.max(16, (int) (nodes.size() / .75f) + 1));
+        addAll(nodes);
+    }
+
+    /**
+     * Key a set by node IDs unless it already is
+     *
+     * @param nodes the set to key, null stays null
+     * @return the set itself if it is a NodeSet, otherwise a NodeSet copy of it
+     */
+    public static <T extends Node> Set<T> of(Set<T> nodes) {
+        return nodes == null || nodes instanceof NodeSet ? nodes : new NodeSet<>(nodes);
+    }
+
+    /**
+     * @param id the ID of the node
+     * @return the node with the ID or null if there is none
+     */
+    public T get(String id) {
+        return nodes.get(id);
+    }
+
+    @Override
+    public boolean add(T node) {
+        T previous = nodes.put(node.getID(), node);
+        return previous != node;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Node)) {
+            return false;
+        }
+
+        T node = nodes.get(((Node) o).getID());
+        return node == o || (node != null && node.equals(o));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+
+        nodes.remove(((Node) o).getID());
+        return true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return nodes.values().iterator();
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+    }
+}
@@ -2,6 +2,7 @@ package edu.university.ecs.lab.common.models.ir;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -62,4 +63,13 @@ public class Parameter extends Component {
         else
             this.location = null;
     }
+
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        parameterType = internTable.intern(parameterType);
+        if (annotations != null) {
+            annotations.forEach(annotation -> annotation.intern(internTable));
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import edu.university.ecs.lab.common.models.enums.FileType;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -29,4 +30,14 @@ public abstract class ProjectFile extends Node {
     protected String path;
     protected FileType fileType;
 
+    /**
+     * Replace the strings held by the file and its components by the instances shared
+     * through the intern table of the system
+     *
+     * @param internTable the intern table
+     */
+    public void intern(InternTable internTable) {
+        name = internTable.intern(name);
+        path = internTable.intern(path);
+    }
 }
@@ -0,0 +1,34 @@
+package edu.university.ecs.lab.common.models.ir;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import edu.university.ecs.lab.common.models.enums.CrudOperation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Represents a repository class reached from an endpoint and the operations performed on it
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepositoryAccess {
+    /**
+     * The path of the repository class
+     */
+    private String repositoryPath;
+
+    /**
+     * The name of the repository class
+     */
+    private String repositoryName;
+
+    /**
+     * Operations performed on the repository, empty if no called method suggests one
+     */
+    @JsonDeserialize(as = TreeSet.class)
+    private Set<CrudOperation> operations;
+}
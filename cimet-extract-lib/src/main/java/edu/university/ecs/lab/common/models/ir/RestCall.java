@@ -2,6 +2,7 @@ package edu.university.ecs.lab.common.models.ir;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.utils.InternTable;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -88,4 +89,9 @@ public class RestCall extends MethodCall {
         return true;
     }
 
+    @Override
+    public void intern(InternTable internTable) {
+        super.intern(internTable);
+        url = internTable.intern(url);
+    }
 }
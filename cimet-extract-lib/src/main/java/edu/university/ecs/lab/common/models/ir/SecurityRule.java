@@ -0,0 +1,44 @@
+package edu.university.ecs.lab.common.models.ir;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.models.enums.SecurityAccess;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Represents one matcher of a Spring Security configuration chain and the access it grants,
+ * e.g. .antMatchers(HttpMethod.GET, "/api/v1/users/**").hasRole("ADMIN")
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SecurityRule {
+    /**
+     * The HTTP method the rule is restricted to, ALL if it applies to every method
+     */
+    private HttpMethod httpMethod;
+
+    /**
+     * The Ant style URL patterns of the rule, /** if it matches any request (anyRequest)
+     */
+    @JsonDeserialize(as = ArrayList.class)
+    private List<String> patterns;
+
+    /**
+     * The access granted to matching requests
+     */
+    private SecurityAccess access;
+
+    /**
+     * The roles allowed if access is ROLES, without the "ROLE_" prefix
+     */
+    @JsonDeserialize(as = TreeSet.class)
+    private Set<String> roles;
+}
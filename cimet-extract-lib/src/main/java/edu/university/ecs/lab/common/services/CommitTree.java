@@ -0,0 +1,125 @@
+package edu.university.ecs.lab.common.services;
+
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Read-only view of the files of a single commit, read straight from the object database
+ * of a repository. Unlike a checkout it never touches the working tree, so any number of
+ * commits of the same clone can be read at the same time.
+ * <p>
+ * Paths are git paths relative to the repository root without a leading separator, the
+ * root directory itself is "". The view is safe to share between threads.
+ */
+public class CommitTree {
+    private static final String ROOT = "";
+
+    private final Repository repository;
+    private final String commitID;
+
+    /**
+     * Blob ids of all regular files in tree order
+     */
+    private final Map<String, ObjectId> blobIds = new LinkedHashMap<>();
+
+    /**
+     * Paths of the direct children of each directory in tree order
+     */
+    private final Map<String, List<String>> children = new HashMap<>();
+
+    /**
+     * Read the tree of the given commit
+     *
+     * @param repository the repository to read from
+     * @param commitID the commit whose tree is read
+     */
+    public CommitTree(Repository repository, String commitID) throws IOException {
+        this.repository = repository;
+
+        children.put(ROOT, new ArrayList<>());
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            ObjectId commitId = repository.resolve(commitID);
+            if (commitId == null) {
+                throw new IllegalArgumentException("Unknown commit " + commitID);
+            }
+            this.commitID = commitId.getName();
+            treeWalk.addTree(revWalk.parseCommit(commitId).getTree());
+
+            while (treeWalk.next()) {
+                String path = treeWalk.getPathString();
+                String parent = treeWalk.getDepth() == 0 ? ROOT : path.substring(0, path.lastIndexOf('/'));
+                FileMode fileMode = treeWalk.getFileMode(0);
+
+                if (treeWalk.isSubtree()) {
+                    children.get(parent).add(path);
+                    children.put(path, new ArrayList<>());
+                    treeWalk.enterSubtree();
+                } else if (fileMode == FileMode.REGULAR_FILE || fileMode == FileMode.EXECUTABLE_FILE) {
+                    children.get(parent).add(path);
+                    blobIds.put(path, treeWalk.getObjectId(0));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the full id of the commit
+     */
+    public String getCommitID() {
+        return commitID;
+    }
+
+    /**
+     * @return the blob ids of all regular files in tree order
+     */
+    public Map<String, ObjectId> getBlobIds() {
+        return Collections.unmodifiableMap(blobIds);
+    }
+
+    /**
+     * @param path the git path
+     * @return true if the path is a regular file of the commit
+     */
+    public boolean isFile(String path) {
+        return blobIds.containsKey(path);
+    }
+
+    /**
+     * @param path the git path
+     * @return true if the path is a directory of the commit
+     */
+    public boolean isDirectory(String path) {
+        return children.containsKey(path);
+    }
+
+    /**
+     * List the direct children of a directory
+     *
+     * @param directory the git path of the directory
+     * @return the git paths of the children in tree order, empty if the directory does not exist
+     */
+    public List<String> list(String directory) {
+        return Collections.unmodifiableList(children.getOrDefault(directory, List.of()));
+    }
+
+    /**
+     * Read the content of a file
+     *
+     * @param path the git path of the file
+     * @return the content of the file
+     */
+    public byte[] open(String path) throws IOException {
+        ObjectId blobId = blobIds.get(path);
+        if (blobId == null) {
+            throw new IOException("No such file in commit " + commitID + ": " + path);
+        }
+        return repository.open(blobId).getBytes(Integer.MAX_VALUE);
+    }
+}
@@ -3,21 +3,36 @@ package edu.university.ecs.lab.common.services;
 import edu.university.ecs.lab.common.config.Config;
 import edu.university.ecs.lab.common.config.ConfigUtil;
 import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.JavaTokenComparator;
+import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.TransportException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.lib.*;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
-import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.OrTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -44,22 +59,133 @@ public class GitService {
     }
 
     /**
-     * Method to clone a repository
+     * Method to clone a repository, an existing clone is brought up to date with
+     * {@link #fetchRemote()} unless the configuration is offline. The clone is limited to the
+     * configured depth, and a sparse checkout only writes the files the IR is extracted from
+     * to the working tree.
      */
     public void cloneRemote() throws InterruptedException, IOException {
-        String repositoryPath = FileUtils.getRepositoryPath(config.getRepoName());
+        File repositoryPath = new File(FileUtils.getRepositoryPath(config.getRepoName()));
 
         // Check if repository was already cloned
-        if (new File(repositoryPath).exists()) {
+        if (repositoryPath.exists()) {
+            if (!config.isOffline()) {
+                try (Repository existingRepository = initRepository()) {
+                    fetchRemote(existingRepository);
+                } catch (GitAPIException e) {
+                    throw new IOException("Unable to update " + repositoryPath, e);
+                }
+            }
+            return;
+        }
+
+        CloneCommand cloneCommand = Git.cloneRepository()
+                .setURI(config.getRepositoryURL())
+                .setDirectory(repositoryPath)
+                .setNoCheckout(config.isSparseCheckout());
+        if (config.getCloneDepth() > 0) {
+            cloneCommand.setDepth(config.getCloneDepth());
+        }
+
+        try (Git git = cloneCommand.call()) {
+            if (config.isSparseCheckout()) {
+                checkoutValidFiles(git.getRepository(), Constants.HEAD);
+            }
+        } catch (GitAPIException e) {
+            throw new IOException("Unable to clone " + config.getRepositoryURL(), e);
+        }
+    }
+
+    /**
+     * Fetch the new commits of the origin remote and fast-forward the current branch to its
+     * fetched counterpart, updating the working tree as {@link #resetLocal(String)} does.
+     * Clones without a remote, e.g. local test repositories, are left as they are. No depth is
+     * requested, so full clones keep their full history and shallow clones keep their shallow
+     * boundary and fetch all commits made after it.
+     *
+     * @throws IOException if the remote cannot be fetched or the branch has diverged from it
+     */
+    public void fetchRemote() throws IOException, GitAPIException {
+        fetchRemote(repository);
+    }
+
+    private void fetchRemote(Repository repository) throws IOException, GitAPIException {
+        if (!repository.getRemoteNames().contains(Constants.DEFAULT_REMOTE_NAME)) {
+            return;
+        }
+
+        try (Git git = new Git(repository)) {
+            git.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME).call();
+        } catch (TransportException e) {
+            throw new IOException("Unable to fetch " + config.getRepositoryURL(), e);
+        }
+
+        ObjectId localId = repository.resolve(Constants.HEAD);
+        ObjectId remoteId = repository.resolve(Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + repository.getBranch());
+        if (remoteId == null || remoteId.equals(localId)) {
             return;
         }
 
-        // Create and execute operating system process to clone repository
-        ProcessBuilder processBuilder =
-                new ProcessBuilder("git", "clone", config.getRepositoryURL(), repositoryPath);
-        processBuilder.redirectErrorStream(true);
-        Process process = processBuilder.start();
-        process.waitFor();
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            if (localId != null && !revWalk.isMergedInto(revWalk.parseCommit(localId), revWalk.parseCommit(remoteId))) {
+                throw new IOException("Unable to fast-forward " + repository.getBranch() + " to " + remoteId.getName());
+            }
+        }
+        resetLocal(repository, remoteId.getName());
+    }
+
+    /**
+     * Replace the working tree and index with the files of a commit that the IR is extracted
+     * from (see {@link FileUtils#isValidFile(String)}), leaving out all other files. Files are
+     * written as stored in the repository without applying checkout filters.
+     *
+     * @param repository the repository to check out
+     * @param commitID the commit to check out
+     */
+    private static void checkoutValidFiles(Repository repository, String commitID) throws IOException {
+        File workTree = repository.getWorkTree();
+        DirCache dirCache = repository.lockDirCache();
+
+        try (ObjectReader reader = repository.newObjectReader();
+             RevWalk revWalk = new RevWalk(reader);
+             TreeWalk treeWalk = new TreeWalk(repository, reader)) {
+            // Remove the files of the previous checkout
+            for (int i = 0; i < dirCache.getEntryCount(); i++) {
+                Files.deleteIfExists(new File(workTree, dirCache.getEntry(i).getPathString()).toPath());
+            }
+
+            ObjectId commitId = repository.resolve(commitID);
+            if (commitId == null) {
+                throw new IllegalArgumentException("Unknown commit " + commitID);
+            }
+            treeWalk.addTree(revWalk.parseCommit(commitId).getTree());
+            treeWalk.setFilter(validFilesFilter());
+            treeWalk.setRecursive(true);
+
+            DirCacheBuilder builder = dirCache.builder();
+            while (treeWalk.next()) {
+                FileMode fileMode = treeWalk.getFileMode(0);
+                if ((fileMode != FileMode.REGULAR_FILE && fileMode != FileMode.EXECUTABLE_FILE) || !FileUtils.isValidFile(treeWalk.getPathString())) {
+                    continue;
+                }
+
+                File file = new File(workTree, treeWalk.getPathString());
+                Files.createDirectories(file.getParentFile().toPath());
+                try (OutputStream outputStream = new FileOutputStream(file)) {
+                    reader.open(treeWalk.getObjectId(0), Constants.OBJ_BLOB).copyTo(outputStream);
+                }
+
+                DirCacheEntry entry = new DirCacheEntry(treeWalk.getPathString());
+                entry.setFileMode(fileMode);
+                entry.setObjectId(treeWalk.getObjectId(0));
+                entry.setLength(file.length());
+                entry.setLastModified(Files.getLastModifiedTime(file.toPath()).toInstant());
+                builder.add(entry);
+            }
+            builder.commit();
+        } finally {
+            dirCache.unlock();
+        }
     }
 
     /**
@@ -67,16 +193,25 @@ public class GitService {
      * 
      * @param commitID commit id to reset to
      */
-    public void resetLocal(String commitID) throws GitAPIException {
+    public void resetLocal(String commitID) throws GitAPIException, IOException {
+        resetLocal(repository, commitID);
+    }
+
+    private void resetLocal(Repository repository, String commitID) throws GitAPIException, IOException {
         validateLocalExists();
 
         if (Objects.isNull(commitID) || commitID.isEmpty()) {
             return;
         }
 
-        // Reset branch to old commit
+        // Reset branch to old commit, a sparse checkout only updates the files the IR is extracted from
         try (Git git = new Git(repository)) {
-            git.reset().setMode(ResetCommand.ResetType.HARD).setRef(commitID).call();
+            if (config.isSparseCheckout()) {
+                git.reset().setMode(ResetCommand.ResetType.SOFT).setRef(commitID).call();
+                checkoutValidFiles(repository, commitID);
+            } else {
+                git.reset().setMode(ResetCommand.ResetType.HARD).setRef(commitID).call();
+            }
         }
     }
 
@@ -107,122 +242,195 @@ public class GitService {
     }
 
     /**
-     * Method to get differences between old and new commits
+     * Method to get differences between old and new commits. Only files matching one of
+     * the {@link FileUtils#VALID_FILES} suffixes are compared, and Java files whose code
+     * is unchanged apart from whitespace and comments are left out.
      * 
      * @param commitOld old commit id
      * @param commitNew new commit id
      * @return list of changes from old commit to new commit
      */
-    public List<DiffEntry> getDifferences(String commitOld, String commitNew) throws IOException, GitAPIException {
-        List<DiffEntry> returnList = null;
-        RevCommit oldCommit = null, newCommit = null;
-        RevWalk revWalk = new RevWalk(repository);
-
-        // Parse the old and new commits
-        oldCommit = revWalk.parseCommit(repository.resolve(commitOld));
-        newCommit = revWalk.parseCommit(repository.resolve(commitNew));
+    public List<DiffEntry> getDifferences(String commitOld, String commitNew) throws IOException {
+        List<DiffEntry> returnList = new ArrayList<>();
 
-        // Prepare tree parsers for both commits
-        try (ObjectReader reader = repository.newObjectReader()) {
-            CanonicalTreeParser oldTreeParser = new CanonicalTreeParser();
-            CanonicalTreeParser newTreeParser = new CanonicalTreeParser();
+        // One reader is shared by the tree walk and all blob lookups of the diff
+        try (ObjectReader reader = repository.newObjectReader();
+             RevWalk revWalk = new RevWalk(reader);
+             TreeWalk treeWalk = new TreeWalk(repository, reader)) {
 
             // Use tree objects from the commits
-            oldTreeParser.reset(reader, oldCommit.getTree().getId());
-            newTreeParser.reset(reader, newCommit.getTree().getId());
-
-            // Compute differences between the trees of the two commits
-            try (Git git = new Git(repository)) {
-                List<DiffEntry> rawDiffs = git.diff()
-                        .setOldTree(oldTreeParser)
-                        .setNewTree(newTreeParser)
-                        .call();
-
-                // Filter out diffs that only contain whitespace or comment changes
-                RevCommit finalOldCommit = oldCommit;
-                RevCommit finalNewCommit = newCommit;
-                returnList = rawDiffs.stream()
-                        .filter(diff -> isCodeChange(diff, repository, finalOldCommit, finalNewCommit))
-                        .collect(Collectors.toList());
+            treeWalk.addTree(revWalk.parseCommit(resolve(commitOld)).getTree());
+            treeWalk.addTree(revWalk.parseCommit(resolve(commitNew)).getTree());
+
+            // Only descend into changed trees and only report files the IR is built from
+            treeWalk.setFilter(AndTreeFilter.create(TreeFilter.ANY_DIFF, validFilesFilter()));
+            treeWalk.setRecursive(true);
+
+            // Filter out diffs that only contain whitespace or comment changes
+            for (DiffEntry diff : DiffEntry.scan(treeWalk)) {
+                if (isCodeChange(diff, reader)) {
+                    returnList.add(diff);
+                }
             }
         }
 
         return returnList;
     }
 
+    /**
+     * Build a tree filter matching the paths ending with one of the {@link FileUtils#VALID_FILES} suffixes
+     *
+     * @return the tree filter
+     */
+    private static TreeFilter validFilesFilter() {
+        List<TreeFilter> filters = FileUtils.VALID_FILES.stream().map(PathSuffixFilter::create).collect(Collectors.toList());
+        return filters.size() == 1 ? filters.get(0) : OrTreeFilter.create(filters);
+    }
+
     /**
      * Method to check if a commit difference was a change to the code
      * 
      * @param diff DiffEntry object
-     * @param repository repository to check
-     * @param oldCommit old commit id
-     * @param newCommit new commit id
+     * @param reader reader of the repository to load the blobs with
      * 
      * @return true if difference was a change to the code, false otherwise
      */
-    private boolean isCodeChange(DiffEntry diff, Repository repository, RevCommit oldCommit, RevCommit newCommit) {
+    private boolean isCodeChange(DiffEntry diff, ObjectReader reader) {
         if((!diff.getOldPath().endsWith(".java") && !diff.getNewPath().endsWith(".java"))) {
             return true;
         }
 
-        // Read the file contents before and after the changes
-        String oldContent = getContentFromTree(repository, oldCommit.getTree().getId(), diff.getOldPath());
-        String newContent = getContentFromTree(repository, newCommit.getTree().getId(), diff.getNewPath());
+        // Identical blobs, e.g. a change of the file mode only
+        if (diff.getOldId().equals(diff.getNewId())) {
+            return false;
+        }
 
-        // Remove comments and whitespace from both contents
-        String oldCode = stripCommentsAndWhitespace(oldContent);
-        String newCode = stripCommentsAndWhitespace(newContent);
+        // Read the file contents before and after the changes
+        byte[] oldContent = getContent(reader, diff.getOldId());
+        byte[] newContent = getContent(reader, diff.getNewId());
 
-        // If the meaningful code is different, return true
-        return !oldCode.equals(newCode);
+        // If the code is different apart from comments and whitespace, return true
+        return !JavaTokenComparator.isEquivalent(oldContent, newContent);
     }
 
     /**
-     * Get file data from a file tree
+     * Get file data of a blob
      * 
-     * @param repository repository to check
-     * @param treeId id of the tree to check
-     * @param filePath file to get data from
-     * @return data from the file, or an empty string if an error occurs or file is not found
+     * @param reader reader of the repository
+     * @param blobId id of the blob, the zero id for a missing side of an add or delete
+     * @return data from the file, or no data if an error occurs or the blob is missing
      */
-    private String getContentFromTree(Repository repository, ObjectId treeId, String filePath) {
-        try (ObjectReader reader = repository.newObjectReader();
-             TreeWalk treeWalk = new TreeWalk(repository)) {
+    private byte[] getContent(ObjectReader reader, AbbreviatedObjectId blobId) {
+        if (!blobId.isComplete() || blobId.toObjectId().equals(ObjectId.zeroId())) {
+            return new byte[0];
+        }
+
+        try {
+            return reader.open(blobId.toObjectId(), Constants.OBJ_BLOB).getBytes();
+        } catch (Exception e) {
+            // Return no data in case of an error
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Get the commits following a start commit up to an end commit, oldest first. Only
+     * first parents are followed so that each commit can be compared with the previous one.
+     *
+     * @param startCommit commit id to start after, excluded from the result
+     * @param endCommit commit id to end at, included in the result
+     * @return the commits in the range in the order they were made
+     */
+    public List<RevCommit> getCommits(String startCommit, String endCommit) throws IOException {
+        List<RevCommit> commits = new ArrayList<>();
+
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            revWalk.setFirstParent(true);
+            revWalk.sort(RevSort.TOPO);
+            revWalk.sort(RevSort.REVERSE, true);
+            revWalk.markStart(revWalk.parseCommit(resolve(endCommit)));
+            revWalk.markUninteresting(revWalk.parseCommit(resolve(startCommit)));
+
+            for (RevCommit commit : revWalk) {
+                commits.add(commit);
+            }
+        }
 
-            // Add the tree to the tree walker
-            treeWalk.addTree(treeId);
-            treeWalk.setRecursive(true); // We want to search recursively
+        return commits;
+    }
+
+    /**
+     * Get the paths of all files that differ between two commits, without comparing their content
+     *
+     * @param commitOld old commit id
+     * @param commitNew new commit id
+     * @return the git paths (without leading separator) of added, modified and deleted files
+     */
+    public List<String> getChangedPaths(String commitOld, String commitNew) throws IOException {
+        List<String> paths = new ArrayList<>();
+
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revWalk.parseCommit(resolve(commitOld)).getTree());
+            treeWalk.addTree(revWalk.parseCommit(resolve(commitNew)).getTree());
+            treeWalk.setFilter(TreeFilter.ANY_DIFF);
+            treeWalk.setRecursive(true);
 
-            // Walk through the tree to find the file
             while (treeWalk.next()) {
-                String currentPath = treeWalk.getPathString();
-                if (currentPath.equals(filePath)) {
-                    // Ensure we have a blob (file) and not a tree
-                    if (treeWalk.getFileMode(0).getObjectType() == Constants.OBJ_BLOB) {
-                        // Read the file content and return it
-                        byte[] data = reader.open(treeWalk.getObjectId(0)).getBytes();
-                        return new String(data, StandardCharsets.UTF_8);
-                    }
-                }
+                paths.add(treeWalk.getPathString());
             }
+        }
 
-        } catch (Exception e) {
-            // Return an empty string in case of an error
-            return "";
+        return paths;
+    }
+
+    /**
+     * Resolve a commit id or reference of the repository
+     *
+     * @param commitID the commit id or reference
+     * @return the object id of the commit
+     */
+    private ObjectId resolve(String commitID) throws IOException {
+        ObjectId objectId = repository.resolve(commitID);
+        if (objectId == null) {
+            throw new IllegalArgumentException("Unknown commit " + commitID);
         }
+        return objectId;
+    }
 
-        // If the file is not found, return an empty string
-        return "";
+    /**
+     * Get a view of the files of a commit that is read from the object database,
+     * leaving the working tree untouched
+     *
+     * @param commitID commit id to read the tree of
+     * @return the files of the commit
+     */
+    public CommitTree getCommitTree(String commitID) throws IOException {
+        return new CommitTree(repository, commitID);
     }
 
     /**
-     * Remove comments and whitespace from file content
-     * 
-     * @param content string of all file content
-     * @return string of file content with whitespace and comments removed
+     * Get the blob ids of all files in the tree of a commit
+     *
+     * @param commitID commit id to read the tree of
+     * @return mapping of git paths (without leading separator) to blob ids
      */
-    private String stripCommentsAndWhitespace(String content) {
-        return content.replaceAll("(//.*|/\\*[^*]*\\*+(?:[^/*][^*]*\\*+)*/|\\s+)", "");
+    public Map<String, ObjectId> getBlobIds(String commitID) throws IOException {
+        Map<String, ObjectId> blobIds = new HashMap<>();
+
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revWalk.parseCommit(repository.resolve(commitID)).getTree());
+            treeWalk.setRecursive(true);
+
+            while (treeWalk.next()) {
+                if (treeWalk.getFileMode(0).getObjectType() == Constants.OBJ_BLOB) {
+                    blobIds.put(treeWalk.getPathString(), treeWalk.getObjectId(0));
+                }
+            }
+        }
+
+        return blobIds;
     }
 
     /**
@@ -4,6 +4,7 @@
  * This package includes:
  * -
  *   - {@link edu.university.ecs.lab.common.services.GitService}: A service used to access and clone Git repositories.
+ *   - {@link edu.university.ecs.lab.common.services.CommitTree}: A read-only view of the files of a commit in the object database.
  *   - {@link edu.university.ecs.lab.common.services.JsonSchemaService}: A service used to create JSON schemas.
  */
 package edu.university.ecs.lab.common.services;
\ No newline at end of file
@@ -0,0 +1,140 @@
+package edu.university.ecs.lab.common.utils;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.resolution.Navigator;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import edu.university.ecs.lab.common.services.CommitTree;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.github.javaparser.ParserConfiguration.LanguageLevel.BLEEDING_EDGE;
+
+/**
+ * Type solver resolving types against the sources of a commit tree, the counterpart of
+ * JavaParserTypeSolver rooted at the repository root for files that are not checked out.
+ * A type a.b.C is looked up in a/b/C.java first and then in every Java file of a/b, with
+ * the same fallbacks for nested types as JavaParserTypeSolver.
+ */
+public class CommitTreeTypeSolver implements TypeSolver {
+    private final CommitTree commitTree;
+    private final JavaParser javaParser;
+    private TypeSolver parent;
+
+    private final Map<String, Optional<CompilationUnit>> parsedFiles = new ConcurrentHashMap<>();
+    private final Map<String, List<CompilationUnit>> parsedDirectories = new ConcurrentHashMap<>();
+    private final Map<String, SymbolReference<ResolvedReferenceTypeDeclaration>> foundTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Create a type solver for the sources of the given commit tree
+     *
+     * @param commitTree the files of the commit
+     */
+    public CommitTreeTypeSolver(CommitTree commitTree) {
+        this.commitTree = commitTree;
+        this.javaParser = new JavaParser(new ParserConfiguration().setLanguageLevel(BLEEDING_EDGE));
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        Objects.requireNonNull(parent);
+        if (this.parent != null) {
+            throw new IllegalStateException("This TypeSolver already has a parent.");
+        }
+        if (parent == this) {
+            throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+        }
+        this.parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        SymbolReference<ResolvedReferenceTypeDeclaration> result = foundTypes.get(name);
+        if (result == null) {
+            result = tryToSolveTypeUncached(name);
+            foundTypes.put(name, result);
+        }
+        return result;
+    }
+
+    private SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveTypeUncached(String name) {
+        String[] nameElements = name.split("\\.");
+
+        for (int i = nameElements.length; i > 0; i--) {
+            String directory = String.join("/", Arrays.copyOfRange(nameElements, 0, i - 1));
+            String filePath = (directory.isEmpty() ? "" : directory + "/") + nameElements[i - 1] + ".java";
+            String typeName = String.join(".", Arrays.copyOfRange(nameElements, i - 1, nameElements.length));
+
+            // Look in the canonical position first
+            Optional<CompilationUnit> compilationUnit = parse(filePath);
+            if (compilationUnit.isPresent()) {
+                Optional<TypeDeclaration<?>> typeDeclaration = Navigator.findType(compilationUnit.get(), typeName);
+                if (typeDeclaration.isPresent()) {
+                    return SymbolReference.solved(JavaParserFacade.get(this).getTypeDeclaration(typeDeclaration.get()));
+                }
+            }
+
+            // Then in every file of the package, for types not declared in a file of their own name
+            for (CompilationUnit unit : parseDirectory(directory)) {
+                Optional<TypeDeclaration<?>> typeDeclaration = Navigator.findType(unit, typeName);
+                if (typeDeclaration.isPresent()) {
+                    return SymbolReference.solved(JavaParserFacade.get(this).getTypeDeclaration(typeDeclaration.get()));
+                }
+            }
+        }
+
+        return SymbolReference.unsolved();
+    }
+
+    private Optional<CompilationUnit> parse(String path) {
+        Optional<CompilationUnit> compilationUnit = parsedFiles.get(path);
+        if (compilationUnit != null) {
+            return compilationUnit;
+        }
+
+        if (!commitTree.isFile(path)) {
+            compilationUnit = Optional.empty();
+        } else {
+            try {
+                byte[] source = commitTree.open(path);
+                // JavaParser only allows one parse at a time
+                synchronized (javaParser) {
+                    compilationUnit = javaParser.parse(new ByteArrayInputStream(source)).getResult();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Issue while parsing while type solving: " + path, e);
+            }
+        }
+        parsedFiles.put(path, compilationUnit);
+        return compilationUnit;
+    }
+
+    private List<CompilationUnit> parseDirectory(String directory) {
+        List<CompilationUnit> units = parsedDirectories.get(directory);
+        if (units != null) {
+            return units;
+        }
+
+        units = new ArrayList<>();
+        for (String path : commitTree.list(directory)) {
+            if (path.toLowerCase().endsWith(".java")) {
+                parse(path).ifPresent(units::add);
+            }
+        }
+        parsedDirectories.put(directory, units);
+        return units;
+    }
+}
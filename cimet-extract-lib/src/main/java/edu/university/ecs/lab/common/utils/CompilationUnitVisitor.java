@@ -0,0 +1,143 @@
+package edu.university.ecs.lab.common.utils;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.TypePatternExpr;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Walks a compilation unit once in pre-order (the order of {@link Node#findAll(Class)}) and
+ * collects every declaration needed to build a JClass, replacing separate findAll traversals
+ * for each kind of node.
+ */
+@Getter
+public class CompilationUnitVisitor {
+    /**
+     * All import declarations
+     */
+    private final List<ImportDeclaration> importDeclarations = new ArrayList<>();
+
+    /**
+     * Annotations placed directly on a class or interface declaration (including nested ones)
+     */
+    private final Set<AnnotationExpr> classAnnotations = new HashSet<>();
+
+    /**
+     * All method declarations, including those of nested and anonymous classes
+     */
+    private final List<MethodDeclaration> methodDeclarations = new ArrayList<>();
+
+    /**
+     * All field declarations
+     */
+    private final List<FieldDeclaration> fieldDeclarations = new ArrayList<>();
+
+    /**
+     * The first class or interface declaration, null if there is none
+     */
+    private ClassOrInterfaceDeclaration classOrInterfaceDeclaration;
+
+    /**
+     * The first enum declaration, null if there is none
+     */
+    private EnumDeclaration enumDeclaration;
+
+    /**
+     * The first record declaration, null if there is none
+     */
+    private RecordDeclaration recordDeclaration;
+
+    /**
+     * Names of all pattern variables (e.g. {@code o instanceof Foo foo})
+     */
+    private final Set<String> patternVariables = new HashSet<>();
+
+    /**
+     * Number of nodes visited while walking the compilation unit
+     */
+    private int visitedNodes;
+
+    /**
+     * Method calls found in each method declaration, aligned with methodDeclarations
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private final List<List<MethodCallExpr>> methodCallExprs = new ArrayList<>();
+
+    /**
+     * Indexes of the method declarations enclosing the node currently visited
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private final Deque<Integer> enclosingMethods = new ArrayDeque<>();
+
+    /**
+     * Walk the given compilation unit and collect its declarations
+     *
+     * @param cu the compilation unit to walk
+     */
+    public CompilationUnitVisitor(CompilationUnit cu) {
+        visit(cu);
+    }
+
+    /**
+     * Get the method calls made within a method declaration, a call nested in several
+     * method declarations (e.g. in an anonymous class) belongs to each of them
+     *
+     * @param index index of the method declaration in getMethodDeclarations()
+     * @return the method calls in pre-order
+     */
+    public List<MethodCallExpr> getMethodCallExprs(int index) {
+        return methodCallExprs.get(index);
+    }
+
+    private void visit(Node node) {
+        visitedNodes++;
+        boolean isMethod = false;
+
+        if (node instanceof MethodCallExpr) {
+            for (int index : enclosingMethods) {
+                methodCallExprs.get(index).add((MethodCallExpr) node);
+            }
+        } else if (node instanceof MethodDeclaration) {
+            isMethod = true;
+            methodDeclarations.add((MethodDeclaration) node);
+            methodCallExprs.add(new ArrayList<>());
+            enclosingMethods.push(methodDeclarations.size() - 1);
+        } else if (node instanceof FieldDeclaration) {
+            fieldDeclarations.add((FieldDeclaration) node);
+        } else if (node instanceof AnnotationExpr) {
+            if (node.getParentNode().orElse(null) instanceof ClassOrInterfaceDeclaration) {
+                classAnnotations.add((AnnotationExpr) node);
+            }
+        } else if (node instanceof TypePatternExpr) {
+            patternVariables.add(((TypePatternExpr) node).getNameAsString());
+        } else if (node instanceof ImportDeclaration) {
+            importDeclarations.add((ImportDeclaration) node);
+        } else if (node instanceof ClassOrInterfaceDeclaration) {
+            if (classOrInterfaceDeclaration == null) {
+                classOrInterfaceDeclaration = (ClassOrInterfaceDeclaration) node;
+            }
+        } else if (node instanceof EnumDeclaration) {
+            if (enumDeclaration == null) {
+                enumDeclaration = (EnumDeclaration) node;
+            }
+        } else if (node instanceof RecordDeclaration) {
+            if (recordDeclaration == null) {
+                recordDeclaration = (RecordDeclaration) node;
+            }
+        }
+
+        for (Node child : node.getChildNodes()) {
+            visit(child);
+        }
+
+        if (isMethod) {
+            enclosingMethods.pop();
+        }
+    }
+}
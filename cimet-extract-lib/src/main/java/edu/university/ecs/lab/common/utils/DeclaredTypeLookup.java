@@ -0,0 +1,275 @@
+package edu.university.ecs.lab.common.utils;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.nodeTypes.NodeWithTypeParameters;
+import com.github.javaparser.ast.stmt.*;
+import com.github.javaparser.ast.type.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cheap syntactic lookup of the type of a variable used as the scope of a method call,
+ * answering the common cases (fields, parameters and local variables with an explicitly
+ * declared type) without the symbol solver.
+ * <p>
+ * The lookup only answers when the result is certain to equal the simple type name
+ * that SourceToObjectUtils derives from the symbol solver, whether or not the solver
+ * manages to resolve the declared type. It gives up (returns null) whenever the variable
+ * could be bound elsewhere, e.g. inherited fields, static imports, pattern variables or
+ * shadowing declarations, and whenever the declared type is inferred, qualified, generic
+ * or a type variable. Callers fall back to the symbol solver in that case.
+ */
+public class DeclaredTypeLookup {
+    /**
+     * Names of the pattern variables of the compilation unit
+     */
+    private final Set<String> patternVariables;
+
+    /**
+     * Create a lookup for names used in a compilation unit
+     *
+     * @param patternVariables names of the pattern variables of the compilation unit
+     */
+    public DeclaredTypeLookup(Set<String> patternVariables) {
+        this.patternVariables = patternVariables;
+    }
+
+    /**
+     * Look up the simple type name of the variable referred to by a name expression
+     *
+     * @param nameExpr the name expression of the compilation unit, usually the scope of a method call
+     * @return the simple type name, "" for primitive and array types, null if unknown
+     */
+    public String lookup(NameExpr nameExpr) {
+        String name = nameExpr.getNameAsString();
+
+        // Pattern variables have flow dependent scopes, leave them to the solver
+        if (patternVariables.contains(name) || !isSupportedContext(nameExpr)) {
+            return null;
+        }
+
+        Node child = nameExpr;
+        Node parent = child.getParentNode().orElse(null);
+        while (parent != null) {
+            Declaration declaration = findDeclaration(parent, child, name);
+            if (declaration == Declaration.AMBIGUOUS) {
+                return null;
+            } else if (declaration != null) {
+                return typeName(declaration.type, declaration.varArgs, nameExpr);
+            }
+
+            child = parent;
+            parent = child.getParentNode().orElse(null);
+        }
+
+        // Not declared in this file, e.g. a type name or a static import
+        return null;
+    }
+
+    /**
+     * A variable declaration found in scope, AMBIGUOUS if the binding is uncertain
+     */
+    private static final class Declaration {
+        private static final Declaration AMBIGUOUS = new Declaration(null, false);
+
+        private final Type type;
+        private final boolean varArgs;
+
+        private Declaration(Type type, boolean varArgs) {
+            this.type = type;
+            this.varArgs = varArgs;
+        }
+    }
+
+    /**
+     * Find a declaration of name introduced by parent that is visible from its child
+     */
+    private static Declaration findDeclaration(Node parent, Node child, String name) {
+        if (parent instanceof BlockStmt) {
+            return findInStatements(((BlockStmt) parent).getStatements(), child, name);
+        } else if (parent instanceof ForStmt) {
+            return findInVariables(((ForStmt) parent).getInitialization(), name);
+        } else if (parent instanceof ForEachStmt) {
+            ForEachStmt forEachStmt = (ForEachStmt) parent;
+            Declaration declaration = findInVariables(List.of(forEachStmt.getVariable()), name);
+            return declaration != null && child == forEachStmt.getIterable() ? Declaration.AMBIGUOUS : declaration;
+        } else if (parent instanceof TryStmt) {
+            TryStmt tryStmt = (TryStmt) parent;
+            Declaration declaration = findInVariables(tryStmt.getResources(), name);
+            return declaration != null && child != tryStmt.getTryBlock() ? Declaration.AMBIGUOUS : declaration;
+        } else if (parent instanceof CatchClause) {
+            return findInParameters(List.of(((CatchClause) parent).getParameter()), name);
+        } else if (parent instanceof LambdaExpr) {
+            return findInParameters(((LambdaExpr) parent).getParameters(), name);
+        } else if (parent instanceof MethodDeclaration || parent instanceof ConstructorDeclaration) {
+            return findInParameters(((CallableDeclaration<?>) parent).getParameters(), name);
+        } else if (parent instanceof ClassOrInterfaceDeclaration) {
+            ClassOrInterfaceDeclaration classDeclaration = (ClassOrInterfaceDeclaration) parent;
+            Declaration declaration = findInMembers(classDeclaration.getMembers(), name);
+            if (declaration != null) {
+                return declaration;
+            }
+
+            // Fields may be inherited from any supertype
+            return classDeclaration.getExtendedTypes().isEmpty() && classDeclaration.getImplementedTypes().isEmpty() ? null : Declaration.AMBIGUOUS;
+        }
+        return null;
+    }
+
+    /**
+     * Check that the name is not used within a construct the solver resolves names in differently,
+     * these are anonymous classes and enum constant bodies (names are looked up through the
+     * supertype first), switch entries (names are looked up as enum constants of the selector
+     * first), and interfaces, enums and records (members may be implicitly declared)
+     */
+    private static boolean isSupportedContext(Node node) {
+        Node child = node;
+        for (Node parent = child.getParentNode().orElse(null); parent != null; child = parent, parent = parent.getParentNode().orElse(null)) {
+            if (parent instanceof ObjectCreationExpr) {
+                ObjectCreationExpr objectCreationExpr = (ObjectCreationExpr) parent;
+                if (objectCreationExpr.getAnonymousClassBody().isPresent()
+                        && indexOf(objectCreationExpr.getAnonymousClassBody().get(), child) >= 0) {
+                    return false;
+                }
+            } else if (parent instanceof EnumConstantDeclaration || parent instanceof SwitchEntry
+                    || parent instanceof EnumDeclaration || parent instanceof RecordDeclaration
+                    || (parent instanceof ClassOrInterfaceDeclaration && ((ClassOrInterfaceDeclaration) parent).isInterface())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Declaration findInMembers(List<BodyDeclaration<?>> members, String name) {
+        Declaration found = null;
+        for (BodyDeclaration<?> member : members) {
+            if (member instanceof FieldDeclaration) {
+                Declaration declaration = findInVariables(List.of(member), name);
+                if (declaration != null) {
+                    if (found != null) {
+                        return Declaration.AMBIGUOUS;
+                    }
+                    found = declaration;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static Declaration findInStatements(NodeList<Statement> statements, Node child, String name) {
+        int index = indexOf(statements, child);
+        Declaration found = null;
+        for (int i = 0; i < statements.size(); i++) {
+            Statement statement = statements.get(i);
+            if (!statement.isExpressionStmt() || !statement.asExpressionStmt().getExpression().isVariableDeclarationExpr()) {
+                continue;
+            }
+
+            Declaration declaration = findInVariables(List.of(statement.asExpressionStmt().getExpression()), name);
+            if (declaration == null) {
+                continue;
+            }
+            // Only a single declaration strictly before the use is certain to be the one in scope
+            if (i >= index || found != null) {
+                return Declaration.AMBIGUOUS;
+            }
+            found = declaration;
+        }
+        return found;
+    }
+
+    /**
+     * Find a variable declarator of name in the given variable declaring nodes
+     */
+    private static Declaration findInVariables(List<? extends Node> nodes, String name) {
+        Declaration found = null;
+        for (Node node : nodes) {
+            NodeList<VariableDeclarator> variables;
+            if (node instanceof VariableDeclarationExpr) {
+                variables = ((VariableDeclarationExpr) node).getVariables();
+            } else if (node instanceof FieldDeclaration) {
+                variables = ((FieldDeclaration) node).getVariables();
+            } else {
+                continue;
+            }
+
+            for (VariableDeclarator variable : variables) {
+                if (variable.getNameAsString().equals(name)) {
+                    if (found != null) {
+                        return Declaration.AMBIGUOUS;
+                    }
+                    found = new Declaration(variable.getType(), false);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static Declaration findInParameters(List<Parameter> parameters, String name) {
+        Declaration found = null;
+        for (Parameter parameter : parameters) {
+            if (parameter.getNameAsString().equals(name)) {
+                if (found != null) {
+                    return Declaration.AMBIGUOUS;
+                }
+                found = new Declaration(parameter.getType(), parameter.isVarArgs());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Find the index of a node by identity, as nodes compare structurally
+     */
+    private static int indexOf(List<? extends Node> nodes, Node node) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the simple type name the solver would produce for a variable of the given type
+     */
+    private static String typeName(Type type, boolean varArgs, Node use) {
+        if (varArgs || type.isPrimitiveType() || type.isArrayType()) {
+            return "";
+        }
+        if (!type.isClassOrInterfaceType()) {
+            return null;
+        }
+
+        // Qualified and generic types may be named differently depending on whether they resolve
+        ClassOrInterfaceType classType = type.asClassOrInterfaceType();
+        if (classType.getScope().isPresent() || classType.getTypeArguments().isPresent()) {
+            return null;
+        }
+
+        String name = classType.getNameAsString();
+        for (String typeParameter : typeParametersInScope(use)) {
+            if (typeParameter.equals(name)) {
+                return null;
+            }
+        }
+        return name;
+    }
+
+    private static List<String> typeParametersInScope(Node node) {
+        List<String> typeParameters = new ArrayList<>();
+        for (Node n = node; n != null; n = n.getParentNode().orElse(null)) {
+            if (n instanceof NodeWithTypeParameters) {
+                for (TypeParameter typeParameter : ((NodeWithTypeParameters<?>) n).getTypeParameters()) {
+                    typeParameters.add(typeParameter.getNameAsString());
+                }
+            }
+        }
+        return typeParameters;
+    }
+}
@@ -0,0 +1,226 @@
+package edu.university.ecs.lab.common.utils;
+
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.models.enums.RestCallTemplate;
+import edu.university.ecs.lab.common.models.ir.Endpoint;
+import edu.university.ecs.lab.common.models.ir.Microservice;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.models.ir.RestCall;
+
+import java.util.*;
+
+/**
+ * Matches rest calls to the endpoints they may target. The URL templates of all endpoints
+ * are compiled into one trie of URL segments per HTTP method, so a lookup takes time
+ * proportional to the number of segments of the URL rather than the number of endpoints.
+ * <p>
+ * A {?} segment of an endpoint matches any segment of a call, and a segment of a call
+ * containing {?} is unknown and matches any segment of an endpoint. Endpoints mapped to
+ * {@link HttpMethod#ALL} match calls of every method. Candidates are returned with the
+ * endpoints matching more segments literally first.
+ */
+public class EndpointMatcher {
+    private static final String WILDCARD = "{?}";
+
+    private final Map<HttpMethod, Node> roots = new EnumMap<>(HttpMethod.class);
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node wildcard;
+        private final List<Endpoint> endpoints = new ArrayList<>();
+    }
+
+    /**
+     * Create a matcher for the given endpoints
+     *
+     * @param endpoints the endpoints to match against
+     */
+    public EndpointMatcher(Collection<Endpoint> endpoints) {
+        endpoints.forEach(this::add);
+    }
+
+    /**
+     * Create a matcher for all endpoints of a microservice system
+     *
+     * @param microserviceSystem the system
+     * @return the matcher
+     */
+    public static EndpointMatcher of(MicroserviceSystem microserviceSystem) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (Microservice microservice : microserviceSystem.getMicroservices()) {
+            endpoints.addAll(microservice.getEndpoints());
+        }
+        return new EndpointMatcher(endpoints);
+    }
+
+    /**
+     * Link every rest call of a microservice system to the endpoints of other
+     * microservices it may target
+     *
+     * @param microserviceSystem the system
+     * @return the candidate endpoints of each rest call in the system, keyed by identity
+     */
+    public static Map<RestCall, List<Endpoint>> link(MicroserviceSystem microserviceSystem) {
+        EndpointMatcher matcher = of(microserviceSystem);
+        Map<RestCall, List<Endpoint>> links = new IdentityHashMap<>();
+        for (Microservice microservice : microserviceSystem.getMicroservices()) {
+            for (RestCall restCall : microservice.getRestCalls()) {
+                links.put(restCall, matcher.match(restCall));
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Add an endpoint to the matcher
+     *
+     * @param endpoint the endpoint, ignored if it has no URL or HTTP method
+     */
+    public void add(Endpoint endpoint) {
+        if (endpoint.getUrl() == null || endpoint.getHttpMethod() == null) {
+            return;
+        }
+
+        Node node = roots.computeIfAbsent(endpoint.getHttpMethod(), method -> new Node());
+        for (String segment : segments(endpoint.getUrl())) {
+            if (segment.equals(WILDCARD)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.endpoints.add(endpoint);
+    }
+
+    /**
+     * Find the endpoints of other microservices a rest call may target
+     *
+     * @param restCall the rest call
+     * @return the candidate endpoints, empty if there are none
+     */
+    public List<Endpoint> match(RestCall restCall) {
+        if (restCall.getUrl() == null || restCall.getHttpMethod() == null) {
+            return List.of();
+        }
+
+        List<Endpoint> endpoints = match(restCall.getHttpMethod(), restCall.getUrl());
+        endpoints.removeIf(endpoint -> Objects.equals(endpoint.getMicroserviceName(), restCall.getMicroserviceName()));
+        return endpoints;
+    }
+
+    /**
+     * Find the endpoints whose URL template matches a URL, the query of the URL is ignored
+     *
+     * @param httpMethod the HTTP method of the request, ALL matches endpoints of any method
+     * @param url the requested URL
+     * @return the matching endpoints, empty if there are none
+     */
+    public List<Endpoint> match(HttpMethod httpMethod, String url) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        String[] segments = segments(url);
+        for (Node root : roots(httpMethod)) {
+            match(root, segments, 0, false, endpoints);
+        }
+        return endpoints;
+    }
+
+    /**
+     * Find the endpoints whose URL template starts with the segments of a URL prefix,
+     * e.g. all endpoints below /api/v1/users
+     *
+     * @param httpMethod the HTTP method of the request, ALL matches endpoints of any method
+     * @param prefix the URL prefix
+     * @return the matching endpoints, empty if there are none
+     */
+    public List<Endpoint> matchPrefix(HttpMethod httpMethod, String prefix) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        String[] segments = segments(prefix);
+        for (Node root : roots(httpMethod)) {
+            match(root, segments, 0, true, endpoints);
+        }
+        return endpoints;
+    }
+
+    /**
+     * Normalize a URL for comparison, drops the query, a trailing separator
+     * and the names of path arguments
+     *
+     * @param url the URL
+     * @return the normalized URL, empty if url is null
+     */
+    public static String normalizeURL(String url) {
+        if (url == null) {
+            return "";
+        }
+
+        int queryIndex = url.replace(WILDCARD, "{_}").indexOf('?');
+        String normalizedURL = RestCallTemplate.simplifyEndpointURL(queryIndex == -1 ? url : url.substring(0, queryIndex));
+        if (normalizedURL.length() > 1 && normalizedURL.endsWith("/")) {
+            normalizedURL = normalizedURL.substring(0, normalizedURL.length() - 1);
+        }
+        return normalizedURL;
+    }
+
+    private List<Node> roots(HttpMethod httpMethod) {
+        if (httpMethod.equals(HttpMethod.ALL)) {
+            return new ArrayList<>(roots.values());
+        }
+
+        List<Node> matching = new ArrayList<>(2);
+        for (HttpMethod method : List.of(httpMethod, HttpMethod.ALL)) {
+            Node root = roots.get(method);
+            if (root != null && !matching.contains(root)) {
+                matching.add(root);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Collect the endpoints below a node matching the remaining segments, literal children first
+     */
+    private static void match(Node node, String[] segments, int i, boolean prefix, List<Endpoint> endpoints) {
+        if (i == segments.length) {
+            if (prefix) {
+                collect(node, endpoints);
+            } else {
+                endpoints.addAll(node.endpoints);
+            }
+            return;
+        }
+
+        String segment = segments[i];
+        if (segment.contains(WILDCARD)) {
+            for (Node child : node.children.values()) {
+                match(child, segments, i + 1, prefix, endpoints);
+            }
+        } else {
+            Node child = node.children.get(segment);
+            if (child != null) {
+                match(child, segments, i + 1, prefix, endpoints);
+            }
+        }
+
+        if (node.wildcard != null) {
+            match(node.wildcard, segments, i + 1, prefix, endpoints);
+        }
+    }
+
+    private static void collect(Node node, List<Endpoint> endpoints) {
+        endpoints.addAll(node.endpoints);
+        node.children.values().forEach(child -> collect(child, endpoints));
+        if (node.wildcard != null) {
+            collect(node.wildcard, endpoints);
+        }
+    }
+
+    /**
+     * Split a normalized URL into its non-empty segments
+     */
+    private static String[] segments(String url) {
+        return Arrays.stream(normalizeURL(url).split("/")).filter(segment -> !segment.isEmpty()).toArray(String[]::new);
+    }
+}
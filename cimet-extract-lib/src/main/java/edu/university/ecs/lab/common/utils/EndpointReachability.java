@@ -0,0 +1,221 @@
+package edu.university.ecs.lab.common.utils;
+
+import edu.university.ecs.lab.common.models.enums.ClassRole;
+import edu.university.ecs.lab.common.models.enums.CrudOperation;
+import edu.university.ecs.lab.common.models.enums.FileType;
+import edu.university.ecs.lab.common.models.ir.*;
+import lombok.Value;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Determines the repositories each endpoint of a microservice reaches and the operations it
+ * performs on them, see {@link Endpoint#getRepositoryAccesses()}.
+ * <p>
+ * The method calls of all classes of a microservice form a call graph between methods, where
+ * a call leads to the method of the same name in the class named by
+ * {@link MethodCall#getObjectType()}, or in the calling class if there is no object. Calls to
+ * an interface lead to its implementation named with the "Impl" suffix if there is one. Calls
+ * to repository classes end the walk. The repository calls reachable from each method are
+ * computed once per strongly connected component of the graph, so each call is followed once
+ * no matter how many endpoints reach it and recursive calls terminate.
+ */
+public class EndpointReachability {
+    private static final String IMPLEMENTATION_SUFFIX = "Impl";
+
+    /**
+     * Prevent instantiation
+     */
+    private EndpointReachability() {
+    }
+
+    /**
+     * Set the repository accesses of all endpoints in a microservice system
+     *
+     * @param microserviceSystem the system to analyze
+     */
+    public static void analyze(MicroserviceSystem microserviceSystem) {
+        microserviceSystem.getMicroservices().forEach(EndpointReachability::analyze);
+    }
+
+    /**
+     * Set the repository accesses of all endpoints in a microservice
+     *
+     * @param microservice the microservice to analyze
+     */
+    public static void analyze(Microservice microservice) {
+        CallGraph callGraph = new CallGraph(microservice);
+
+        for (JClass jClass : microservice.getClasses()) {
+            for (Endpoint endpoint : jClass.getEndpoints()) {
+                Map<String, Set<CrudOperation>> operations = new TreeMap<>();
+                for (RepositoryCall call : callGraph.reach(callGraph.method(jClass, endpoint.getName()))) {
+                    Set<CrudOperation> repositoryOperations = operations.computeIfAbsent(call.getRepositoryPath(), path -> EnumSet.noneOf(CrudOperation.class));
+                    CrudOperation operation = CrudOperation.classify(call.getMethodName(), endpoint.getHttpMethod());
+                    if (operation != null) {
+                        repositoryOperations.add(operation);
+                    }
+                }
+
+                List<RepositoryAccess> repositoryAccesses = new ArrayList<>();
+                operations.forEach((path, repositoryOperations) -> repositoryAccesses.add(
+                        new RepositoryAccess(path, callGraph.classes.get(path).getName(), repositoryOperations)));
+                endpoint.setRepositoryAccesses(repositoryAccesses);
+            }
+        }
+    }
+
+    /**
+     * A call of a repository method
+     */
+    @Value
+    private static class RepositoryCall {
+        String repositoryPath;
+        String methodName;
+    }
+
+    /**
+     * A method of the call graph, identified by its class and name
+     */
+    private static final class MethodNode {
+        private final JClass jClass;
+        private final String name;
+        private int index = -1;
+        private int lowLink;
+        private boolean onStack;
+        private Set<RepositoryCall> reachable;
+
+        private MethodNode(JClass jClass, String name) {
+            this.jClass = jClass;
+            this.name = name;
+        }
+    }
+
+    private static final class CallGraph {
+        private final Map<String, JClass> classes = new HashMap<>();
+        private final Map<String, JClass> classesByName = new HashMap<>();
+        private final Map<String, Map<String, List<MethodCall>>> callsByMethod = new HashMap<>();
+        private final Map<String, MethodNode> methods = new HashMap<>();
+        private final Deque<MethodNode> stack = new ArrayDeque<>();
+        private int index;
+
+        private CallGraph(Microservice microservice) {
+            for (JClass jClass : microservice.getClasses()) {
+                classes.put(jClass.getPath(), jClass);
+                classesByName.merge(jClass.getName(), jClass, CallGraph::preferImplementation);
+
+                Map<String, List<MethodCall>> calls = new HashMap<>();
+                for (MethodCall methodCall : jClass.getMethodCalls()) {
+                    calls.computeIfAbsent(methodCall.getCalledFrom(), calledFrom -> new ArrayList<>()).add(methodCall);
+                }
+                callsByMethod.put(jClass.getPath(), calls);
+            }
+        }
+
+        private MethodNode method(JClass jClass, String name) {
+            return methods.computeIfAbsent(jClass.getPath() + "#" + name, key -> new MethodNode(jClass, name));
+        }
+
+        /**
+         * Get the repository calls reachable from a method, computing those of every method it
+         * reaches along the way with Tarjan's strongly connected components algorithm
+         */
+        private Set<RepositoryCall> reach(MethodNode node) {
+            if (node.index == -1) {
+                visit(node);
+            }
+            return node.reachable;
+        }
+
+        private void visit(MethodNode node) {
+            node.index = node.lowLink = index++;
+            stack.push(node);
+            node.onStack = true;
+
+            Set<RepositoryCall> direct = new HashSet<>();
+            List<MethodNode> successors = new ArrayList<>();
+            for (MethodCall methodCall : callsByMethod.get(node.jClass.getPath()).getOrDefault(node.name, List.of())) {
+                // RestCalls leave the microservice
+                if (methodCall instanceof RestCall) {
+                    continue;
+                }
+
+                JClass target = resolve(methodCall.getObjectType(), node.jClass);
+                if (target == null) {
+                    continue;
+                }
+
+                if (isRepository(target)) {
+                    direct.add(new RepositoryCall(target.getPath(), methodCall.getName()));
+                } else {
+                    MethodNode successor = method(target, methodCall.getName());
+                    successors.add(successor);
+                    if (successor.index == -1) {
+                        visit(successor);
+                        node.lowLink = Math.min(node.lowLink, successor.lowLink);
+                    } else if (successor.onStack) {
+                        node.lowLink = Math.min(node.lowLink, successor.index);
+                    }
+                }
+            }
+            node.reachable = direct;
+
+            // Each node holds its direct and outgoing calls until its component is complete
+            node.reachable.addAll(successors.stream().filter(successor -> !successor.onStack)
+                    .flatMap(successor -> successor.reachable.stream()).collect(Collectors.toSet()));
+
+            if (node.lowLink == node.index) {
+                List<MethodNode> component = new ArrayList<>();
+                MethodNode member;
+                do {
+                    member = stack.pop();
+                    member.onStack = false;
+                    component.add(member);
+                } while (member != node);
+
+                if (component.size() > 1) {
+                    Set<RepositoryCall> reachable = new HashSet<>();
+                    component.forEach(m -> reachable.addAll(m.reachable));
+                    component.forEach(m -> m.reachable = reachable);
+                }
+            }
+        }
+
+        /**
+         * Find the class of the microservice a call on an object of the given type leads to
+         */
+        private JClass resolve(String objectType, JClass caller) {
+            if (objectType == null || objectType.isEmpty()) {
+                return caller;
+            }
+
+            String name = objectType;
+            int genericIndex = name.indexOf('<');
+            if (genericIndex != -1) {
+                name = name.substring(0, genericIndex);
+            }
+            name = name.substring(name.lastIndexOf('.') + 1);
+
+            JClass jClass = classesByName.get(name);
+            if (jClass == null || jClass.getFileType() == FileType.JINTERFACE) {
+                JClass implementation = classesByName.get(name + IMPLEMENTATION_SUFFIX);
+                if (implementation != null) {
+                    return implementation;
+                }
+            }
+            return jClass;
+        }
+
+        private static boolean isRepository(JClass jClass) {
+            return jClass.getClassRole() == ClassRole.REPOSITORY || jClass.getClassRole() == ClassRole.REP_REST_RSC;
+        }
+
+        /**
+         * Of two classes sharing a name, keep the one that is not an interface
+         */
+        private static JClass preferImplementation(JClass first, JClass second) {
+            return first.getFileType() == FileType.JINTERFACE ? second : first;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package edu.university.ecs.lab.common.utils;
+
+import edu.university.ecs.lab.common.models.enums.SecurityAccess;
+import edu.university.ecs.lab.common.models.ir.*;
+import lombok.Value;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the access Spring Security grants to each endpoint of a microservice system, see
+ * {@link Endpoint#getSecurityAccess()} and {@link Endpoint#getMethodSecurityAccess()}.
+ * <p>
+ * The rules of the security configuration classes of a microservice are applied in
+ * declaration order and the first rule matching an endpoint decides its access, as Spring
+ * does for a request. The Ant patterns of the rules are looked up in an {@link EndpointMatcher}
+ * of the endpoints of the microservice: a pattern ending in ** matches the endpoints below its
+ * prefix, and a segment containing * or ? matches any segment of an endpoint.
+ * <p>
+ * Security annotations of an endpoint method replace those of its class, as in Spring. The
+ * roles named by either are interned into the role table of the system, see
+ * {@link MicroserviceSystem#getRoles()}, and stored on the endpoints as bitsets over it.
+ */
+public class EndpointSecurity {
+    private static final String ANY_SEGMENTS = "**";
+    private static final String WILDCARD = "{?}";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * Role checks of a @PreAuthorize expression, e.g. hasAnyRole('ADMIN', 'USER')
+     */
+    private static final Pattern ROLE_CHECK = Pattern.compile("has(?:Any)?(?:Role|Authority)\\s*\\(([^)]*)\\)");
+    private static final Pattern QUOTED = Pattern.compile("'([^']*)'|\"([^\"]*)\"");
+
+    /**
+     * Prevent instantiation
+     */
+    private EndpointSecurity() {
+    }
+
+    /**
+     * Set the security access and role bitsets of all endpoints in a microservice system
+     * and rebuild its role table
+     *
+     * @param microserviceSystem the system to analyze
+     */
+    public static void analyze(MicroserviceSystem microserviceSystem) {
+        analyze(microserviceSystem, microserviceSystem.getMicroservices());
+    }
+
+    /**
+     * Set the security access and role bitsets of the endpoints of the given microservices of a
+     * system, the endpoints of its other microservices keep their access. The role table is
+     * rebuilt from the roles of all endpoints, the bitsets of the other endpoints are only
+     * rewritten if the table changed.
+     *
+     * @param microserviceSystem the system the microservices belong to
+     * @param microservices the microservices to analyze
+     */
+    public static void analyze(MicroserviceSystem microserviceSystem, Collection<Microservice> microservices) {
+        Map<Endpoint, Grant> configurationGrants = new IdentityHashMap<>();
+        Map<Endpoint, Grant> annotationGrants = new IdentityHashMap<>();
+        Set<Microservice> analyzed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Microservice microservice : microservices) {
+            analyzed.add(microservice);
+            resolveSecurityRules(microservice, configurationGrants);
+            resolveSecurityAnnotations(microservice, annotationGrants);
+        }
+
+        // Roles still granted to the endpoints of the other microservices
+        List<Endpoint> retainedEndpoints = new ArrayList<>();
+        BitSet retainedRoles = new BitSet();
+        for (Microservice microservice : microserviceSystem.getMicroservices()) {
+            if (analyzed.contains(microservice)) {
+                continue;
+            }
+            for (Endpoint endpoint : microservice.getEndpoints()) {
+                retainedEndpoints.add(endpoint);
+                retainedRoles.or(BitSet.valueOf(endpoint.getSecurityRoles()));
+                retainedRoles.or(BitSet.valueOf(endpoint.getMethodSecurityRoles()));
+            }
+        }
+
+        List<String> previousRoles = microserviceSystem.getRoles();
+        Set<String> roles = new TreeSet<>(microserviceSystem.getRoleNames(retainedRoles.toLongArray()));
+        configurationGrants.values().forEach(grant -> roles.addAll(grant.getRoles()));
+        annotationGrants.values().forEach(grant -> roles.addAll(grant.getRoles()));
+        if (!previousRoles.equals(new ArrayList<>(roles))) {
+            microserviceSystem.setRoles(new ArrayList<>(roles));
+            for (Endpoint endpoint : retainedEndpoints) {
+                endpoint.setSecurityRoles(recodeRoles(endpoint.getSecurityRoles(), previousRoles, microserviceSystem));
+                endpoint.setMethodSecurityRoles(recodeRoles(endpoint.getMethodSecurityRoles(), previousRoles, microserviceSystem));
+            }
+        }
+
+        for (Microservice microservice : analyzed) {
+            for (JClass jClass : microservice.getClasses()) {
+                for (Endpoint endpoint : jClass.getEndpoints()) {
+                    Grant configurationGrant = configurationGrants.get(endpoint);
+                    endpoint.setSecurityAccess(configurationGrant == null ? null : configurationGrant.getAccess());
+                    endpoint.setSecurityRoles(microserviceSystem.getRoleBits(configurationGrant == null ? Set.of() : configurationGrant.getRoles()));
+
+                    Grant annotationGrant = annotationGrants.get(endpoint);
+                    endpoint.setMethodSecurityAccess(annotationGrant == null ? null : annotationGrant.getAccess());
+                    endpoint.setMethodSecurityRoles(microserviceSystem.getRoleBits(annotationGrant == null ? Set.of() : annotationGrant.getRoles()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert a role bitset over a previous role table to the current role table of the system
+     */
+    private static long[] recodeRoles(long[] roleBits, List<String> previousRoles, MicroserviceSystem microserviceSystem) {
+        return microserviceSystem.getRoleBits(BitSet.valueOf(roleBits).stream().mapToObj(previousRoles::get).collect(Collectors.toList()));
+    }
+
+    /**
+     * Strip the prefix Spring adds to role names, so that hasRole("ADMIN") and
+     * hasAuthority("ROLE_ADMIN") name the same role
+     *
+     * @param role the role or authority
+     * @return the role name without the "ROLE_" prefix
+     */
+    public static String normalizeRole(String role) {
+        role = role.trim();
+        return role.startsWith(ROLE_PREFIX) ? role.substring(ROLE_PREFIX.length()) : role;
+    }
+
+    /**
+     * The access a rule or annotation grants and the roles it allows
+     */
+    @Value
+    private static class Grant {
+        SecurityAccess access;
+        Set<String> roles;
+    }
+
+    /**
+     * Find the first rule of the security configurations of a microservice matching each endpoint
+     */
+    private static void resolveSecurityRules(Microservice microservice, Map<Endpoint, Grant> grants) {
+        List<JClass> securityConfigurations = new ArrayList<>(microservice.getSecurityConfigurations());
+        if (securityConfigurations.isEmpty()) {
+            return;
+        }
+        securityConfigurations.sort(Comparator.comparing(JClass::getPath));
+
+        EndpointMatcher matcher = new EndpointMatcher(microservice.getEndpoints());
+        for (JClass securityConfiguration : securityConfigurations) {
+            if (securityConfiguration.getSecurityRules() == null) {
+                continue;
+            }
+
+            for (SecurityRule securityRule : securityConfiguration.getSecurityRules()) {
+                Grant grant = new Grant(securityRule.getAccess(),
+                        securityRule.getAccess() == SecurityAccess.ROLES ? securityRule.getRoles() : Set.of());
+                for (String pattern : securityRule.getPatterns()) {
+                    for (Endpoint endpoint : match(matcher, securityRule, pattern)) {
+                        grants.putIfAbsent(endpoint, grant);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the security annotation deciding the access of each endpoint of a microservice
+     */
+    private static void resolveSecurityAnnotations(Microservice microservice, Map<Endpoint, Grant> grants) {
+        for (JClass jClass : microservice.getClasses()) {
+            Grant classGrant = parseSecurityAnnotations(jClass.getAnnotations());
+            for (Endpoint endpoint : jClass.getEndpoints()) {
+                Grant methodGrant = parseSecurityAnnotations(endpoint.getAnnotations());
+                if (methodGrant != null || classGrant != null) {
+                    grants.put(endpoint, methodGrant != null ? methodGrant : classGrant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the access granted by the first security annotation among the given annotations
+     *
+     * @param annotations the annotations of a method or class
+     * @return the grant or null if there is no security annotation that could be parsed
+     */
+    private static Grant parseSecurityAnnotations(Set<Annotation> annotations) {
+        if (annotations == null) {
+            return null;
+        }
+
+        for (Annotation annotation : annotations) {
+            String value = annotation.getAttributes() == null ? null
+                    : annotation.getAttributes().getOrDefault("default", annotation.getAttributes().get("value"));
+
+            switch (annotation.getName()) {
+                case "PermitAll":
+                    return new Grant(SecurityAccess.PERMIT_ALL, Set.of());
+                case "DenyAll":
+                    return new Grant(SecurityAccess.DENY_ALL, Set.of());
+                case "RolesAllowed":
+                    if (value != null) {
+                        return new Grant(SecurityAccess.ROLES, parseRoles(Arrays.asList(value.split(","))));
+                    }
+                    break;
+                case "Secured":
+                    if (value != null) {
+                        return parseSecured(value);
+                    }
+                    break;
+                case "PreAuthorize":
+                    if (value != null) {
+                        return parseExpression(value);
+                    }
+                    break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse the comma-delimited attributes of a @Secured annotation, which are roles or one
+     * of the IS_AUTHENTICATED_ pseudo roles
+     */
+    private static Grant parseSecured(String value) {
+        List<String> roles = new ArrayList<>();
+        boolean authenticated = false;
+        for (String attribute : value.split(",")) {
+            switch (attribute.trim()) {
+                case "IS_AUTHENTICATED_ANONYMOUSLY":
+                    return new Grant(SecurityAccess.PERMIT_ALL, Set.of());
+                case "IS_AUTHENTICATED_FULLY":
+                case "IS_AUTHENTICATED_REMEMBERED":
+                    authenticated = true;
+                    break;
+                default:
+                    roles.add(attribute);
+            }
+        }
+
+        if (authenticated) {
+            return new Grant(SecurityAccess.AUTHENTICATED, Set.of());
+        }
+        return new Grant(SecurityAccess.ROLES, parseRoles(roles));
+    }
+
+    /**
+     * Parse a @PreAuthorize expression. Roles checked anywhere in the expression are all
+     * allowed, so an expression requiring several roles at once is widened to any of them.
+     *
+     * @param expression the Spring expression
+     * @return the grant or null if the expression checks neither roles nor authentication
+     */
+    private static Grant parseExpression(String expression) {
+        List<String> roles = new ArrayList<>();
+        Matcher roleCheck = ROLE_CHECK.matcher(expression);
+        while (roleCheck.find()) {
+            Matcher quoted = QUOTED.matcher(roleCheck.group(1));
+            while (quoted.find()) {
+                roles.add(quoted.group(1) != null ? quoted.group(1) : quoted.group(2));
+            }
+        }
+
+        if (!roles.isEmpty()) {
+            return new Grant(SecurityAccess.ROLES, parseRoles(roles));
+        } else if (expression.contains("denyAll")) {
+            return new Grant(SecurityAccess.DENY_ALL, Set.of());
+        } else if (expression.contains("permitAll")) {
+            return new Grant(SecurityAccess.PERMIT_ALL, Set.of());
+        } else if (expression.contains("isAuthenticated") || expression.contains("isFullyAuthenticated")) {
+            return new Grant(SecurityAccess.AUTHENTICATED, Set.of());
+        }
+        return null;
+    }
+
+    private static Set<String> parseRoles(Collection<String> roles) {
+        Set<String> roleNames = new TreeSet<>();
+        for (String role : roles) {
+            if (!role.isBlank()) {
+                roleNames.add(normalizeRole(role));
+            }
+        }
+        return roleNames;
+    }
+
+    /**
+     * Find the endpoints matching an Ant pattern of a rule. Segments after a ** are
+     * ignored, so the match may include endpoints Spring would not apply the rule to.
+     */
+    private static List<Endpoint> match(EndpointMatcher matcher, SecurityRule securityRule, String pattern) {
+        StringBuilder url = new StringBuilder();
+        for (String segment : pattern.split(FileUtils.GIT_SEPARATOR)) {
+            if (segment.isEmpty()) {
+                continue;
+            } else if (segment.equals(ANY_SEGMENTS)) {
+                return matcher.matchPrefix(securityRule.getHttpMethod(), url.toString());
+            }
+
+            url.append(FileUtils.GIT_SEPARATOR).append(segment.contains("*") || segment.contains("?") ? WILDCARD : segment);
+        }
+
+        return matcher.match(securityRule.getHttpMethod(), url.toString());
+    }
+}
@@ -0,0 +1,17 @@
+package edu.university.ecs.lab.common.utils;
+
+/**
+ * Encodings an IR or SystemChange can be stored in, see {@link JsonReadWriteUtils}.
+ * Both encode the same data model and round-trip into each other without loss.
+ */
+public enum IRFormat {
+    /**
+     * Pretty-printed JSON text
+     */
+    JSON,
+    /**
+     * Smile, the binary encoding of JSON, with repeated names and short strings
+     * written once and referenced afterwards
+     */
+    SMILE
+}
@@ -0,0 +1,242 @@
+package edu.university.ecs.lab.common.utils;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import edu.university.ecs.lab.common.models.ir.Microservice;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.models.ir.NodeSet;
+import edu.university.ecs.lab.common.models.ir.ProjectFile;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Sidecar index of an IR file, stored next to it with the {@link #EXTENSION} suffix. The index
+ * holds the byte range of each microservice and of the orphans in the IR file along with the
+ * name, commit and role table of the system, so single microservices can be loaded without
+ * reading the rest of the file. Ranges are read through memory-mapped buffers.
+ * <p>
+ * Only uncompressed JSON files can be indexed, in pretty or compact form. The index records
+ * the size and modification time of the IR file and is rebuilt when the file changed.
+ */
+@Data
+@NoArgsConstructor
+public class IRIndex {
+    public static final String EXTENSION = ".idx";
+
+    private static final ObjectReader MICROSERVICE_READER = JsonReadWriteUtils.setupObjectReader().forType(Microservice.class);
+    private static final ObjectReader ORPHANS_READER = JsonReadWriteUtils.setupObjectReader()
+            .forType(JsonReadWriteUtils.setupObjectReader().getTypeFactory().constructCollectionType(NodeSet.class, ProjectFile.class));
+
+    /**
+     * Byte range of a block of the IR file
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String name;
+        private String path;
+        private long offset;
+        private long length;
+    }
+
+    /**
+     * Content id of the indexed file, see {@link ParseCache#fileId(File)}
+     */
+    private String fileId;
+
+    private String name;
+
+    private String commitID;
+
+    private List<String> roles = new ArrayList<>();
+
+    /**
+     * Ranges of the microservices in the order of the file
+     */
+    private List<Entry> microservices = new ArrayList<>();
+
+    /**
+     * Range of the orphan array, null if the file has none
+     */
+    private Entry orphans;
+
+    /**
+     * Path of the indexed IR file
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    private Path irPath;
+
+    /**
+     * Build the index of an IR file and write it next to the file
+     *
+     * @param irPath the path to the uncompressed JSON IR file
+     * @return the index
+     */
+    public static IRIndex create(String irPath) throws IOException {
+        IRIndex irIndex = scan(Path.of(irPath));
+        JsonReadWriteUtils.writeToFile(irPath + EXTENSION, irIndex, IRFormat.JSON, false, false, 1);
+        return irIndex;
+    }
+
+    /**
+     * Open the index of an IR file, building it if it is missing or out of date
+     *
+     * @param irPath the path to the uncompressed JSON IR file
+     * @return the index
+     */
+    public static IRIndex open(String irPath) throws IOException {
+        File indexFile = new File(irPath + EXTENSION);
+        if (indexFile.isFile()) {
+            IRIndex irIndex = JsonReadWriteUtils.readFromJSON(indexFile.getPath(), IRIndex.class);
+            if (ParseCache.fileId(new File(irPath)).equals(irIndex.fileId)) {
+                irIndex.irPath = Path.of(irPath);
+                return irIndex;
+            }
+        }
+
+        return create(irPath);
+    }
+
+    /**
+     * Load a single microservice of the IR file
+     *
+     * @param nameOrPath the name or path of the microservice
+     * @return the microservice, its parent is not set
+     */
+    public Microservice loadMicroservice(String nameOrPath) throws IOException {
+        return MICROSERVICE_READER.readValue(read(findEntry(nameOrPath)));
+    }
+
+    /**
+     * Load a system holding only the given microservices of the IR file. The system keeps the
+     * role table of the file, so the role bitsets of the loaded endpoints stay valid.
+     *
+     * @param namesOrPaths the names or paths of the microservices to load
+     * @param includeOrphans whether to load the orphans of the file as well
+     * @return the system with its strings interned, microservices follow the order of the file
+     */
+    public MicroserviceSystem load(Collection<String> namesOrPaths, boolean includeOrphans) throws IOException {
+        Set<Entry> entries = new HashSet<>();
+        for (String nameOrPath : namesOrPaths) {
+            entries.add(findEntry(nameOrPath));
+        }
+
+        Set<Microservice> loaded = new NodeSet<>();
+        for (Entry entry : microservices) {
+            if (entries.contains(entry)) {
+                loaded.add(MICROSERVICE_READER.readValue(read(entry)));
+            }
+        }
+
+        Set<ProjectFile> loadedOrphans = includeOrphans && orphans != null ? ORPHANS_READER.readValue(read(orphans)) : new NodeSet<>();
+        MicroserviceSystem microserviceSystem = new MicroserviceSystem(name, commitID, loaded, loadedOrphans);
+        microserviceSystem.setRoles(new ArrayList<>(roles));
+        microserviceSystem.intern(new InternTable());
+        return microserviceSystem;
+    }
+
+    private Entry findEntry(String nameOrPath) {
+        for (Entry entry : microservices) {
+            if (nameOrPath.equals(entry.getName()) || nameOrPath.equals(entry.getPath())) {
+                return entry;
+            }
+        }
+        throw new IllegalArgumentException("No microservice " + nameOrPath + " in " + irPath);
+    }
+
+    /**
+     * Map the byte range of an entry
+     */
+    private ByteBufferBackedInputStream read(Entry entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(irPath, StandardOpenOption.READ)) {
+            return new ByteBufferBackedInputStream(channel.map(FileChannel.MapMode.READ_ONLY, entry.getOffset(), entry.getLength()));
+        }
+    }
+
+    /**
+     * Find the blocks of an IR file in one pass of the streaming parser, the contents of
+     * microservices are skipped except for their name and path
+     */
+    private static IRIndex scan(Path irPath) throws IOException {
+        IRIndex irIndex = new IRIndex();
+        irIndex.fileId = ParseCache.fileId(irPath.toFile());
+        irIndex.irPath = irPath;
+
+        try (JsonParser parser = JsonReadWriteUtils.setupObjectReader().createParser(irPath.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Not a JSON IR file: " + irPath);
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "name":
+                        irIndex.name = parser.getValueAsString();
+                        break;
+                    case "commitID":
+                        irIndex.commitID = parser.getValueAsString();
+                        break;
+                    case "roles":
+                        while (value == JsonToken.START_ARRAY && parser.nextToken() != JsonToken.END_ARRAY) {
+                            irIndex.roles.add(parser.getValueAsString());
+                        }
+                        break;
+                    case "microservices":
+                        while (value == JsonToken.START_ARRAY && parser.nextToken() == JsonToken.START_OBJECT) {
+                            irIndex.microservices.add(scanMicroservice(parser));
+                        }
+                        break;
+                    case "orphans":
+                        if (value == JsonToken.START_ARRAY) {
+                            long offset = parser.currentTokenLocation().getByteOffset();
+                            parser.skipChildren();
+                            irIndex.orphans = new Entry(null, null, offset, parser.currentLocation().getByteOffset() - offset);
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+
+        return irIndex;
+    }
+
+    private static Entry scanMicroservice(JsonParser parser) throws IOException {
+        Entry entry = new Entry();
+        entry.setOffset(parser.currentTokenLocation().getByteOffset());
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("name")) {
+                entry.setName(parser.getValueAsString());
+            } else if (field.equals("path")) {
+                entry.setPath(parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        entry.setLength(parser.currentLocation().getByteOffset() - entry.getOffset());
+        return entry;
+    }
+}
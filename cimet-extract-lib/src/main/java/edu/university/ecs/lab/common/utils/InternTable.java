@@ -0,0 +1,108 @@
+package edu.university.ecs.lab.common.utils;
+
+import edu.university.ecs.lab.common.models.ir.Location;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of the instances shared by all nodes of an IR. The components of a class repeat the
+ * same package, class, microservice and type names, and the parser and JSON reader create a
+ * new string for every occurrence. Interning a node replaces its strings and locations by the
+ * first equal instance added to the table, so each distinct value is held once per system.
+ * <p>
+ * Locations are immutable and shared as flyweights, the empty attribute maps of annotations
+ * are shared too and must not be modified. A table may be used by several threads at once.
+ */
+public class InternTable {
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<Location, Location> locations = new ConcurrentHashMap<>();
+
+    /**
+     * Get the shared instance of a string
+     *
+     * @param string the string, may be null
+     * @return the equal string held by the table, null if string is null
+     */
+    public String intern(String string) {
+        if (string == null) {
+            return null;
+        }
+
+        String shared = strings.putIfAbsent(string, string);
+        return shared == null ? string : shared;
+    }
+
+    /**
+     * Get the shared instance of a location
+     *
+     * @param location the location, may be null
+     * @return the equal location held by the table, null if location is null
+     */
+    public Location intern(Location location) {
+        if (location == null) {
+            return null;
+        }
+
+        Location shared = locations.putIfAbsent(location, location);
+        return shared == null ? location : shared;
+    }
+
+    /**
+     * Get a copy of a set of strings holding the shared instances
+     *
+     * @param strings the strings, may be null
+     * @return a new set of the shared strings, null if strings is null
+     */
+    public Set<String> internAll(Set<String> strings) {
+        if (strings == null) {
+            return null;
+        }
+
+        Set<String> shared = new HashSet<>(Math.max(16, (int) (strings.size() / .75f) + 1));
+        strings.forEach(string -> shared.add(intern(string)));
+        return shared;
+    }
+
+    /**
+     * Get a copy of a list of strings holding the shared instances
+     *
+     * @param strings the strings, may be null
+     * @return a new list of the shared strings, null if strings is null
+     */
+    public List<String> internAll(List<String> strings) {
+        if (strings == null) {
+            return null;
+        }
+
+        List<String> shared = new ArrayList<>(strings.size());
+        strings.forEach(string -> shared.add(intern(string)));
+        return shared;
+    }
+
+    /**
+     * Get a copy of a map of strings holding the shared instances, all empty maps
+     * are replaced by the same immutable map
+     *
+     * @param strings the map, may be null
+     * @return a new map of the shared strings, null if strings is null
+     */
+    public Map<String, String> internAll(Map<String, String> strings) {
+        if (strings == null) {
+            return null;
+        } else if (strings.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, String> shared = new HashMap<>(Math.max(16, (int) (strings.size() / .75f) + 1));
+        strings.forEach((key, value) -> shared.put(intern(key), intern(value)));
+        return shared;
+    }
+
+    /**
+     * @return the number of distinct strings held by the table
+     */
+    public int size() {
+        return strings.size();
+    }
+}
@@ -0,0 +1,166 @@
+package edu.university.ecs.lab.common.utils;
+
+import java.util.Arrays;
+
+/**
+ * Compares Java sources token by token ignoring comments and whitespace, used to tell
+ * whether a change to a file touches code at all.
+ * <p>
+ * Sources are scanned as UTF-8 bytes without decoding them, as every character that
+ * delimits a token, comment or literal is ASCII. String, character and text block
+ * literals are single tokens, so comment markers and whitespace within them are
+ * significant. Identifiers, keywords and numbers are runs of word characters, operators
+ * are scanned as the longest Java operator (so {@code a++b} and {@code a + +b} differ), any
+ * other character is a token of its own. The comparison stops at the first differing token.
+ */
+public class JavaTokenComparator {
+    /**
+     * Java operators of more than one character, longest first
+     */
+    private static final String[] OPERATORS = {
+            ">>>=", "<<=", ">>=", ">>>", "...", "->", "::", "++", "--", "&&", "||", "==", "!=", "<=", ">=",
+            "+=", "-=", "*=", "/=", "&=", "|=", "^=", "%=", "<<", ">>"};
+
+    /**
+     * Prevent instantiation
+     */
+    private JavaTokenComparator() {
+    }
+
+    /**
+     * Check whether two Java sources consist of the same tokens
+     *
+     * @param oldSource the old source as UTF-8
+     * @param newSource the new source as UTF-8
+     * @return true if the sources only differ in comments and whitespace
+     */
+    public static boolean isEquivalent(byte[] oldSource, byte[] newSource) {
+        Tokenizer oldTokens = new Tokenizer(oldSource);
+        Tokenizer newTokens = new Tokenizer(newSource);
+
+        while (true) {
+            boolean oldHasNext = oldTokens.next();
+            boolean newHasNext = newTokens.next();
+            if (!oldHasNext || !newHasNext) {
+                return oldHasNext == newHasNext;
+            }
+
+            if (!Arrays.equals(oldSource, oldTokens.start, oldTokens.end, newSource, newTokens.start, newTokens.end)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Scanner over the tokens of a source, the bounds of the current token are [start, end)
+     */
+    private static final class Tokenizer {
+        private final byte[] source;
+        private int start;
+        private int end;
+
+        private Tokenizer(byte[] source) {
+            this.source = source;
+        }
+
+        /**
+         * Advance to the next token
+         *
+         * @return false if the end of the source was reached
+         */
+        private boolean next() {
+            int i = skipWhitespaceAndComments(end);
+            if (i >= source.length) {
+                start = end = source.length;
+                return false;
+            }
+
+            start = i;
+            byte b = source[i];
+            if (isWordCharacter(b)) {
+                do {
+                    i++;
+                } while (i < source.length && isWordCharacter(source[i]));
+            } else if (b == '"' && startsWith(i, "\"\"\"")) {
+                i = skipTextBlock(i + 3);
+            } else if (b == '"' || b == '\'') {
+                i = skipLiteral(i + 1, b);
+            } else {
+                i += operatorLength(i);
+            }
+            end = i;
+            return true;
+        }
+
+        /**
+         * Get the length of the operator starting at an index, 1 if no multi-character operator starts there
+         */
+        private int operatorLength(int i) {
+            for (String operator : OPERATORS) {
+                if (startsWith(i, operator)) {
+                    return operator.length();
+                }
+            }
+            return 1;
+        }
+
+        private int skipWhitespaceAndComments(int i) {
+            while (i < source.length) {
+                byte b = source[i];
+                if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0B) {
+                    i++;
+                } else if (startsWith(i, "//")) {
+                    while (i < source.length && source[i] != '\n' && source[i] != '\r') {
+                        i++;
+                    }
+                } else if (startsWith(i, "/*")) {
+                    i += 2;
+                    while (i < source.length && !startsWith(i, "*/")) {
+                        i++;
+                    }
+                    i = Math.min(i + 2, source.length);
+                } else {
+                    break;
+                }
+            }
+            return i;
+        }
+
+        /**
+         * Skip a string or character literal, unterminated literals end at the line end
+         */
+        private int skipLiteral(int i, byte quote) {
+            while (i < source.length && source[i] != quote && source[i] != '\n' && source[i] != '\r') {
+                i += source[i] == '\\' ? 2 : 1;
+            }
+            return Math.min(i + 1, source.length);
+        }
+
+        private int skipTextBlock(int i) {
+            while (i < source.length && !startsWith(i, "\"\"\"")) {
+                i += source[i] == '\\' ? 2 : 1;
+            }
+            return Math.min(i + 3, source.length);
+        }
+
+        private boolean startsWith(int i, String prefix) {
+            if (i + prefix.length() > source.length) {
+                return false;
+            }
+            for (int j = 0; j < prefix.length(); j++) {
+                if (source[i + j] != prefix.charAt(j)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Letters, digits, '_', '$' and every byte of a multibyte UTF-8 character
+         */
+        private static boolean isWordCharacter(byte b) {
+            return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+                    || b == '_' || b == '$' || b < 0;
+        }
+    }
+}
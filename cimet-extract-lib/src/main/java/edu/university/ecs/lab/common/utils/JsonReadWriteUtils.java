@@ -2,16 +2,78 @@ package edu.university.ecs.lab.common.utils;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import edu.university.ecs.lab.common.models.ir.Microservice;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
 
 import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Utility class for reading and writing JSON to a file.
+ * Utility class for reading and writing JSON to a file. Files may also be written in the
+ * binary {@link IRFormat#SMILE} encoding and compressed with gzip, reading detects both.
+ * <p>
+ * Readers and writers are configured once and shared, so the serializers Jackson builds for
+ * the model classes are reused by every call. Writers stream to the file, and the microservices
+ * of a {@link MicroserviceSystem} written as JSON are serialized by several threads into
+ * buffers that are written in order, at most one per thread at a time. Systems can also be
+ * read microservice by microservice with {@link #readMicroservices(String, Consumer)}.
  */
 public class JsonReadWriteUtils {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * First bytes of gzip streams and Smile documents
+     */
+    private static final byte[] GZIP_HEADER = {(byte) GZIPInputStream.GZIP_MAGIC, (byte) (GZIPInputStream.GZIP_MAGIC >> 8)};
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    /**
+     * Writer attribute holding the number of threads serializing microservices
+     */
+    private static final String THREADS = "threads";
+
+    /**
+     * Threads serializing microservices, shared by all writes. Idle threads are
+     * released after a minute and do not keep the JVM alive.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "json-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper().addMixIn(MicroserviceSystem.class, MicroserviceSystemMixIn.class);
+    private static final ObjectWriter JSON_WRITER = JSON_MAPPER.writerWithDefaultPrettyPrinter();
+    private static final ObjectWriter COMPACT_JSON_WRITER = JSON_MAPPER.writer();
+    private static final ObjectWriter SMILE_WRITER = new ObjectMapper(SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build()).writer();
+    private static final ObjectReader JSON_READER = setupReaderMapper(new ObjectMapper()).reader();
+    private static final ObjectReader SMILE_READER = setupReaderMapper(new ObjectMapper(new SmileFactory())).reader();
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -26,11 +88,51 @@ public class JsonReadWriteUtils {
      * @param filePath the file path where the JSON should be saved
      */
     public static <T> void writeToJSON(String filePath, T object) throws IOException {
-        setupObjectWriter().writeValue(new File(filePath), object);
+        writeToFile(filePath, object, IRFormat.JSON, false);
+    }
+
+    /**
+     * Writes an object to a file at a specified path in the given format, JSON is pretty-printed.
+     *
+     * @param <T>      the type of the object to write
+     * @param filePath the file path where the object should be saved
+     * @param object   the object to serialize
+     * @param format   the encoding of the file
+     * @param compress whether to compress the file with gzip
+     */
+    public static <T> void writeToFile(String filePath, T object, IRFormat format, boolean compress) throws IOException {
+        writeToFile(filePath, object, format, compress, true, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Writes an object to a file at a specified path in the given format. The output does
+     * not depend on the number of threads.
+     *
+     * @param <T>      the type of the object to write
+     * @param filePath the file path where the object should be saved
+     * @param object   the object to serialize
+     * @param format   the encoding of the file
+     * @param compress whether to compress the file with gzip
+     * @param pretty   whether to indent JSON, ignored for other formats
+     * @param threads  number of threads serializing the microservices of a system as JSON,
+     *                 1 writes sequentially
+     */
+    public static <T> void writeToFile(String filePath, T object, IRFormat format, boolean compress, boolean pretty, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1");
+        }
+
+        ObjectWriter objectWriter = format == IRFormat.SMILE ? SMILE_WRITER : pretty ? JSON_WRITER : COMPACT_JSON_WRITER;
+        OutputStream fileStream = new BufferedOutputStream(new FileOutputStream(filePath), BUFFER_SIZE);
+        try (OutputStream outputStream = compress ? new GZIPOutputStream(fileStream, BUFFER_SIZE) : fileStream) {
+            objectWriter.withAttribute(THREADS, threads).writeValue(outputStream, object);
+        }
     }
 
     /**
      * Reads a JSON file from a given path and converts it into an object of the specified type.
+     * Files written in another format by {@link #writeToFile(String, Object, IRFormat, boolean)}
+     * are read as well, see {@link #readFromFile(String, Class)}.
      *
      * @param <T>      the type of the object to return
      * @param filePath the file path to the JSON file
@@ -38,16 +140,234 @@ public class JsonReadWriteUtils {
      * @return an object of type T containing the data from the JSON file
      */
     public static <T> T readFromJSON(String filePath, Class<T> type) throws IOException {
-        return setupObjectReader().readValue(new File(filePath), type);
+        return readFromFile(filePath, type);
+    }
+
+    /**
+     * Reads a file from a given path and converts it into an object of the specified type.
+     * The format and compression of the file are detected from its first bytes.
+     *
+     * @param <T>      the type of the object to return
+     * @param filePath the file path to the JSON or Smile file, optionally compressed with gzip
+     * @param type     the Class representing the type of the object to deserialize
+     * @return an object of type T containing the data from the file
+     */
+    public static <T> T readFromFile(String filePath, Class<T> type) throws IOException {
+        try (InputStream inputStream = openInputStream(filePath)) {
+            return setupObjectReader(detectFormat(inputStream)).forType(type).readValue(inputStream);
+        }
+    }
+
+    /**
+     * Reads a system file microservice by microservice. Each microservice is handed to the
+     * consumer as soon as it is parsed and is not kept by the reader, so a caller that
+     * reduces or drops it holds at most one parsed microservice at a time in addition
+     * to its own state.
+     *
+     * @param filePath the file path to the JSON or Smile system file, optionally compressed with gzip
+     * @param consumer called with each microservice in document order
+     * @return the system read from the file with an empty set of microservices
+     */
+    public static MicroserviceSystem readMicroservices(String filePath, Consumer<Microservice> consumer) throws IOException {
+        try (InputStream inputStream = openInputStream(filePath)) {
+            ObjectReader objectReader = setupObjectReader(detectFormat(inputStream));
+            ObjectReader microserviceReader = objectReader.forType(Microservice.class);
+            ObjectNode system = JsonNodeFactory.instance.objectNode();
+
+            try (JsonParser parser = objectReader.createParser(inputStream)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a microservice system in " + filePath);
+                }
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+
+                    if (field.equals("microservices") && value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            consumer.accept(microserviceReader.readValue(parser));
+                        }
+                        system.putArray(field);
+                    } else {
+                        system.set(field, objectReader.readTree(parser));
+                    }
+                }
+            }
+
+            return objectReader.treeToValue(system, MicroserviceSystem.class);
+        }
+    }
+
+    /**
+     * Open a file for reading, decompressing it if it starts with a gzip header
+     */
+    private static InputStream openInputStream(String filePath) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE);
+        try {
+            if (startsWith(inputStream, GZIP_HEADER)) {
+                inputStream = new BufferedInputStream(new GZIPInputStream(inputStream, BUFFER_SIZE), BUFFER_SIZE);
+            }
+            return inputStream;
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Detect the encoding of a stream from its first bytes without consuming them
+     */
+    private static IRFormat detectFormat(InputStream inputStream) throws IOException {
+        return startsWith(inputStream, SMILE_HEADER) ? IRFormat.SMILE : IRFormat.JSON;
+    }
+
+    /**
+     * Check if a stream starts with the given bytes without consuming them
+     */
+    private static boolean startsWith(InputStream inputStream, byte[] prefix) throws IOException {
+        inputStream.mark(prefix.length);
+        try {
+            for (byte b : prefix) {
+                if (inputStream.read() != (b & 0xff)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            inputStream.reset();
+        }
     }
 
+    /**
+     * @return the shared pretty-printing JSON writer
+     */
     public static ObjectWriter setupObjectWriter() {
-        return new ObjectMapper().writerWithDefaultPrettyPrinter();
+        return JSON_WRITER;
     }
 
+    /**
+     * @return the shared JSON writer configured as {@link #setupObjectWriter()} without indentation
+     */
+    public static ObjectWriter setupCompactObjectWriter() {
+        return COMPACT_JSON_WRITER;
+    }
+
+    /**
+     * @return the shared JSON reader, which sets fields without setters
+     */
     public static ObjectReader setupObjectReader() {
-        ObjectMapper objectMapper = new ObjectMapper();
+        return JSON_READER;
+    }
+
+    /**
+     * @param format the encoding to write
+     * @return the shared writer for the format, JSON is pretty-printed as by {@link #setupObjectWriter()}
+     */
+    public static ObjectWriter setupObjectWriter(IRFormat format) {
+        return format == IRFormat.JSON ? JSON_WRITER : SMILE_WRITER;
+    }
+
+    /**
+     * @param format the encoding to read
+     * @return the shared reader for the format configured as by {@link #setupObjectReader()}
+     */
+    public static ObjectReader setupObjectReader(IRFormat format) {
+        return format == IRFormat.JSON ? JSON_READER : SMILE_READER;
+    }
+
+    private static ObjectMapper setupReaderMapper(ObjectMapper objectMapper) {
         objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        return objectMapper.reader();
+        return objectMapper;
+    }
+
+    /**
+     * Serializes the microservices of a system with {@link MicroservicesSerializer}
+     */
+    private abstract static class MicroserviceSystemMixIn {
+        @JsonSerialize(using = MicroservicesSerializer.class)
+        abstract Set<Microservice> getMicroservices();
+    }
+
+    /**
+     * Writes the microservices of a system as JSON from several threads. Each microservice is
+     * written into its own buffer indented for its position in the document, and the
+     * buffers are copied into the output in iteration order, so the output is identical to a
+     * sequential write. Smile back-references strings written earlier in the document and is
+     * always written sequentially.
+     */
+    private static class MicroservicesSerializer extends StdSerializer<Set<Microservice>> {
+        MicroservicesSerializer() {
+            super(Set.class, false);
+        }
+
+        @Override
+        public void serialize(Set<Microservice> microservices, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            Object threadAttribute = provider.getAttribute(THREADS);
+            int threads = threadAttribute instanceof Integer ? (Integer) threadAttribute : 1;
+
+            generator.writeStartArray(microservices, microservices.size());
+            if (threads == 1 || microservices.size() < 2 || generator instanceof SmileGenerator) {
+                for (Microservice microservice : microservices) {
+                    provider.defaultSerializeValue(microservice, generator);
+                }
+            } else {
+                writeParallel(microservices, generator, threads);
+            }
+            generator.writeEndArray();
+        }
+
+        private static void writeParallel(Set<Microservice> microservices, JsonGenerator generator, int threads) throws IOException {
+            ObjectWriter objectWriter = COMPACT_JSON_WRITER.forType(Microservice.class);
+            if (generator.getPrettyPrinter() != null) {
+                // The pretty printer indents once per enclosing object, arrays stay on the same line
+                int nesting = 0;
+                for (JsonStreamContext context = generator.getOutputContext(); context != null; context = context.getParent()) {
+                    if (context.inObject()) {
+                        nesting++;
+                    }
+                }
+                objectWriter = objectWriter.with(new NestedPrettyPrinter(nesting));
+            }
+            ObjectWriter microserviceWriter = objectWriter;
+
+            Deque<Future<String>> buffers = new ArrayDeque<>();
+            try {
+                for (Microservice microservice : microservices) {
+                    buffers.add(EXECUTOR.submit(() -> microserviceWriter.writeValueAsString(microservice)));
+
+                    if (buffers.size() == threads) {
+                        generator.writeRawValue(buffers.poll().get());
+                    }
+                }
+
+                while (!buffers.isEmpty()) {
+                    generator.writeRawValue(buffers.poll().get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while writing microservices", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Error writing microservice", e.getCause());
+            } finally {
+                buffers.forEach(buffer -> buffer.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Default pretty printer starting at the indentation of a value nested in a document
+     */
+    private static class NestedPrettyPrinter extends DefaultPrettyPrinter {
+        private final int nesting;
+
+        NestedPrettyPrinter(int nesting) {
+            this.nesting = nesting;
+            _nesting = nesting;
+        }
+
+        @Override
+        public DefaultPrettyPrinter createInstance() {
+            return new NestedPrettyPrinter(nesting);
+        }
     }
-}
\ No newline at end of file
+}
@@ -14,8 +14,6 @@ import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -35,11 +33,26 @@ public class NonJsonReadWriteUtils {
      * @return JsonObject YAML file structure as json object
      */
     public static ConfigFile readFromYaml(String path, Config config) {
+        try (FileInputStream fis = new FileInputStream(path)) {
+            return readFromYaml(path, fis, config);
+        } catch (Exception e) {
+            // Handle I/O errors (file not found, etc.)
+            return null;
+        }
+    }
+
+    /**
+     * This method reads YAML from the given content returning structure as JsonObject
+     * @param path the path to the YAML file.
+     * @param content the content of the YAML file
+     * @return JsonObject YAML file structure as json object
+     */
+    public static ConfigFile readFromYaml(String path, InputStream content, Config config) {
         JsonNode data;
         Yaml yaml = new Yaml(new SafeConstructor(new LoaderOptions()));
 
-        try (FileInputStream fis = new FileInputStream(path)) {
-            Map<String, Object> yamlMap = yaml.load(fis);
+        try {
+            Map<String, Object> yamlMap = yaml.load(content);
             data = (yamlMap == null || yamlMap.isEmpty()) ?
                     JsonNodeFactory.instance.objectNode() :
                     mapper.valueToTree(yamlMap);
@@ -52,8 +65,16 @@ public class NonJsonReadWriteUtils {
     }
 
     public static ConfigFile readFromDocker(String path, Config config) {
+        try (FileInputStream fis = new FileInputStream(path)) {
+            return readFromDocker(path, fis, config);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static ConfigFile readFromDocker(String path, InputStream content, Config config) {
         ArrayNode jsonArray = mapper.createArrayNode();
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(content))) {
             String line;
             while ((line = br.readLine()) != null) {
                 jsonArray.add(line.trim());
@@ -68,9 +89,17 @@ public class NonJsonReadWriteUtils {
     }
 
     public static ConfigFile readFromPom(String path, Config config) {
+        try (FileInputStream fis = new FileInputStream(path)) {
+            return readFromPom(path, fis, config);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static ConfigFile readFromPom(String path, InputStream content, Config config) {
         JsonNode jsonObject;
         try {
-            String xmlContent = new String(Files.readAllBytes(Paths.get(path))).trim();
+            String xmlContent = new String(content.readAllBytes()).trim();
             if (xmlContent.isEmpty()) {
                 jsonObject = JsonNodeFactory.instance.objectNode();
             } else {
@@ -85,11 +114,19 @@ public class NonJsonReadWriteUtils {
     }
 
     public static ConfigFile readFromGradle(String path, Config config) {
+        try (FileInputStream fis = new FileInputStream(path)) {
+            return readFromGradle(path, fis, config);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static ConfigFile readFromGradle(String path, InputStream content, Config config) {
         ObjectNode jsonObject = mapper.createObjectNode();
         Stack<ObjectNode> jsonStack = new Stack<>();
         jsonStack.push(jsonObject);
 
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(content))) {
             String line;
             String currentKey = null;
 
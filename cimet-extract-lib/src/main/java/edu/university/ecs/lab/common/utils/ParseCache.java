@@ -0,0 +1,181 @@
+package edu.university.ecs.lab.common.utils;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.university.ecs.lab.common.models.ir.ProjectFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Persistent cache of parsed project files, so that files which are unchanged between
+ * extractions are read back instead of parsed again. Entries are keyed by the content
+ * of a file (its git blob id, or its size and modification time outside of git) together
+ * with its path, its microservice, {@link #VERSION} and the Java version whose library
+ * types the symbol solver resolves against. Files that do not produce a project file are
+ * cached as well.
+ * <p>
+ * The key does not cover the other files of the repository. Data the symbol solver resolves
+ * against them while parsing a class, i.e. the types of called objects
+ * ({@code MethodCall.objectType}), is read back as it was when the entry was written, even if
+ * the declaring type was renamed or moved since. Use a new cache directory when such results
+ * must reflect every commit exactly.
+ * <p>
+ * Entries are written atomically, so a cache may be shared between threads and processes.
+ */
+public class ParseCache {
+    /**
+     * Version of the parse output, must be changed whenever parsing produces different
+     * models for the same file so that stale entries are no longer used
+     */
+    public static final String VERSION = "2";
+
+    /**
+     * Feature version of the running Java, the library types resolved while parsing depend on it
+     */
+    private static final String JAVA_VERSION = String.valueOf(Runtime.version().feature());
+
+    private static final String DEFAULT_CACHE_PATH = "cache";
+    private static final String ENTRY_EXTENSION = ".json";
+    private static final ObjectWriter WRITER = JsonReadWriteUtils.setupCompactObjectWriter().forType(ProjectFile.class);
+    private static final ObjectReader READER = JsonReadWriteUtils.setupObjectReader().forType(ProjectFile.class);
+
+    /**
+     * Directory holding the cache entries
+     */
+    private final Path directory;
+
+    /**
+     * Number of lookups answered from the cache
+     */
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /**
+     * Number of lookups that required parsing
+     */
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Create a cache storing its entries in the given directory
+     *
+     * @param directory path to the cache directory, created if it does not exist
+     */
+    public ParseCache(String directory) {
+        this.directory = Path.of(directory);
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create parse cache directory " + directory, e);
+        }
+    }
+
+    /**
+     * Create a cache in the default directory ./DEFAULT_CACHE_PATH
+     *
+     * @return the parse cache
+     */
+    public static ParseCache createDefault() {
+        return new ParseCache("." + FileUtils.SYS_SEPARATOR + DEFAULT_CACHE_PATH);
+    }
+
+    /**
+     * Get the content id of a file outside of git from its size and modification time
+     *
+     * @param file the file
+     * @return the content id of the file
+     */
+    public static String fileId(File file) {
+        return "file:" + file.length() + ":" + file.lastModified();
+    }
+
+    /**
+     * Build the key of a file
+     *
+     * @param contentId the git blob id of the file or its {@link #fileId(File)}
+     * @param path the local path of the file
+     * @param microserviceName the name of the microservice the file is parsed for
+     * @return the cache key
+     */
+    public static String key(String contentId, String path, String microserviceName) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[] {VERSION, JAVA_VERSION, contentId, path, microserviceName}) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the cached project file of a key, parsing and caching it if there is no entry
+     *
+     * @param key the cache key, see {@link #key(String, String, String)}
+     * @param parser parses the file, may return null
+     * @return the cached or parsed project file, null if the file does not produce one
+     */
+    public ProjectFile get(String key, Supplier<ProjectFile> parser) {
+        Path entry = directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXTENSION);
+
+        if (Files.isRegularFile(entry)) {
+            try {
+                ProjectFile projectFile = READER.readValue(entry.toFile());
+                hits.incrementAndGet();
+                return projectFile;
+            } catch (IOException ignored) {
+                // Unreadable entries are replaced below
+            }
+        }
+
+        misses.incrementAndGet();
+        ProjectFile projectFile = parser.get();
+        write(entry, projectFile);
+        return projectFile;
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups that required parsing
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Write an entry through a temporary file so readers never see partial entries
+     */
+    private void write(Path entry, ProjectFile projectFile) {
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temp = Files.createTempFile(entry.getParent(), null, null);
+            try {
+                WRITER.writeValue(temp.toFile(), projectFile);
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write parse cache entry " + entry, e);
+        }
+    }
+}
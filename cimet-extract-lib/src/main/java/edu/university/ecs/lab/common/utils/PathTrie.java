@@ -0,0 +1,201 @@
+package edu.university.ecs.lab.common.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie of paths split into their components, mapping paths to values. Lookups take time
+ * proportional to the number of components of the path instead of the number of paths stored.
+ * Paths are compared component-wise, so "/a/b" is below "/a" but not below "/a/bc".
+ *
+ * @param <V> the type of the values stored
+ */
+public class PathTrie<V> {
+    private final String separator;
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    /**
+     * Create an empty trie of paths using the given separator
+     *
+     * @param separator the separator between path components, e.g. FileUtils.GIT_SEPARATOR
+     */
+    public PathTrie(String separator) {
+        this.separator = separator;
+    }
+
+    private static final class Node<V> {
+        private final Map<String, Node<V>> children = new HashMap<>();
+        private V value;
+        private boolean present;
+        /**
+         * Number of paths stored strictly below this node
+         */
+        private int descendants;
+    }
+
+    /**
+     * Store a value for a path, replacing any previous value
+     *
+     * @param path the path
+     * @param value the value
+     * @return the previous value or null
+     */
+    public V put(String path, V value) {
+        Node<V>[] nodes = nodes(path, true);
+        Node<V> node = nodes[nodes.length - 1];
+        V previous = node.value;
+        node.value = value;
+        if (!node.present) {
+            node.present = true;
+            size++;
+            for (int i = 0; i < nodes.length - 1; i++) {
+                nodes[i].descendants++;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Remove the value of a path
+     *
+     * @param path the path
+     * @return the removed value or null
+     */
+    public V remove(String path) {
+        Node<V>[] nodes = nodes(path, false);
+        if (nodes == null || !nodes[nodes.length - 1].present) {
+            return null;
+        }
+
+        Node<V> node = nodes[nodes.length - 1];
+        V previous = node.value;
+        node.value = null;
+        node.present = false;
+        size--;
+        for (int i = 0; i < nodes.length - 1; i++) {
+            nodes[i].descendants--;
+        }
+        return previous;
+    }
+
+    /**
+     * @param path the path
+     * @return the value of exactly this path or null
+     */
+    public V get(String path) {
+        Node<V>[] nodes = nodes(path, false);
+        return nodes == null ? null : nodes[nodes.length - 1].value;
+    }
+
+    /**
+     * Check whether any path is stored strictly below the given path
+     *
+     * @param path the path
+     * @return true if a longer path starting with all components of path is stored
+     */
+    public boolean hasDescendants(String path) {
+        Node<V>[] nodes = nodes(path, false);
+        return nodes != null && nodes[nodes.length - 1].descendants > 0;
+    }
+
+    /**
+     * Find the value of the longest stored path that is a prefix of the given path,
+     * including the path itself
+     *
+     * @param path the path
+     * @return the value of the longest stored prefix or null if there is none
+     */
+    public V findLongestPrefix(String path) {
+        Node<V> node = root;
+        V found = root.present ? root.value : null;
+        for (String component : components(path)) {
+            node = node.children.get(component);
+            if (node == null) {
+                break;
+            }
+            if (node.present) {
+                found = node.value;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Find the values of a path and of all paths stored below it
+     *
+     * @param path the path
+     * @return the values of the path and its descendants, empty if there are none
+     */
+    public List<V> findAll(String path) {
+        List<V> values = new ArrayList<>();
+        Node<V>[] nodes = nodes(path, false);
+        if (nodes != null) {
+            collect(nodes[nodes.length - 1], values);
+        }
+        return values;
+    }
+
+    /**
+     * @return the number of paths stored
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the nodes along a path from the root, creating missing nodes if requested
+     *
+     * @return the nodes or null if the path is not in the trie and create is false
+     */
+    @SuppressWarnings("unchecked")
+    private Node<V>[] nodes(String path, boolean create) {
+        String[] components = components(path);
+        Node<V>[] nodes = new Node[components.length + 1];
+        nodes[0] = root;
+        for (int i = 0; i < components.length; i++) {
+            Node<V> child = nodes[i].children.get(components[i]);
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Node<>();
+                nodes[i].children.put(components[i], child);
+            }
+            nodes[i + 1] = child;
+        }
+        return nodes;
+    }
+
+    private static <V> void collect(Node<V> node, List<V> values) {
+        if (node.present) {
+            values.add(node.value);
+        }
+        if (node.descendants > 0) {
+            for (Node<V> child : node.children.values()) {
+                collect(child, values);
+            }
+        }
+    }
+
+    /**
+     * Split a path into its non-empty components
+     */
+    private String[] components(String path) {
+        List<String> components = new ArrayList<>();
+        int start = 0;
+        while (start <= path.length()) {
+            int end = path.indexOf(separator, start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (end > start) {
+                components.add(path.substring(start, end));
+            }
+            start = end + separator.length();
+        }
+        return components.toArray(new String[0]);
+    }
+}
@@ -1,6 +1,7 @@
 package edu.university.ecs.lab.common.utils;
 
-import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.Position;
 import com.github.javaparser.ast.*;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.*;
@@ -9,91 +10,206 @@ import com.github.javaparser.ast.expr.*;
 import com.github.javaparser.ast.nodeTypes.NodeWithSimpleName;
 import com.github.javaparser.ast.type.ReferenceType;
 import com.github.javaparser.resolution.UnsolvedSymbolException;
-import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
-import com.github.javaparser.resolution.TypeSolver;
 import com.github.javaparser.resolution.model.typesystem.ReferenceTypeImpl;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.MemoryTypeSolver;
 import edu.university.ecs.lab.common.config.Config;
 import edu.university.ecs.lab.common.models.enums.*;
 import edu.university.ecs.lab.common.models.ir.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 /**
  * Static utility class for parsing a file and returning associated models from code structure.
+ * All parse state is held in a {@link ParseContext} created per file, so separate files may be
+ * parsed concurrently.
  */
 public class SourceToObjectUtils {
-    private static CompilationUnit cu;
-    private static String microserviceName = "";
-    private static String path;
-    private static String className;
-    private static String packageName;
-    private static String packageAndClassName;
-    private static CombinedTypeSolver combinedTypeSolver;
-    private static Config config;
+    /**
+     * Spring Security request matchers a rule of an authorization chain starts with
+     */
+    private static final Set<String> SECURITY_MATCHERS = Set.of("antMatchers", "mvcMatchers", "requestMatchers", "anyRequest");
+
+    /**
+     * Ant pattern matching every request path
+     */
+    private static final String ANY_REQUEST = "/**";
+
+    /**
+     * Holds the state associated with parsing a single source file
+     */
+    private static final class ParseContext {
+        private final CompilationUnit cu;
+        private final CompilationUnitVisitor visitor;
+        private final DeclaredTypeLookup declaredTypeLookup;
+        private final Map<MethodCallExpr, String> callingObjectTypes = new IdentityHashMap<>();
+        private final String microserviceName;
+        private final String path;
+        private final String className;
+        private final String packageName;
+        private final String packageAndClassName;
+        private final SymbolSolverContext symbolSolverContext;
+
+        private ParseContext(CompilationUnit cu, String microserviceName, String path, String className, String packageName,
+                             SymbolSolverContext symbolSolverContext) {
+            this.cu = cu;
+            this.visitor = new CompilationUnitVisitor(cu);
+            this.declaredTypeLookup = new DeclaredTypeLookup(visitor.getPatternVariables());
+            this.microserviceName = microserviceName;
+            this.path = path;
+            this.className = className;
+            this.packageName = packageName;
+            this.packageAndClassName = packageName + "." + className;
+            this.symbolSolverContext = symbolSolverContext;
+        }
+    }
 
+    /**
+     * Prevent instantiation
+     */
+    private SourceToObjectUtils() {
+    }
 
-    private static void generateStaticValues(File sourceFile, Config config1) {
+    /**
+     * This method parses a source file resolving symbols against the given symbol solver context
+     *
+     * @param path the local path of the file
+     * @param parser parses the file with the parser of the symbol solver context
+     * @param config the configuration of the system being parsed
+     * @param microserviceName the name of the microservice the file belongs to
+     * @param symbolSolverContext the symbol solver context of the repository snapshot
+     * @return the parse context for the file or null if the file could not be parsed
+     */
+    private static ParseContext generateParseContext(String path, Callable<ParseResult<CompilationUnit>> parser, Config config, String microserviceName, SymbolSolverContext symbolSolverContext) {
         // Parse the highest level node being compilation unit
-        config = config1;
+        CompilationUnit cu;
         try {
-            cu = StaticJavaParser.parse(sourceFile);
+            ParseResult<CompilationUnit> parseResult = parser.call();
+            if (!parseResult.isSuccessful() || parseResult.getResult().isEmpty()) {
+                return null;
+            }
+            cu = parseResult.getResult().get();
         } catch (Exception e) {
-            microserviceName = "";
-            return;
-        }
-        if (!cu.findAll(PackageDeclaration.class).isEmpty()) {
-            packageName = cu.findAll(PackageDeclaration.class).get(0).getNameAsString();
-            packageAndClassName = packageName + "." + sourceFile.getName().replace(".java", "");
+            return null;
         }
-        path = FileUtils.localPathToGitPath(sourceFile.getPath(), config.getRepoName());
 
-        TypeSolver reflectionTypeSolver = new ReflectionTypeSolver();
-        TypeSolver javaParserTypeSolver = new JavaParserTypeSolver(FileUtils.getRepositoryPath(config.getRepoName()));
+        String packageName = cu.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+        String gitPath = FileUtils.localPathToGitPath(path, config.getRepoName());
+        String className = new File(path).getName().replace(".java", "");
+
+        return new ParseContext(cu, microserviceName, gitPath, className, packageName, symbolSolverContext);
+    }
+
+    /**
+     * This method builds the parse context of the compilation unit holding the given node, for the
+     * public methods that parse single declarations. The microservice name is left empty and types
+     * are resolved against the source root the compilation unit was read from, if any.
+     *
+     * @param node a node of a parsed compilation unit
+     * @return the parse context of the compilation unit
+     * @throws IllegalArgumentException if the node is not part of a compilation unit
+     */
+    private static ParseContext generateParseContext(Node node) {
+        CompilationUnit cu = node.findCompilationUnit()
+                .orElseThrow(() -> new IllegalArgumentException("Node is not part of a compilation unit"));
+
+        String packageName = cu.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+        String path = cu.getStorage().map(storage -> storage.getPath().toString()).orElse("");
+        String className = cu.getPrimaryTypeName()
+                .orElseGet(() -> cu.getTypes().isEmpty() ? "" : cu.getType(0).getNameAsString());
+        SymbolSolverContext symbolSolverContext = new SymbolSolverContext(MemoryTypeSolver::new);
+        if (cu.getStorage().isPresent()) {
+            try {
+                symbolSolverContext = new SymbolSolverContext(cu.getStorage().get().getSourceRoot().toString());
+            } catch (RuntimeException e) {
+                // The package declaration does not match the path, only JDK types are resolved
+            }
+        }
 
-        combinedTypeSolver = new CombinedTypeSolver();
-        combinedTypeSolver.add(reflectionTypeSolver);
-        combinedTypeSolver.add(javaParserTypeSolver);
+        return new ParseContext(cu, "", path, className, packageName, symbolSolverContext);
+    }
 
-        JavaSymbolSolver symbolSolver = new JavaSymbolSolver(combinedTypeSolver);
-        StaticJavaParser.getConfiguration().setSymbolResolver(symbolSolver);
-        className = sourceFile.getName().replace(".java", "");
+    /**
+     * This method parses a Java class file and return a JClass object. A new
+     * symbol solver context is created for the file, when parsing many files of
+     * the same repository snapshot use {@link #parseClass(File, Config, String, SymbolSolverContext)}
+     *
+     * @param sourceFile the file to parse
+     * @return the JClass object representing the file
+     */
+    public static JClass parseClass(File sourceFile, Config config, String microserviceName) {
+        // Guard condition
+        if(Objects.isNull(sourceFile) || FileUtils.isConfigurationFile(sourceFile.getPath())) {
+            return null;
+        }
 
+        return parseClass(sourceFile, config, microserviceName, SymbolSolverContext.fromConfig(config));
     }
 
     /**
      * This method parses a Java class file and return a JClass object.
      *
      * @param sourceFile the file to parse
+     * @param config the configuration of the system being parsed
+     * @param microserviceName the name of the microservice the file belongs to
+     * @param symbolSolverContext the symbol solver context shared by all files of the repository snapshot
      * @return the JClass object representing the file
      */
-    public static JClass parseClass(File sourceFile, Config config, String microserviceName) {
+    public static JClass parseClass(File sourceFile, Config config, String microserviceName, SymbolSolverContext symbolSolverContext) {
         // Guard condition
         if(Objects.isNull(sourceFile) || FileUtils.isConfigurationFile(sourceFile.getPath())) {
             return null;
         }
 
-        generateStaticValues(sourceFile, config);
-        if (!microserviceName.isEmpty()) {
-            SourceToObjectUtils.microserviceName = microserviceName;
+        return parseClass(generateParseContext(sourceFile.getPath(), () -> symbolSolverContext.getJavaParser().parse(sourceFile),
+                config, Objects.isNull(microserviceName) ? "" : microserviceName, symbolSolverContext));
+    }
+
+    /**
+     * This method parses the source of a Java class file that is not read from disk,
+     * e.g. a blob of a commit, and return a JClass object.
+     *
+     * @param path the local path the file would have in the working tree
+     * @param source the content of the file
+     * @param config the configuration of the system being parsed
+     * @param microserviceName the name of the microservice the file belongs to
+     * @param symbolSolverContext the symbol solver context shared by all files of the repository snapshot
+     * @return the JClass object representing the file
+     */
+    public static JClass parseClass(String path, byte[] source, Config config, String microserviceName, SymbolSolverContext symbolSolverContext) {
+        // Guard condition
+        if(Objects.isNull(path) || Objects.isNull(source) || FileUtils.isConfigurationFile(path)) {
+            return null;
+        }
+
+        return parseClass(generateParseContext(path, () -> symbolSolverContext.getJavaParser().parse(new ByteArrayInputStream(source)),
+                config, Objects.isNull(microserviceName) ? "" : microserviceName, symbolSolverContext));
+    }
+
+    private static JClass parseClass(ParseContext ctx) {
+        if (ctx == null) {
+            return null;
         }
+        CompilationUnitVisitor visitor = ctx.visitor;
 
         // Calculate early to determine classrole based on annotation, filter for class based annotations only
-        Set<AnnotationExpr> classAnnotations = filterClassAnnotations();
+        Set<AnnotationExpr> classAnnotations = visitor.getClassAnnotations();
         AnnotationExpr requestMapping = classAnnotations.stream().filter(ae -> ae.getNameAsString().equals("RequestMapping")).findFirst().orElse(null);
 
         // Identify instances of MongoRepository and CrudRepository
-        List<ClassOrInterfaceDeclaration> classInterfaceDecs = cu.findAll(ClassOrInterfaceDeclaration.class);
+        ClassOrInterfaceDeclaration classInterfaceDec = visitor.getClassOrInterfaceDeclaration();
         Set<String> s = new HashSet<>();
-        if (!classInterfaceDecs.isEmpty())
-            s = classInterfaceDecs.get(0).getExtendedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet());
+        if (classInterfaceDec != null)
+            s = classInterfaceDec.getExtendedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet());
 
         ClassRole classRole = parseClassRole(classAnnotations, s);
+        if (classRole.equals(ClassRole.UNKNOWN) && declaresSecurityFilterChain(visitor.getMethodDeclarations())) {
+            classRole = ClassRole.SECURITY_CONFIG;
+        }
 
         // Return unknown classRoles where annotation not found
         if (classRole.equals(ClassRole.UNKNOWN)) {
@@ -102,16 +218,20 @@ public class SourceToObjectUtils {
 
         JClass jClass = null;
         if(classRole == ClassRole.FEIGN_CLIENT) {
-            jClass = handleFeignClient(requestMapping, classAnnotations);
+            jClass = handleFeignClient(ctx, requestMapping, classAnnotations);
         } else if(classRole == ClassRole.REP_REST_RSC) {
-            jClass = handleRepositoryRestResource(requestMapping, classAnnotations);
+            jClass = handleRepositoryRestResource(ctx, requestMapping, classAnnotations);
         } else {
-            jClass = buildJClass(className, path, packageName, classRole,
-                    parseImports(cu.findAll(ImportDeclaration.class)),
-                    parseMethods(cu.findAll(MethodDeclaration.class), requestMapping),
-                    parseFields(cu.findAll(FieldDeclaration.class)),
-                    parseAnnotations(classAnnotations),
-                    parseMethodCalls(cu.findAll(MethodDeclaration.class)));
+            jClass = buildJClass(ctx, classRole,
+                    parseImports(ctx, visitor.getImportDeclarations()),
+                    parseMethods(ctx, visitor.getMethodDeclarations(), requestMapping),
+                    parseFields(ctx, visitor.getFieldDeclarations()),
+                    parseAnnotations(ctx, classAnnotations),
+                    parseMethodCalls(ctx));
+
+            if (jClass != null && classRole == ClassRole.SECURITY_CONFIG) {
+                jClass.setSecurityRules(parseSecurityRules(ctx));
+            }
         }
 
         // Build the JClass
@@ -126,6 +246,14 @@ public class SourceToObjectUtils {
      * @return a set of Import models representing the ImportDeclarations
      */
     public static Set<Import> parseImports(List<ImportDeclaration> importDeclarations) {
+        if (importDeclarations.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        return parseImports(generateParseContext(importDeclarations.get(0)), importDeclarations);
+    }
+
+    private static Set<Import> parseImports(ParseContext ctx, List<ImportDeclaration> importDeclarations) {
         HashSet<Import> imports = new HashSet<>();
 
         for (ImportDeclaration impDec : importDeclarations) {
@@ -138,7 +266,7 @@ public class SourceToObjectUtils {
                 Location range = null;
                 if (impDec.getRange().isPresent()) range = new Location(impDec.getRange().get());
 
-                Import imp = new Import(impPackage, impObject, impDec.isStatic(), packageAndClassName, range);
+                Import imp = new Import(impPackage, impObject, impDec.isStatic(), ctx.packageAndClassName, range);
                 imports.add(imp);
             } else {
                 String impPackage = impDec.getNameAsString();
@@ -147,7 +275,7 @@ public class SourceToObjectUtils {
                 Location range = null;
                 if (impDec.getRange().isPresent()) range = new Location(impDec.getRange().get());
 
-                Import imp = new Import(impPackage, impObject, impDec.isStatic(), packageAndClassName, range);
+                Import imp = new Import(impPackage, impObject, impDec.isStatic(), ctx.packageAndClassName, range);
                 imports.add(imp);
             }
         }
@@ -158,16 +286,25 @@ public class SourceToObjectUtils {
      * This method parses methodDeclarations list and returns a Set of Method models
      *
      * @param methodDeclarations the list of methodDeclarations to be parsed
+     * @param requestMapping the class level requestMapping, null if there is none
      * @return a set of Method models representing the MethodDeclarations
      */
     public static Set<Method> parseMethods(List<MethodDeclaration> methodDeclarations, AnnotationExpr requestMapping) {
+        if (methodDeclarations.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        return parseMethods(generateParseContext(methodDeclarations.get(0)), methodDeclarations, requestMapping);
+    }
+
+    private static Set<Method> parseMethods(ParseContext ctx, List<MethodDeclaration> methodDeclarations, AnnotationExpr requestMapping) {
         // Get params and returnType
         Set<Method> methods = new HashSet<>();
 
         for (MethodDeclaration methodDeclaration : methodDeclarations) {
             Set<edu.university.ecs.lab.common.models.ir.Parameter> parameters = new HashSet<>();
             for (Parameter parameter : methodDeclaration.getParameters()) {
-                parameters.add(new edu.university.ecs.lab.common.models.ir.Parameter(parameter, packageAndClassName));
+                parameters.add(new edu.university.ecs.lab.common.models.ir.Parameter(parameter, ctx.packageAndClassName));
             }
 
             NodeList<ReferenceType> exceptions = methodDeclaration.getThrownExceptions();
@@ -179,12 +316,12 @@ public class SourceToObjectUtils {
 
             Method method = new Method(
                     methodDeclaration.getNameAsString(),
-                    packageAndClassName,
+                    ctx.packageAndClassName,
                     parameters,
                     methodDeclaration.getTypeAsString(),
-                    parseAnnotations(methodDeclaration.getAnnotations()),
-                    microserviceName,
-                    className,
+                    parseAnnotations(ctx, methodDeclaration.getAnnotations()),
+                    ctx.microserviceName,
+                    ctx.className,
                     AccessModifier.fromAccessSpecifier(methodDeclaration.getAccessSpecifier()),
                     methodDeclaration.isAbstract(),
                     methodDeclaration.isStatic(),
@@ -226,39 +363,64 @@ public class SourceToObjectUtils {
 
 
     /**
-     * This method parses methodDeclarations list and returns a Set of MethodCall models
+     * This method parses methodDeclarations list and returns a List of MethodCall models
      *
      * @param methodDeclarations the list of methodDeclarations to be parsed
-     * @return a set of MethodCall models representing MethodCallExpressions found in the MethodDeclarations
+     * @return a list of MethodCall models representing MethodCallExpressions found in the MethodDeclarations
      */
     public static List<MethodCall> parseMethodCalls(List<MethodDeclaration> methodDeclarations) {
         List<MethodCall> methodCalls = new ArrayList<>();
+        if (methodDeclarations.isEmpty()) {
+            return methodCalls;
+        }
 
-        // loop through method calls
+        ParseContext ctx = generateParseContext(methodDeclarations.get(0));
         for (MethodDeclaration methodDeclaration : methodDeclarations) {
-            for (MethodCallExpr mce : methodDeclaration.findAll(MethodCallExpr.class)) {
-                String methodName = mce.getNameAsString();
+            parseMethodCalls(ctx, methodDeclaration, methodDeclaration.findAll(MethodCallExpr.class), methodCalls);
+        }
+
+        return methodCalls;
+    }
+
+    /**
+     * This method parses the method declarations of the file and returns a List of MethodCall models
+     *
+     * @param ctx the parse context of the file
+     * @return a list of MethodCall models representing MethodCallExpressions found in the MethodDeclarations
+     */
+    private static List<MethodCall> parseMethodCalls(ParseContext ctx) {
+        List<MethodCall> methodCalls = new ArrayList<>();
+        List<MethodDeclaration> methodDeclarations = ctx.visitor.getMethodDeclarations();
+
+        // loop through method calls
+        for (int i = 0; i < methodDeclarations.size(); i++) {
+            parseMethodCalls(ctx, methodDeclarations.get(i), ctx.visitor.getMethodCallExprs(i), methodCalls);
+        }
 
-                String calledServiceName = getCallingObjectName(mce);
-                String calledServiceType = getCallingObjectType(mce);
+        return methodCalls;
+    }
 
-                String parameterContents = mce.getArguments().stream().map(Objects::toString).collect(Collectors.joining(","));
+    private static void parseMethodCalls(ParseContext ctx, MethodDeclaration methodDeclaration, List<MethodCallExpr> methodCallExprs, List<MethodCall> methodCalls) {
+        for (MethodCallExpr mce : methodCallExprs) {
+            String methodName = mce.getNameAsString();
 
-                if (Objects.nonNull(calledServiceName)) {
-                    Location range = null;
-                    if (mce.getRange().isPresent()) range = new Location(mce.getRange().get());
+            String calledServiceName = getCallingObjectName(mce);
+            String calledServiceType = getCallingObjectType(ctx, mce);
 
-                    MethodCall methodCall = new MethodCall(methodName, packageAndClassName, calledServiceType, calledServiceName,
-                            methodDeclaration.getNameAsString(), parameterContents, microserviceName, className, range);
+            String parameterContents = mce.getArguments().stream().map(Objects::toString).collect(Collectors.joining(","));
 
-                    methodCall = convertValidRestCalls(mce, methodCall);
+            if (Objects.nonNull(calledServiceName)) {
+                Location range = null;
+                if (mce.getRange().isPresent()) range = new Location(mce.getRange().get());
 
-                    methodCalls.add(methodCall);
-                }
+                MethodCall methodCall = new MethodCall(methodName, ctx.packageAndClassName, calledServiceType, calledServiceName,
+                        methodDeclaration.getNameAsString(), parameterContents, ctx.microserviceName, ctx.className, range);
+
+                methodCall = convertValidRestCalls(ctx, mce, methodCall);
+
+                methodCalls.add(methodCall);
             }
         }
-
-        return methodCalls;
     }
 
     /**
@@ -269,11 +431,15 @@ public class SourceToObjectUtils {
      * @return returns methodCall if it is invalid, otherwise a new RestCall
      */
     public static MethodCall convertValidRestCalls(MethodCallExpr methodCallExpr, MethodCall methodCall) {
+        return convertValidRestCalls(generateParseContext(methodCallExpr), methodCallExpr, methodCall);
+    }
+
+    private static MethodCall convertValidRestCalls(ParseContext ctx, MethodCallExpr methodCallExpr, MethodCall methodCall) {
         if ((!RestCallTemplate.REST_OBJECTS.contains(methodCall.getObjectType()) || !RestCallTemplate.REST_METHODS.contains(methodCallExpr.getNameAsString()))) {
             return methodCall;
         }
 
-        RestCallTemplate restCallTemplate = new RestCallTemplate(methodCallExpr,methodCall, cu);
+        RestCallTemplate restCallTemplate = new RestCallTemplate(methodCallExpr, methodCall, ctx.visitor.getFieldDeclarations());
 
         if (restCallTemplate.getUrl().isEmpty()) {
             return methodCall;
@@ -288,7 +454,7 @@ public class SourceToObjectUtils {
      * @param fieldDeclarations the field declarations to parse
      * @return the set of Field models
      */
-    private static Set<Field> parseFields(List<FieldDeclaration> fieldDeclarations) {
+    private static Set<Field> parseFields(ParseContext ctx, List<FieldDeclaration> fieldDeclarations) {
         Set<Field> javaFields = new HashSet<>();
 
         // loop through class declarations
@@ -303,7 +469,7 @@ public class SourceToObjectUtils {
                     init = optInitExpr.get().toString();
                 }
 
-                javaFields.add(new Field(variable.getNameAsString(), packageAndClassName, variable.getTypeAsString(),
+                javaFields.add(new Field(variable.getNameAsString(), ctx.packageAndClassName, variable.getTypeAsString(),
                         AccessModifier.fromAccessSpecifier(fd.getAccessSpecifier()),
                         fd.isStatic(), fd.isFinal(), range, init));
             }
@@ -333,7 +499,19 @@ public class SourceToObjectUtils {
 
     }
 
-    private static String getCallingObjectType(MethodCallExpr mce) {
+    /**
+     * Get the simple type name of the scope of a method call, calls nested in several
+     * method declarations are only resolved once
+     *
+     * @param ctx the parse context of the file
+     * @param mce the method call
+     * @return the simple type name, the unresolved name or "" if it cannot be determined
+     */
+    private static String getCallingObjectType(ParseContext ctx, MethodCallExpr mce) {
+        return ctx.callingObjectTypes.computeIfAbsent(mce, m -> resolveCallingObjectType(ctx, m));
+    }
+
+    private static String resolveCallingObjectType(ParseContext ctx, MethodCallExpr mce) {
 
         Expression scope = mce.getScope().orElse(null);
 
@@ -341,9 +519,17 @@ public class SourceToObjectUtils {
             return "";
         }
 
+        // Variables with an explicitly declared type do not need the solver
+        if (scope instanceof NameExpr) {
+            String declaredType = ctx.declaredTypeLookup.lookup(scope.asNameExpr());
+            if (declaredType != null) {
+                return declaredType;
+            }
+        }
+
         try {
             // Resolve the type of the object
-            var resolvedType = JavaParserFacade.get(combinedTypeSolver).getType(scope);
+            var resolvedType = ctx.symbolSolverContext.getFacade().getType(scope);
             List<String> parts = List.of(((ReferenceTypeImpl) resolvedType).getQualifiedName().split("\\."));
             if(parts.isEmpty()) {
                 return "";
@@ -365,14 +551,14 @@ public class SourceToObjectUtils {
      * @param annotationExprs the annotation expressions to parse
      * @return the Set of Annotation models
      */
-    private static Set<Annotation> parseAnnotations(Iterable<AnnotationExpr> annotationExprs) {
+    private static Set<Annotation> parseAnnotations(ParseContext ctx, Iterable<AnnotationExpr> annotationExprs) {
         Set<Annotation> annotations = new HashSet<>();
 
         for (AnnotationExpr ae : annotationExprs) {
             Location range = null;
             if (ae.getRange().isPresent()) range = new Location(ae.getRange().get());
 
-            annotations.add(new Annotation(ae, packageAndClassName, range));
+            annotations.add(new Annotation(ae, ctx.packageAndClassName, range));
         }
 
         return annotations;
@@ -401,15 +587,160 @@ public class SourceToObjectUtils {
                     return ClassRole.ENTITY;
                 case "FeignClient":
                     return ClassRole.FEIGN_CLIENT;
+                case "EnableWebSecurity":
+                    return ClassRole.SECURITY_CONFIG;
             }
         }
         for (String type : extendedTypes) {
             if (type.equals("MongoRepository") || type.equals("CrudRepository"))
                 return ClassRole.REPOSITORY;
+            if (type.equals("WebSecurityConfigurerAdapter"))
+                return ClassRole.SECURITY_CONFIG;
         }
         return ClassRole.UNKNOWN;
     }
 
+    /**
+     * Check if a class declares a SecurityFilterChain bean, which makes it a security
+     * configuration without extending WebSecurityConfigurerAdapter
+     *
+     * @param methodDeclarations the method declarations of the class
+     * @return true if one of the methods returns a SecurityFilterChain
+     */
+    private static boolean declaresSecurityFilterChain(List<MethodDeclaration> methodDeclarations) {
+        return methodDeclarations.stream().anyMatch(methodDeclaration -> methodDeclaration.getTypeAsString().equals("SecurityFilterChain"));
+    }
+
+    /**
+     * This method parses the authorization chains of a Spring Security configuration class,
+     * e.g. .antMatchers(HttpMethod.GET, "/users/**").hasRole("ADMIN").anyRequest().authenticated(),
+     * into rules in the order they are declared. Spring applies the first rule matching a request.
+     * Matchers whose patterns are neither literals nor constants of the class are skipped.
+     *
+     * @param ctx the parse context of the file
+     * @return the list of security rules in declaration order
+     */
+    private static List<SecurityRule> parseSecurityRules(ParseContext ctx) {
+        // A call nested in several method declarations is listed for each of them
+        Set<MethodCallExpr> grants = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < ctx.visitor.getMethodDeclarations().size(); i++) {
+            for (MethodCallExpr mce : ctx.visitor.getMethodCallExprs(i)) {
+                if (parseSecurityAccess(mce.getNameAsString()) != null && mce.getScope().filter(Expression::isMethodCallExpr)
+                        .map(scope -> SECURITY_MATCHERS.contains(scope.asMethodCallExpr().getNameAsString())).orElse(false)) {
+                    grants.add(mce);
+                }
+            }
+        }
+
+        // The outermost call of a chain is its last rule, so order by source position instead
+        List<MethodCallExpr> orderedGrants = new ArrayList<>(grants);
+        orderedGrants.sort(Comparator.comparing(mce -> mce.getName().getBegin().orElse(Position.HOME)));
+
+        List<SecurityRule> securityRules = new ArrayList<>();
+        for (MethodCallExpr grant : orderedGrants) {
+            MethodCallExpr matcher = grant.getScope().get().asMethodCallExpr();
+
+            HttpMethod httpMethod = HttpMethod.ALL;
+            List<String> patterns = new ArrayList<>();
+            boolean hasPatternArguments = false;
+            for (Expression argument : matcher.getArguments()) {
+                if (argument.isFieldAccessExpr() && argument.asFieldAccessExpr().getScope().toString().endsWith("HttpMethod")) {
+                    String methodName = argument.asFieldAccessExpr().getNameAsString();
+                    httpMethod = Arrays.stream(HttpMethod.values()).filter(method -> method.name().equals(methodName)).findFirst().orElse(HttpMethod.NONE);
+                } else {
+                    hasPatternArguments = true;
+                    String pattern = resolveStringConstant(ctx, argument);
+                    if (pattern != null) {
+                        patterns.add(pattern);
+                    }
+                }
+            }
+
+            // Methods without a constant in the IR, e.g. TRACE, cannot match an endpoint
+            if (httpMethod == HttpMethod.NONE) {
+                continue;
+            }
+
+            // Matchers given only an HTTP method match every path
+            if (!hasPatternArguments) {
+                patterns.add(ANY_REQUEST);
+            } else if (patterns.isEmpty()) {
+                continue;
+            }
+
+            Set<String> roles = new TreeSet<>();
+            for (Expression argument : grant.getArguments()) {
+                String value = resolveStringConstant(ctx, argument);
+                if (value == null) {
+                    continue;
+                }
+                for (String role : value.split(",")) {
+                    roles.add(EndpointSecurity.normalizeRole(role));
+                }
+            }
+
+            securityRules.add(new SecurityRule(httpMethod, patterns, parseSecurityAccess(grant.getNameAsString()), roles));
+        }
+
+        return securityRules;
+    }
+
+    /**
+     * Get the access granted by a method of a Spring Security authorization chain
+     *
+     * @param methodName the name of the method
+     * @return the access or null if the method does not grant access
+     */
+    private static SecurityAccess parseSecurityAccess(String methodName) {
+        switch (methodName) {
+            case "permitAll":
+                return SecurityAccess.PERMIT_ALL;
+            case "authenticated":
+                return SecurityAccess.AUTHENTICATED;
+            case "hasRole":
+            case "hasAnyRole":
+            case "hasAuthority":
+            case "hasAnyAuthority":
+                return SecurityAccess.ROLES;
+            case "denyAll":
+                return SecurityAccess.DENY_ALL;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Get the value of a string literal or of a string constant declared in the class
+     *
+     * @param ctx the parse context of the file
+     * @param expression the expression to evaluate
+     * @return the string or null if the expression is neither
+     */
+    private static String resolveStringConstant(ParseContext ctx, Expression expression) {
+        if (expression.isStringLiteralExpr()) {
+            return expression.asStringLiteralExpr().getValue();
+        }
+
+        String name;
+        if (expression.isNameExpr()) {
+            name = expression.asNameExpr().getNameAsString();
+        } else if (expression.isFieldAccessExpr()) {
+            name = expression.asFieldAccessExpr().getNameAsString();
+        } else {
+            return null;
+        }
+
+        for (FieldDeclaration fieldDeclaration : ctx.visitor.getFieldDeclarations()) {
+            for (VariableDeclarator variable : fieldDeclaration.getVariables()) {
+                if (variable.getNameAsString().equals(name)) {
+                    return variable.getInitializer().filter(Expression::isStringLiteralExpr)
+                            .map(initializer -> initializer.asStringLiteralExpr().getValue()).orElse(null);
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Get the name of the microservice based on the file
      *
@@ -430,10 +761,10 @@ public class SourceToObjectUtils {
      * @param classAnnotations
      * @return
      */
-    private static JClass handleFeignClient(AnnotationExpr requestMapping, Set<AnnotationExpr> classAnnotations) {
+    private static JClass handleFeignClient(ParseContext ctx, AnnotationExpr requestMapping, Set<AnnotationExpr> classAnnotations) {
 
         // Parse the methods
-        Set<Method> methods = parseMethods(cu.findAll(MethodDeclaration.class), requestMapping);
+        Set<Method> methods = parseMethods(ctx, ctx.visitor.getMethodDeclarations(), requestMapping);
 
         // New methods for conversion
         Set<Method> newMethods = new HashSet<>();
@@ -444,7 +775,7 @@ public class SourceToObjectUtils {
         for(Method method : methods) {
             if(method instanceof Endpoint) {
                 Endpoint endpoint = (Endpoint) method;
-                newMethods.add(new Method(method.getName(), packageAndClassName, method.getParameters(),
+                newMethods.add(new Method(method.getName(), ctx.packageAndClassName, method.getParameters(),
                         method.getReturnType(), method.getAnnotations(), method.getMicroserviceName(),
                         method.getClassName(), method.getProtection(), method.isAbstract(), method.isStatic(),
                         method.isFinal(), method.getThrownExceptions(), method.getLocation()));
@@ -471,7 +802,7 @@ public class SourceToObjectUtils {
                     queryParams.replace(0, 1, "?");
                 }
 
-                newRestCalls.add(new RestCall(new MethodCall("exchange", packageAndClassName, "RestCallTemplate",
+                newRestCalls.add(new RestCall(new MethodCall("exchange", ctx.packageAndClassName, "RestCallTemplate",
                         "restCallTemplate", method.getName(), "", endpoint.getMicroserviceName(),
                         endpoint.getClassName(), method.getLocation()), endpoint.getUrl() + queryParams,
                         endpoint.getHttpMethod()));
@@ -483,17 +814,38 @@ public class SourceToObjectUtils {
 
         // Build the JClass
         return buildJClass(
-                className,
-                path,
-                packageName,
+                ctx,
                 ClassRole.FEIGN_CLIENT,
-                parseImports(cu.findAll(ImportDeclaration.class)),
+                parseImports(ctx, ctx.visitor.getImportDeclarations()),
                 newMethods,
-                parseFields(cu.findAll(FieldDeclaration.class)),
-                parseAnnotations(classAnnotations),
+                parseFields(ctx, ctx.visitor.getFieldDeclarations()),
+                parseAnnotations(ctx, classAnnotations),
                 newRestCalls);
     }
 
+    /**
+     * This method parses the content of a configuration file that is not read from disk
+     *
+     * @param path the local path the file would have in the working tree
+     * @param content the content of the file
+     * @return the ConfigFile object representing the file or null if not a configuration file
+     */
+    public static ConfigFile parseConfigurationFile(String path, byte[] content, Config config) {
+        String name = new File(path).getName();
+        InputStream inputStream = new ByteArrayInputStream(content);
+        if(name.endsWith(".yml")) {
+            return NonJsonReadWriteUtils.readFromYaml(path, inputStream, config);
+        } else if(name.equals("DockerFile")) {
+            return NonJsonReadWriteUtils.readFromDocker(path, inputStream, config);
+        } else if(name.equals("pom.xml")) {
+            return NonJsonReadWriteUtils.readFromPom(path, inputStream, config);
+        } else if (name.equals("build.gradle")){
+            return NonJsonReadWriteUtils.readFromGradle(path, inputStream, config);
+        } else {
+            return null;
+        }
+    }
+
     public static ConfigFile parseConfigurationFile(File file, Config config) {
         if(file.getName().endsWith(".yml")) {
             return NonJsonReadWriteUtils.readFromYaml(file.getPath(), config);
@@ -508,19 +860,6 @@ public class SourceToObjectUtils {
         }
     }
 
-    private static Set<AnnotationExpr> filterClassAnnotations() {
-        Set<AnnotationExpr> classAnnotations = new HashSet<>();
-        for (AnnotationExpr ae : cu.findAll(AnnotationExpr.class)) {
-            if (ae.getParentNode().isPresent()) {
-                Node n = ae.getParentNode().get();
-                if (n instanceof ClassOrInterfaceDeclaration) {
-                    classAnnotations.add(ae);
-                }
-            }
-        }
-        return classAnnotations;
-    }
-
     /**
      * FeignClient represents an interface for making rest calls to a service
      * other than the current one. As such this method converts feignClient
@@ -530,10 +869,10 @@ public class SourceToObjectUtils {
      * @param classAnnotations
      * @return
      */
-    private static JClass handleRepositoryRestResource(AnnotationExpr requestMapping, Set<AnnotationExpr> classAnnotations) {
+    private static JClass handleRepositoryRestResource(ParseContext ctx, AnnotationExpr requestMapping, Set<AnnotationExpr> classAnnotations) {
 
         // Parse the methods
-        Set<Method> methods = parseMethods(cu.findAll(MethodDeclaration.class), requestMapping);
+        Set<Method> methods = parseMethods(ctx, ctx.visitor.getMethodDeclarations(), requestMapping);
 
         // New methods for conversion
         Set<Method> newEndpoints = new HashSet<>();
@@ -541,7 +880,7 @@ public class SourceToObjectUtils {
         List<MethodCall> newRestCalls = new ArrayList<>();
 
         // Arbitrary preURL naming scheme if not defined in the annotation
-        String preURL = "/" + className.toLowerCase().replace("repository", "") + "s";
+        String preURL = "/" + ctx.className.toLowerCase().replace("repository", "") + "s";
 
         for(AnnotationExpr annotation : classAnnotations) {
             if(annotation.getNameAsString().equals("RepositoryRestResource")) {
@@ -599,54 +938,55 @@ public class SourceToObjectUtils {
 
         // Build the JClass
         return buildJClass(
-                className,
-                path,
-                packageName,
+                ctx,
                 ClassRole.REP_REST_RSC,
-                parseImports(cu.findAll(ImportDeclaration.class)),
+                parseImports(ctx, ctx.visitor.getImportDeclarations()),
                 newEndpoints,
-                parseFields(cu.findAll(FieldDeclaration.class)),
-                parseAnnotations(classAnnotations),
+                parseFields(ctx, ctx.visitor.getFieldDeclarations()),
+                parseAnnotations(ctx, classAnnotations),
                 newRestCalls);
     }
 
-    private static JClass buildJClass(String name, String path, String packageName, ClassRole classRole, Set<Import> imports, Set<Method> methods, Set<Field> fields, Set<Annotation> classAnnotations, List<MethodCall> methodCalls) {
+    private static JClass buildJClass(ParseContext ctx, ClassRole classRole, Set<Import> imports, Set<Method> methods, Set<Field> fields, Set<Annotation> classAnnotations, List<MethodCall> methodCalls) {
         JClass jClass = null;
-
-        List<ClassOrInterfaceDeclaration> classInterfaceDecs = cu.findAll(ClassOrInterfaceDeclaration.class);
-        List<EnumDeclaration> enumDecs = cu.findAll(EnumDeclaration.class);
-        List<RecordDeclaration> recordDecs = cu.findAll(RecordDeclaration.class);
-        if (!classInterfaceDecs.isEmpty()) {
-            AccessModifier protection = AccessModifier.fromAccessSpecifier(classInterfaceDecs.get(0).getAccessSpecifier());
-            Boolean isFinal = classInterfaceDecs.get(0).isFinal();
-            Boolean isAbstract = classInterfaceDecs.get(0).isAbstract();
-            Boolean isStatic = classInterfaceDecs.get(0).isStatic();
-
-            if (!classInterfaceDecs.get(0).isInterface()) {
+        String name = ctx.className;
+        String path = ctx.path;
+        String packageName = ctx.packageName;
+
+        ClassOrInterfaceDeclaration classInterfaceDec = ctx.visitor.getClassOrInterfaceDeclaration();
+        EnumDeclaration enumDec = ctx.visitor.getEnumDeclaration();
+        RecordDeclaration recordDec = ctx.visitor.getRecordDeclaration();
+        if (classInterfaceDec != null) {
+            AccessModifier protection = AccessModifier.fromAccessSpecifier(classInterfaceDec.getAccessSpecifier());
+            Boolean isFinal = classInterfaceDec.isFinal();
+            Boolean isAbstract = classInterfaceDec.isAbstract();
+            Boolean isStatic = classInterfaceDec.isStatic();
+
+            if (!classInterfaceDec.isInterface()) {
                 jClass = new JClass(name, path, packageName, classRole, imports, methods, fields, classAnnotations, methodCalls,
-                        classInterfaceDecs.get(0).getImplementedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
-                        classInterfaceDecs.get(0).getExtendedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
+                        classInterfaceDec.getImplementedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
+                        classInterfaceDec.getExtendedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
                         protection, isFinal, isAbstract, isStatic);
             } else {
                 jClass = new JInterface(name, path, packageName, classRole, imports, methods, fields, classAnnotations, methodCalls,
-                        classInterfaceDecs.get(0).getExtendedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
+                        classInterfaceDec.getExtendedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
                         protection, isFinal, isStatic);
 
             }
-        } else if (!enumDecs.isEmpty()) {
-            AccessModifier protection = AccessModifier.fromAccessSpecifier(enumDecs.get(0).getAccessSpecifier());
+        } else if (enumDec != null) {
+            AccessModifier protection = AccessModifier.fromAccessSpecifier(enumDec.getAccessSpecifier());
 
             List<String> enumEntries = new ArrayList<>();
-            enumDecs.get(0).getEntries().forEach(entry -> enumEntries.add(entry.getNameAsString()));
+            enumDec.getEntries().forEach(entry -> enumEntries.add(entry.getNameAsString()));
             jClass = new JEnum(name, path, packageName, classRole, imports, methods, fields, classAnnotations, methodCalls,
-                    enumDecs.get(0).getImplementedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
+                    enumDec.getImplementedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
                     protection, enumEntries);
-        } else if (!recordDecs.isEmpty()) {
-            AccessModifier protection = AccessModifier.fromAccessSpecifier(recordDecs.get(0).getAccessSpecifier());
-            Boolean isStatic = recordDecs.get(0).isStatic();
+        } else if (recordDec != null) {
+            AccessModifier protection = AccessModifier.fromAccessSpecifier(recordDec.getAccessSpecifier());
+            Boolean isStatic = recordDec.isStatic();
 
             jClass = new JRecord(name, path, packageName, classRole, imports, methods, fields, classAnnotations, methodCalls,
-                    recordDecs.get(0).getImplementedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
+                    recordDec.getImplementedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()),
                     protection, isStatic);
         }
 
@@ -0,0 +1,87 @@
+package edu.university.ecs.lab.common.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+
+/**
+ * Lexical pre-filter deciding whether a Java source file may declare a class with a
+ * known role, before paying for parsing and symbol solving it.
+ * <p>
+ * The class role is decided by the simple names of class annotations, extended types and
+ * the return types of SecurityFilterChain bean methods (see SourceToObjectUtils#parseClassRole),
+ * all of which appear in the source as identifiers. A file that contains none of those identifiers
+ * can therefore never produce a JClass. Matches in comments or string literals are kept, so the
+ * filter only ever errs towards parsing.
+ */
+public class StereotypeFilter {
+    /**
+     * Identifiers that parseClassRole maps to a class role, must be kept in sync with it
+     */
+    private static final Set<String> STEREOTYPES = Set.of(
+            "RestController", "Controller", "Service", "Repository", "RepositoryRestResource",
+            "Entity", "Embeddable", "FeignClient", "MongoRepository", "CrudRepository",
+            "EnableWebSecurity", "WebSecurityConfigurerAdapter", "SecurityFilterChain");
+
+    /**
+     * Bounds on the length of the stereotypes, to skip other identifiers without hashing them
+     */
+    private static final int MIN_LENGTH = STEREOTYPES.stream().mapToInt(String::length).min().orElse(0);
+    private static final int MAX_LENGTH = STEREOTYPES.stream().mapToInt(String::length).max().orElse(0);
+
+    /**
+     * Prevent instantiation
+     */
+    private StereotypeFilter() {
+    }
+
+    /**
+     * Check if the given Java source file may declare a class with a known role
+     *
+     * @param sourceFile the Java source file
+     * @return false only if the file cannot produce a JClass, true if it cannot be read
+     */
+    public static boolean mayHaveClassRole(File sourceFile) {
+        try {
+            return mayHaveClassRole(new String(Files.readAllBytes(sourceFile.toPath()), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Leave the error handling to the parser
+            return true;
+        }
+    }
+
+    /**
+     * Check if the given Java source may declare a class with a known role
+     *
+     * @param source the Java source code
+     * @return false only if the source cannot produce a JClass
+     */
+    public static boolean mayHaveClassRole(String source) {
+        // Unicode escapes may spell out identifiers, these are left to the parser
+        if (source.contains("\\u")) {
+            return true;
+        }
+
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            if (!Character.isJavaIdentifierStart(source.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            int start = i++;
+            while (i < length && Character.isJavaIdentifierPart(source.charAt(i))) {
+                i++;
+            }
+
+            if (i - start >= MIN_LENGTH && i - start <= MAX_LENGTH && STEREOTYPES.contains(source.substring(start, i))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package edu.university.ecs.lab.common.utils;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.services.CommitTree;
+
+import java.util.function.Supplier;
+
+/**
+ * Type solving context for a single snapshot of a repository. It is built once and
+ * shared by every file parsed from that snapshot, so types resolved (and sources parsed)
+ * while resolving one file are cached for all following files parsed by the same thread.
+ * <p>
+ * Each thread using the context gets its own type solvers and {@link JavaParser}. The symbol
+ * solver stores resolved data on the nodes of the dependency sources it parses through
+ * {@code Node.setData}, which is not synchronized, so the parsed sources of a type solver
+ * must only ever be resolved against by one thread.
+ * <p>
+ * A context must not outlive its snapshot, create a new one whenever the working tree
+ * changes (e.g. after {@link edu.university.ecs.lab.common.services.GitService#resetLocal(String)}).
+ * Contexts created from a {@link CommitTree} read the commit from the object database and
+ * stay valid regardless of the working tree.
+ */
+public class SymbolSolverContext {
+    /**
+     * Root type solver and parser of each thread
+     */
+    private final ThreadLocal<Resolver> resolver;
+
+    /**
+     * Create a context for the repository rooted at the given path
+     *
+     * @param repositoryPath path to the root of the repository snapshot
+     */
+    public SymbolSolverContext(String repositoryPath) {
+        this(() -> new JavaParserTypeSolver(repositoryPath));
+    }
+
+    /**
+     * Create a context resolving the sources of the repository with type solvers from the given supplier
+     *
+     * @param sourceTypeSolver supplies a new type solver for the sources of the repository snapshot to each thread
+     */
+    public SymbolSolverContext(Supplier<TypeSolver> sourceTypeSolver) {
+        this.resolver = ThreadLocal.withInitial(() -> new Resolver(sourceTypeSolver.get()));
+    }
+
+    /**
+     * Create a context for the locally cloned repository of the given configuration
+     *
+     * @param config the configuration of the system
+     * @return a new context rooted at the cloned repository
+     */
+    public static SymbolSolverContext fromConfig(Config config) {
+        return new SymbolSolverContext(FileUtils.getRepositoryPath(config.getRepoName()));
+    }
+
+    /**
+     * Create a context for a commit that is read from the object database
+     *
+     * @param commitTree the files of the commit
+     * @return a new context resolving against the sources of the commit
+     */
+    public static SymbolSolverContext fromCommitTree(CommitTree commitTree) {
+        return new SymbolSolverContext(() -> new CommitTreeTypeSolver(commitTree));
+    }
+
+    /**
+     * @return the root type solver of the calling thread for this snapshot
+     */
+    public TypeSolver getTypeSolver() {
+        return resolver.get().typeSolver;
+    }
+
+    /**
+     * @return a parser for the calling thread whose parsed files resolve against this context
+     */
+    public JavaParser getJavaParser() {
+        return resolver.get().javaParser;
+    }
+
+    /**
+     * @return the facade of the calling thread used for resolving types of expressions against this context
+     */
+    public JavaParserFacade getFacade() {
+        return JavaParserFacade.get(getTypeSolver());
+    }
+
+    /**
+     * Type solver resolving JRE types and sources of the repository, and the parser attaching it to parsed files
+     */
+    private static class Resolver {
+        private final CombinedTypeSolver typeSolver;
+        private final JavaParser javaParser;
+
+        private Resolver(TypeSolver sourceTypeSolver) {
+            this.typeSolver = new CombinedTypeSolver();
+            this.typeSolver.add(new ReflectionTypeSolver());
+            this.typeSolver.add(sourceTypeSolver);
+            this.javaParser = new JavaParser(new ParserConfiguration().setSymbolResolver(new JavaSymbolSolver(typeSolver)));
+        }
+    }
+}
@@ -7,6 +7,20 @@
  * The main classes include:
  *     - {@link edu.university.ecs.lab.common.utils.FileUtils} - Manages file paths and conversions.
  *     - {@link edu.university.ecs.lab.common.utils.JsonReadWriteUtils} - Handles JSON serialization and deserialization.
+ *     - {@link edu.university.ecs.lab.common.utils.IRFormat} - Encodings files can be written in besides JSON.
+ *     - {@link edu.university.ecs.lab.common.utils.IRIndex} - Indexes IR files to load single microservices without reading the whole file.
  *     - {@link edu.university.ecs.lab.common.utils.SourceToObjectUtils} - Parses Java source files into data models.
+ *     - {@link edu.university.ecs.lab.common.utils.SymbolSolverContext} - Shares type solving between all files of a repository snapshot parsed by a thread.
+ *     - {@link edu.university.ecs.lab.common.utils.CommitTreeTypeSolver} - Resolves types against the sources of a commit that is not checked out.
+ *     - {@link edu.university.ecs.lab.common.utils.CompilationUnitVisitor} - Collects the declarations of a parsed file in a single traversal.
+ *     - {@link edu.university.ecs.lab.common.utils.StereotypeFilter} - Skips source files that cannot declare a class with a known role.
+ *     - {@link edu.university.ecs.lab.common.utils.ParseCache} - Persists parse results of unchanged files between extractions.
+ *     - {@link edu.university.ecs.lab.common.utils.DeclaredTypeLookup} - Looks up declared variable types without the symbol solver.
+ *     - {@link edu.university.ecs.lab.common.utils.JavaTokenComparator} - Compares Java sources ignoring comments and whitespace.
+ *     - {@link edu.university.ecs.lab.common.utils.PathTrie} - Maps paths to values with component-wise prefix lookups.
+ *     - {@link edu.university.ecs.lab.common.utils.EndpointMatcher} - Matches rest calls to the endpoints they may target.
+ *     - {@link edu.university.ecs.lab.common.utils.EndpointReachability} - Finds the repositories and operations reached by each endpoint.
+ *     - {@link edu.university.ecs.lab.common.utils.EndpointSecurity} - Resolves the access security configurations and annotations grant to each endpoint.
+ *     - {@link edu.university.ecs.lab.common.utils.InternTable} - Shares equal strings and locations between the nodes of an IR.
  */
 package edu.university.ecs.lab.common.utils;
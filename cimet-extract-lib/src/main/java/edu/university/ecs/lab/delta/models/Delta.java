@@ -1,29 +1,40 @@
 package edu.university.ecs.lab.delta.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import edu.university.ecs.lab.common.models.ir.ConfigFile;
 import edu.university.ecs.lab.common.models.ir.JClass;
+import edu.university.ecs.lab.common.models.ir.ProjectFile;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
 import edu.university.ecs.lab.delta.models.enums.ChangeType;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
+
+import java.io.IOException;
+import java.util.Set;
 
 /**
  * This class represents a single Delta change between two commits.
  * In the case of ChangeType.DELETE @see {@link ChangeType} the
  * classChange will respectively be null as the instance of this class
  * is no longer locally present for parsing at the new commit
+ * <p>
+ * A delta built during extraction holds the parsed file and writes it directly, a delta
+ * read from a file holds its JSON and reads the file from it on first access. Merging adds
+ * a copy of the file to the IR (see {@link #copyChange()}), so the delta keeps the file as parsed.
  */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @JsonTypeName("Delta")
 public class Delta {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Set<String> CLASS_FILE_TYPES = Set.of("JCLASS", "JINTERFACE", "JENUM", "JRECORD");
 
     /**
      * The new path to the file changed/added
@@ -44,10 +55,86 @@ public class Delta {
 
     /**
      * The changed contents, could be a changed class or
-     * a changed configuration file
+     * a changed configuration file. Null if the delta was built from a parsed file.
      */
+    @Getter(AccessLevel.NONE)
     private JsonNode data;
 
+    /**
+     * The changed file, parsed during extraction or read from data on first access
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private ProjectFile file;
+
+    /**
+     * The parsed file converted to JSON on the first call of {@link #getData()}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    private JsonNode fileData;
+
+    public Delta(String oldPath, String newPath, ChangeType changeType, JsonNode data) {
+        this.oldPath = oldPath;
+        this.newPath = newPath;
+        this.changeType = changeType;
+        this.data = data;
+    }
+
+    /**
+     * Create a delta holding a parsed file, which is written without converting it to JSON first
+     *
+     * @param oldPath the old path of the file
+     * @param newPath the new path of the file
+     * @param changeType the type of change
+     * @param file the parsed file at the new commit
+     * @return the delta holding the file
+     */
+    public static Delta fromFile(String oldPath, String newPath, ChangeType changeType, ProjectFile file) {
+        Delta delta = new Delta(oldPath, newPath, changeType, (JsonNode) null);
+        delta.file = file;
+        return delta;
+    }
+
+    /**
+     * @return the changed contents as JSON, converted once from the parsed file if there is no JSON
+     */
+    @JsonIgnore
+    public JsonNode getData() {
+        if (data == null && fileData == null && file != null) {
+            try {
+                TokenBuffer buffer = new TokenBuffer(null, false);
+                JsonReadWriteUtils.setupObjectWriter().writeValue(buffer, file);
+                fileData = JsonReadWriteUtils.setupObjectReader().readTree(buffer.asParserOnFirstToken());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return data == null ? fileData : data;
+    }
+
+    @JsonProperty("data")
+    public void setData(JsonNode data) {
+        this.data = data;
+        this.file = null;
+        this.fileData = null;
+    }
+
+    /**
+     * The changed contents as written, the parsed file is serialized without converting it to a tree
+     */
+    @JsonProperty("data")
+    @JsonSerialize(using = DataSerializer.class)
+    private Object getSerializedData() {
+        return data == null ? file : data;
+    }
+
     /**
      * This method returns an instance of JClass if parsable.
      *
@@ -55,20 +142,8 @@ public class Delta {
      */
     @JsonIgnore
     public JClass getClassChange() {
-        if(data.isEmpty()) {
-            return null;
-        }
-        try {
-            if(data.has("fileType") && ("JCLASS".equals(data.get("fileType").asText()) ||
-                "JINTERFACE".equals(data.get("fileType").asText()) ||
-                "JENUM".equals(data.get("fileType").asText()) ||
-                "JRECORD".equals(data.get("fileType").asText()))) {
-                return objectMapper.treeToValue(data, JClass.class);
-            }
-        } catch (JsonProcessingException e) {
-            return null;
-        }
-        return null;
+        ProjectFile projectFile = getFile();
+        return projectFile instanceof JClass ? (JClass) projectFile : null;
     }
 
     /**
@@ -78,16 +153,80 @@ public class Delta {
      */
     @JsonIgnore
     public ConfigFile getConfigChange() {
-        if(data.isEmpty()) {
+        ProjectFile projectFile = getFile();
+        return projectFile instanceof ConfigFile ? (ConfigFile) projectFile : null;
+    }
+
+    /**
+     * Get a copy of the changed file that can be modified without changing the delta, e.g. when
+     * merging it into an IR. The copy is made without converting the file to a tree.
+     *
+     * @return a JClass or ConfigFile if parsable otherwise null
+     */
+    @JsonIgnore
+    public ProjectFile copyChange() {
+        if (file == null) {
+            return readFile();
+        }
+
+        try {
+            TokenBuffer buffer = new TokenBuffer(null, false);
+            JsonReadWriteUtils.setupObjectWriter().writeValue(buffer, file);
+            return JsonReadWriteUtils.setupObjectReader().forType(file.getClass()).readValue(buffer.asParserOnFirstToken());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the changed file, reading it from data on the first call
+     *
+     * @return the changed file or null if there is none or it is not parsable
+     */
+    private ProjectFile getFile() {
+        if (file == null) {
+            file = readFile();
+        }
+        return file;
+    }
+
+    /**
+     * Read a new instance of the changed file from data
+     *
+     * @return the changed file or null if there is no data or it is not parsable
+     */
+    private ProjectFile readFile() {
+        if (data == null || !data.has("fileType")) {
             return null;
         }
+
+        String fileType = data.get("fileType").asText();
         try {
-            if (data.has("fileType") && "CONFIG".equals(data.get("fileType").asText())) {
-                return objectMapper.treeToValue(data, ConfigFile.class);
+            if (CLASS_FILE_TYPES.contains(fileType)) {
+                return JsonReadWriteUtils.setupObjectReader().treeToValue(data, JClass.class);
+            } else if ("CONFIG".equals(fileType)) {
+                return JsonReadWriteUtils.setupObjectReader().treeToValue(data, ConfigFile.class);
             }
         } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+            // Unparsable classes are skipped, configurations are always expected to parse
+            if ("CONFIG".equals(fileType)) {
+                throw new RuntimeException(e);
+            }
         }
         return null;
     }
+
+    /**
+     * Writes a parsed file as a root value, which includes its type as in {@link #getData()}
+     */
+    private static class DataSerializer extends StdSerializer<Object> {
+        DataSerializer() {
+            super(Object.class);
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            provider.findTypedValueSerializer(value.getClass(), true, null).serialize(value, generator, provider);
+        }
+    }
 }
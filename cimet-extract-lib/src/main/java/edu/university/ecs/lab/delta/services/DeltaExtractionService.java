@@ -1,24 +1,29 @@
 package edu.university.ecs.lab.delta.services;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import edu.university.ecs.lab.common.config.Config;
 import edu.university.ecs.lab.common.config.ConfigUtil;
 import edu.university.ecs.lab.common.models.ir.ConfigFile;
-import edu.university.ecs.lab.common.models.ir.JClass;
+import edu.university.ecs.lab.common.models.ir.ProjectFile;
+import edu.university.ecs.lab.common.services.CommitTree;
 import edu.university.ecs.lab.common.services.GitService;
 import edu.university.ecs.lab.common.utils.FileUtils;
 import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.common.utils.ParseCache;
 import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
+import edu.university.ecs.lab.common.utils.StereotypeFilter;
+import edu.university.ecs.lab.common.utils.SymbolSolverContext;
 import edu.university.ecs.lab.delta.models.Delta;
 import edu.university.ecs.lab.delta.models.SystemChange;
 import edu.university.ecs.lab.delta.models.enums.ChangeType;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -27,7 +32,6 @@ import java.util.List;
  * the Delta output file.
  */
 public class DeltaExtractionService {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final String DEV_NULL = "/dev/null";
     /**
      * Config object representing the contents of the config file
@@ -64,6 +68,26 @@ public class DeltaExtractionService {
      */
     private String outputPath;
 
+    /**
+     * Symbol solver context shared by all files parsed at commitNew
+     */
+    private SymbolSolverContext symbolSolverContext;
+
+    /**
+     * Cache of parsed files shared between extractions, null if files are always parsed
+     */
+    private final ParseCache parseCache;
+
+    /**
+     * True to check out the commits, false to read commitNew from the object database
+     */
+    private final boolean checkout;
+
+    /**
+     * Files of commitNew when reading from the object database, null when checked out
+     */
+    private CommitTree commitTree;
+
 
     /**
      * Constructor for the DeltaExtractionService
@@ -72,13 +96,31 @@ public class DeltaExtractionService {
      * @param outputPath output path for file
      * @param commitOld old commit for comparison
      * @param commitNew new commit for comparison
+     * @param parseCache cache of parsed files, null to always parse files
      */
-    private DeltaExtractionService(String configPath, String outputPath, String commitOld, String commitNew) throws IOException, InterruptedException {
-        this.config = ConfigUtil.readConfig(configPath);
-        this.gitService = new GitService(configPath);
+    private DeltaExtractionService(String configPath, String outputPath, String commitOld, String commitNew, ParseCache parseCache) throws IOException, InterruptedException {
+        this(ConfigUtil.readConfig(configPath), new GitService(configPath), outputPath, commitOld, commitNew, parseCache, true);
+    }
+
+    /**
+     * Constructor for the DeltaExtractionService sharing an existing GitService
+     *
+     * @param config the config of the repository
+     * @param gitService the git service of the repository
+     * @param outputPath output path for file
+     * @param commitOld old commit for comparison
+     * @param commitNew new commit for comparison
+     * @param parseCache cache of parsed files, null to always parse files
+     * @param checkout true to reset the working tree to the commits, false to read them from the object database
+     */
+    private DeltaExtractionService(Config config, GitService gitService, String outputPath, String commitOld, String commitNew, ParseCache parseCache, boolean checkout) {
+        this.config = config;
+        this.gitService = gitService;
         this.commitOld = commitOld;
         this.commitNew = commitNew;
         this.outputPath = outputPath.isEmpty() ? "./Delta.json" : outputPath;
+        this.parseCache = parseCache;
+        this.checkout = checkout;
     }
 
     /**
@@ -88,13 +130,21 @@ public class DeltaExtractionService {
         List<DiffEntry> differences = null;
 
         // Ensure we start at commitOld
-        gitService.resetLocal(commitOld);
+        if (checkout) {
+            gitService.resetLocal(commitOld);
+        }
 
         // Get the differences between commits
         differences = gitService.getDifferences(commitOld, commitNew);
 
-        // Advance the local commit for parsing
-        gitService.resetLocal(commitNew);
+        // Advance the local commit for parsing, all changed files are parsed from the same snapshot
+        if (checkout) {
+            gitService.resetLocal(commitNew);
+            symbolSolverContext = SymbolSolverContext.fromConfig(config);
+        } else {
+            commitTree = gitService.getCommitTree(commitNew);
+            symbolSolverContext = SymbolSolverContext.fromCommitTree(commitTree);
+        }
 
         // process/write differences to delta output
         processDelta(differences);
@@ -111,7 +161,6 @@ public class DeltaExtractionService {
         systemChange = new SystemChange();
         systemChange.setOldCommit(commitOld);
         systemChange.setNewCommit(commitNew);
-        JsonNode data = null;
 
 
         // process each difference
@@ -149,18 +198,18 @@ public class DeltaExtractionService {
 
             changeType = ChangeType.fromDiffEntry(entry);
 
+            ProjectFile data = null;
             switch(changeType) {
                 case ADD:
-                    data = add(newPath);
+                    data = add(newPath, entry.getNewId());
                     break;
                 case MODIFY:
-                    data = add(oldPath);
+                    data = add(oldPath, entry.getNewId());
                     break;
-                case DELETE:
-                    data = delete();
             }
 
-            systemChange.getChanges().add(new Delta(oldPath, newPath, changeType, data));
+            // The parsed file is kept as is and only converted to JSON when written
+            systemChange.getChanges().add(data == null ? new Delta(oldPath, newPath, changeType, delete()) : Delta.fromFile(oldPath, newPath, changeType, data));
         }
 
         // Output the system changes
@@ -168,23 +217,74 @@ public class DeltaExtractionService {
     }
 
     /**
-     * This method parses a newly added file into a JsonObject containing
-     * the data of the change (updated file). Returns a blank JsonObject if
-     * parsing fails (returns null).
+     * This method parses a newly added file into the data of the
+     * change (updated file). Returns null if parsing fails.
      *
      * @param newPath git path of new file
-     * @return JsonObject of data of the new file
+     * @param blobId blob id of the new file, used as parse cache key
+     * @return the parsed new file or null
      */
-    private JsonNode add(String newPath) {
-        if (FileUtils.isConfigurationFile(newPath)) {
-            ConfigFile configFile = SourceToObjectUtils.parseConfigurationFile(
-                    new File(FileUtils.gitPathToLocalPath(newPath, config.getRepoName())), config);
-            return (configFile == null || configFile.getData() == null) ? JsonNodeFactory.instance.objectNode() : objectMapper.valueToTree(configFile);
+    private ProjectFile add(String newPath, AbbreviatedObjectId blobId) {
+        File file = new File(FileUtils.gitPathToLocalPath(newPath, config.getRepoName()));
+        ProjectFile projectFile;
+        if (parseCache == null) {
+            projectFile = parseFile(file);
         } else {
-            JClass jClass = SourceToObjectUtils.parseClass(
-                    new File(FileUtils.gitPathToLocalPath(newPath, config.getRepoName())), config, "");
-            return (jClass == null) ? JsonNodeFactory.instance.objectNode() : objectMapper.valueToTree(jClass);
+            String contentId = blobId.isComplete() ? blobId.name() : ParseCache.fileId(file);
+            projectFile = parseCache.get(ParseCache.key(contentId, file.getPath(), ""), () -> parseFile(file));
+        }
+
+        if (projectFile instanceof ConfigFile && ((ConfigFile) projectFile).getData() == null) {
+            return null;
+        }
+        return projectFile;
+    }
+
+    /**
+     * This method parses a file of the new commit into a ConfigFile or JClass
+     *
+     * @param file the local file to parse
+     * @return the parsed file or null if parsing fails
+     */
+    private ProjectFile parseFile(File file) {
+        if (commitTree != null) {
+            return parseTreeFile(file);
+        }
+
+        if (FileUtils.isConfigurationFile(file.getPath())) {
+            return SourceToObjectUtils.parseConfigurationFile(file, config);
         }
+
+        // Skip parsing files that cannot declare a class with a known role
+        if (!StereotypeFilter.mayHaveClassRole(file)) {
+            return null;
+        }
+        return SourceToObjectUtils.parseClass(file, config, "", symbolSolverContext);
+    }
+
+    /**
+     * This method parses a file of commitNew read from the object database into a ConfigFile or JClass
+     *
+     * @param file the local path the file would have in the working tree
+     * @return the parsed file or null if parsing fails
+     */
+    private ProjectFile parseTreeFile(File file) {
+        byte[] content;
+        try {
+            content = commitTree.open(FileUtils.localPathToGitPath(file.getPath(), config.getRepoName()).substring(1));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read " + file.getPath() + " of commit " + commitNew, e);
+        }
+
+        if (FileUtils.isConfigurationFile(file.getPath())) {
+            return SourceToObjectUtils.parseConfigurationFile(file.getPath(), content, config);
+        }
+
+        // Skip parsing files that cannot declare a class with a known role
+        if (!StereotypeFilter.mayHaveClassRole(new String(content, StandardCharsets.UTF_8))) {
+            return null;
+        }
+        return SourceToObjectUtils.parseClass(file.getPath(), content, config, "", symbolSolverContext);
     }
 
     private SystemChange getSystemChange() {
@@ -201,7 +301,38 @@ public class DeltaExtractionService {
     }
 
     public static SystemChange create(String configPath, String oldCommit, String newCommit) throws IOException, InterruptedException, GitAPIException {
-        DeltaExtractionService extractionService = new DeltaExtractionService(configPath, "", oldCommit, newCommit);
+        return create(configPath, oldCommit, newCommit, null);
+    }
+
+    /**
+     * Create the system change between two commits, reusing the results of changed
+     * files that are found in the given parse cache
+     *
+     * @param configPath path to the config file
+     * @param oldCommit old commit for comparison
+     * @param newCommit new commit for comparison
+     * @param parseCache cache of parsed files, null to always parse files
+     * @return the system change between the commits
+     */
+    public static SystemChange create(String configPath, String oldCommit, String newCommit, ParseCache parseCache) throws IOException, InterruptedException, GitAPIException {
+        DeltaExtractionService extractionService = new DeltaExtractionService(configPath, "", oldCommit, newCommit, parseCache);
+        extractionService.generateDelta();
+        return extractionService.getSystemChange();
+    }
+
+    /**
+     * Create the system change between two commits reading the changed files of newCommit
+     * straight from the object database, without checking out either commit
+     *
+     * @param config the config of the repository
+     * @param gitService the git service of the repository
+     * @param oldCommit old commit for comparison
+     * @param newCommit new commit for comparison
+     * @param parseCache cache of parsed files, null to always parse files
+     * @return the system change between the commits
+     */
+    public static SystemChange createFromCommits(Config config, GitService gitService, String oldCommit, String newCommit, ParseCache parseCache) throws IOException, GitAPIException {
+        DeltaExtractionService extractionService = new DeltaExtractionService(config, gitService, "", oldCommit, newCommit, parseCache, false);
         extractionService.generateDelta();
         return extractionService.getSystemChange();
     }
@@ -6,19 +6,40 @@ import edu.university.ecs.lab.common.models.ir.ConfigFile;
 import edu.university.ecs.lab.common.models.ir.JClass;
 import edu.university.ecs.lab.common.models.ir.Microservice;
 import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.models.ir.NodeSet;
+import edu.university.ecs.lab.common.models.ir.ProjectFile;
+import edu.university.ecs.lab.common.services.CommitTree;
 import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.utils.EndpointReachability;
+import edu.university.ecs.lab.common.utils.EndpointSecurity;
 import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.InternTable;
 import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.common.utils.ParseCache;
+import edu.university.ecs.lab.common.utils.PathTrie;
 import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
+import edu.university.ecs.lab.common.utils.StereotypeFilter;
+import edu.university.ecs.lab.common.utils.SymbolSolverContext;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.w3c.dom.DOMException;
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
+import org.eclipse.jgit.lib.ObjectId;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,6 +49,16 @@ import java.util.regex.Pattern;
  * are allowed to exit the program with an error code if an error occurs.
  */
 public class IRExtractionService {
+    /**
+     * Pattern of the microservice name in settings.gradle
+     */
+    private static final Pattern ROOT_PROJECT_NAME = Pattern.compile("rootProject\\.name[ \\n*]=[ \\n*][\\\"\\'](.*)[\\\"\\']");
+
+    /**
+     * Factory of streaming parsers for pom.xml files, DTDs and external entities are not resolved
+     */
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
     /**
      * Service to handle cloning from git
      */
@@ -43,6 +74,54 @@ public class IRExtractionService {
      */
     private final String commitID;
 
+    /**
+     * Number of worker threads used for parsing files, 1 parses sequentially
+     */
+    private final int threads;
+
+    /**
+     * Files of the extracted commit when reading from the object database, null when
+     * extracting from the checked out working tree
+     */
+    private final CommitTree commitTree;
+
+    /**
+     * True if the working tree was reset to the extracted commit, so the blob ids of the
+     * commit match the files read from disk
+     */
+    private final boolean treeAtCommit;
+
+    /**
+     * Symbol solver context shared by all files of the extracted commit
+     */
+    private SymbolSolverContext symbolSolverContext;
+
+    /**
+     * Cache of parsed files shared between extractions, null if files are always parsed
+     */
+    private ParseCache parseCache;
+
+    /**
+     * Blob ids of the files of the extracted commit, used as cache keys, empty if the
+     * files are read from a working tree that was not reset to the commit
+     */
+    private Map<String, ObjectId> blobIds;
+
+    /**
+     * Strings and locations shared by all files parsed by this service
+     */
+    private final InternTable internTable = new InternTable();
+
+    /**
+     * Number of Java files considered for parsing
+     */
+    private final AtomicInteger javaFileCount = new AtomicInteger();
+
+    /**
+     * Number of Java files skipped by the stereotype pre-filter without being parsed
+     */
+    private final AtomicInteger skippedFileCount = new AtomicInteger();
+
     /**
      * This constructor initializes a new IRExtractionService and instantiates a
      * GitService object for repository manipulation
@@ -52,15 +131,52 @@ public class IRExtractionService {
      * @see GitService
      */
     public IRExtractionService(String configPath, Optional<String> commitID) throws IOException, InterruptedException, GitAPIException {
+        this(configPath, commitID, 1);
+    }
+
+    /**
+     * This constructor initializes a new IRExtractionService that parses files
+     * with the given number of worker threads
+     *
+     * @param configPath path to configuration file
+     * @param commitID optional commitID for extraction, if empty resolves to HEAD
+     * @param threads number of worker threads used for parsing, 1 parses sequentially
+     * @see GitService
+     */
+    public IRExtractionService(String configPath, Optional<String> commitID, int threads) throws IOException, InterruptedException, GitAPIException {
+        this(configPath, commitID, threads, true);
+    }
+
+    /**
+     * This constructor initializes a new IRExtractionService that either checks out the
+     * commit or reads its files straight from the object database of the clone. Reading
+     * from the object database leaves the working tree untouched, so several commits of
+     * the same clone may be extracted at the same time.
+     *
+     * @param configPath path to configuration file
+     * @param commitID optional commitID for extraction, if empty resolves to HEAD
+     * @param threads number of worker threads used for parsing, 1 parses sequentially
+     * @param checkout true to reset the working tree to the commit, false to read the commit tree
+     * @see GitService
+     */
+    public IRExtractionService(String configPath, Optional<String> commitID, int threads, boolean checkout) throws IOException, InterruptedException, GitAPIException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1");
+        }
+        this.threads = threads;
         gitService = new GitService(configPath);
 
         if(commitID.isPresent()) {
             this.commitID = commitID.get();
-            gitService.resetLocal(this.commitID);
+            if (checkout) {
+                gitService.resetLocal(this.commitID);
+            }
         } else {
             this.commitID = gitService.getHeadCommit();
         }
 
+        treeAtCommit = checkout && commitID.isPresent();
+        commitTree = checkout ? null : gitService.getCommitTree(this.commitID);
         config = ConfigUtil.readConfig(configPath);
     }
 
@@ -84,140 +200,288 @@ public class IRExtractionService {
      * @return a map of services and their endpoints
      */
     public Set<Microservice> cloneAndScanServices() throws IOException, InterruptedException {
-        Set<Microservice> microservices = new HashSet<>();
+        Set<Microservice> microservices = new NodeSet<>();
 
-        // Clone the repository present in the configuration file
-        gitService.cloneRemote();
+        // The repository present in the configuration file was cloned or fetched by the GitService
 
         // Start scanning from the root directory
-        Map<String, String> rootDirectories = findRootDirectories(FileUtils.getRepositoryPath(config.getRepoName()));
-        List<String> rootDirectoriesCopy = new ArrayList<>(rootDirectories.keySet());
+        Map<String, String> rootDirectories = commitTree == null
+                ? findRootDirectories(FileUtils.getRepositoryPath(config.getRepoName()))
+                : findTreeRootDirectories();
 
         // Filter more/less specific
-        for(String s1 : rootDirectoriesCopy) {
-            for(String s2 : rootDirectoriesCopy) {
-                if(s1.equals(s2)) {
-                    continue;
-                } else if(s1.matches(s2.replace(FileUtils.SYS_SEPARATOR, FileUtils.SPECIAL_SEPARATOR) + FileUtils.SPECIAL_SEPARATOR + ".*")) {
-                    rootDirectories.remove(s2);
-                } else if(s2.matches(s1.replace(FileUtils.SYS_SEPARATOR, FileUtils.SPECIAL_SEPARATOR) + FileUtils.SPECIAL_SEPARATOR + ".*")) {
-                    rootDirectories.remove(s1);
-                }
-            }
-        }
+        rootDirectories = filterNestedRootDirectories(rootDirectories);
 
-        // Scan each root directory for microservices
+        // Gather the files of each root directory, then parse them all at once
+        Map<Microservice, List<File>> microserviceFiles = new LinkedHashMap<>();
         for (String rootDirectory : rootDirectories.keySet()) {
-            Microservice microservice = recursivelyScanFiles(rootDirectory, rootDirectories.get(rootDirectory));
-            if (microservice != null) {
-                microservices.add(microservice);
+            Microservice microservice = createMicroservice(rootDirectory, rootDirectories.get(rootDirectory));
+            List<File> files = new ArrayList<>();
+            if (commitTree == null) {
+                collectFiles(new File(rootDirectory), files);
+            } else {
+                collectTreeFiles(toGitPath(rootDirectory), files);
             }
+            microserviceFiles.put(microservice, files);
         }
 
+        scanFiles(microserviceFiles);
+        microservices.addAll(microserviceFiles.keySet());
+
         return microservices;
     }
 
     /**
-     * Recursively search for directories containing a microservice (pom.xml file)
+     * Search the commit tree for directories containing a microservice
+     *
+     * @return a mapping of local directory paths containing pom.xml to microservice names
+     */
+    private Map<String, String> findTreeRootDirectories() {
+        Map<String, String> rootDirectories = new LinkedHashMap<>();
+        findTreeRootDirectories("", rootDirectories);
+        return rootDirectories;
+    }
+
+    /**
+     * Search for directories containing a microservice (pom.xml or build.gradle file) in a
+     * single walk of the file tree. Directories named .git are not entered.
      *
      * @param directory the directory to start the search from
      * @return a mapping of directory paths containing pom.xml to microservice names
      */
-    private Map<String, String> findRootDirectories(String directory) {
-        Map<String, String> rootDirectories = new HashMap<String, String>();
-        File root = new File(directory);
-        String microserviceName = "unknown-service";
-        if (root.exists() && root.isDirectory()) {
-            // Check if the current directory contains a Dockerfile
-            File[] files = root.listFiles();
-            boolean containsPom = false;
-            boolean containsGradle = false;
-            if (files != null) {
-                for (File file : files) {
-                    if (file.isFile() && file.getName().equals("pom.xml")) {
-                        try {
-
-                            // Create a DocumentBuilder
-                            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-
-                            // Parse the XML file
-                            Document document = builder.parse(file);
-
-                            // Normalize the XML Structure
-                            document.getDocumentElement().normalize();
-
-                            // Get all elements with the specific tag name
-                            NodeList nodeList = document.getElementsByTagName("modules");
-                            // Check if the tag is present
-                            if (nodeList.getLength() == 0) {
-                                containsPom = true;
-                            }
-                            else {
-                                continue;
-                            }
-
-                            // Obtain the name of the microservice represented by this POM file
-                            // Identify all instances of artifactId
-                            NodeList artifactIds = document.getDocumentElement().getElementsByTagName("artifactId");
-
-                            // For each potential match of artifactId, determine if the parent is the project node
-                            try {
-                                for (int i = 0; i < artifactIds.getLength(); i++) {
-                                    if (artifactIds.item(i).getParentNode().isEqualNode(document.getDocumentElement())) {
-                                        // If the artifactId is nested right under the project node, this contains the
-                                        // microserviceName, so extract the value and break
-                                        microserviceName = artifactIds.item(i).getFirstChild().getNodeValue();
-                                        break;
-                                    }
-                                }
-                            }
-                            // DOMExceptions are caught just in case the POM file is missing the microservice name
-                            // An exception here shouldn't stop the IR extraction
-                            catch (DOMException ignored) {}
-
-                        } catch (Exception e) {
-                            throw new RuntimeException("Error parsing pom.xml");
-                        }
-                    } else if(file.isFile() && file.getName().equals("build.gradle")) {
-                        containsGradle = true;
-                    } else if (file.isDirectory()) {
-                        rootDirectories.putAll(findRootDirectories(file.getPath()));
-                    } else if (file.isFile() && file.getName().equals("settings.gradle")) {
-                        // Identify pattern in settings.gradle to find for the microservice name
-                        Pattern nameFinder = Pattern.compile("rootProject\\.name[ \\n*]=[ \\n*][\\\"\\'](.*)[\\\"\\']");
-
-                        // Load the file
-                        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-
-                            // For each line, identify any matches to find the name
-                            String line = br.readLine();
-                            while (line != null) {
-                                Matcher m = nameFinder.matcher(line);
-                                if(m.find())
-                                {
-                                    microserviceName = m.group(1);
-                                    break;
-                                }
-                                line = br.readLine();
-                            }
+    private Map<String, String> findRootDirectories(String directory) throws IOException {
+        Map<String, String> rootDirectories = new LinkedHashMap<>();
+        Path root = Path.of(directory);
+        if (!Files.isDirectory(root)) {
+            return rootDirectories;
+        }
+
+        // The build files of every directory on the current path of the walk
+        Deque<DirectoryBuildFiles> directories = new ArrayDeque<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(root) && dir.getFileName().toString().equals(".git")) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                directories.push(new DirectoryBuildFiles(dir.toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String name = file.getFileName().toString();
+                if (isBuildFile(name) && (attrs.isRegularFile() || Files.isRegularFile(file))) {
+                    directories.peek().visit(name, () -> Files.newInputStream(file));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                directories.pop().addTo(rootDirectories);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return rootDirectories;
+    }
+
+    /**
+     * Recursively search the commit tree for directories containing a microservice, the
+     * counterpart of {@link #findRootDirectories(String)} when reading from the object database
+     *
+     * @param directory the git path of the directory to start the search from
+     * @param rootDirectories the mapping of local directory paths containing pom.xml to microservice names to add to
+     */
+    private void findTreeRootDirectories(String directory, Map<String, String> rootDirectories) {
+        DirectoryBuildFiles buildFiles = new DirectoryBuildFiles(toLocalPath(directory));
+
+        for (String path : commitTree.list(directory)) {
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            if (commitTree.isDirectory(path)) {
+                findTreeRootDirectories(path, rootDirectories);
+            } else if (isBuildFile(name)) {
+                buildFiles.visit(name, () -> new ByteArrayInputStream(commitTree.open(path)));
+            }
+        }
+
+        buildFiles.addTo(rootDirectories);
+    }
+
+    /**
+     * Remove the root directories that contain another root directory, the most specific
+     * root directory is the microservice
+     *
+     * @param rootDirectories mapping of root directory paths to microservice names
+     * @return the mapping without the less specific root directories
+     */
+    private static Map<String, String> filterNestedRootDirectories(Map<String, String> rootDirectories) {
+        PathTrie<String> pathTrie = new PathTrie<>(FileUtils.SYS_SEPARATOR);
+        rootDirectories.forEach(pathTrie::put);
+
+        Map<String, String> filteredRootDirectories = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : rootDirectories.entrySet()) {
+            if (!pathTrie.hasDescendants(entry.getKey())) {
+                filteredRootDirectories.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return filteredRootDirectories;
+    }
+
+    private static boolean isBuildFile(String name) {
+        return name.equals("pom.xml") || name.equals("build.gradle") || name.equals("settings.gradle");
+    }
+
+    /**
+     * Content of a file that is only opened if needed
+     */
+    @FunctionalInterface
+    private interface FileContent {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * The build files found directly in a directory while searching for root directories
+     */
+    private static final class DirectoryBuildFiles {
+        private final String path;
+        private String microserviceName = "unknown-service";
+        private boolean containsPom;
+        private boolean containsGradle;
+
+        private DirectoryBuildFiles(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Record a build file of the directory
+         *
+         * @param name the name of the file
+         * @param content the content of the file
+         */
+        private void visit(String name, FileContent content) {
+            if (name.equals("pom.xml")) {
+                try (InputStream inputStream = content.open()) {
+                    PomSummary pom = readPom(inputStream);
+
+                    // Aggregator POMs with a modules tag are not microservices
+                    if (!pom.aggregator) {
+                        containsPom = true;
+                        if (pom.artifactId != null) {
+                            microserviceName = pom.artifactId;
                         }
-                        // Being unable to find the microservice name should not stop the extraction
-                        catch (Exception ignored) {}
                     }
+                } catch (Exception e) {
+                    throw new RuntimeException("Error parsing pom.xml");
                 }
+            } else if (name.equals("build.gradle")) {
+                containsGradle = true;
+            } else if (name.equals("settings.gradle")) {
+                // Being unable to find the microservice name should not stop the extraction
+                try (InputStream inputStream = content.open()) {
+                    microserviceName = getRootProjectName(inputStream, microserviceName);
+                } catch (Exception ignored) {}
             }
-            if (containsPom) {
-                rootDirectories.put(root.getPath(), microserviceName);
-                return rootDirectories;
-            } else if (containsGradle) {
-                rootDirectories.put(root.getPath(), microserviceName);
-                return rootDirectories;
+        }
+
+        /**
+         * Add the directory to the root directories if it contains a microservice
+         */
+        private void addTo(Map<String, String> rootDirectories) {
+            if (containsPom || containsGradle) {
+                rootDirectories.put(path, microserviceName);
             }
         }
-        return rootDirectories;
+    }
+
+    /**
+     * The parts of a pom.xml file needed to find root directories
+     */
+    private static final class PomSummary {
+        /**
+         * True if the POM lists modules anywhere
+         */
+        private boolean aggregator;
+
+        /**
+         * The artifactId directly below the project element, null if missing
+         */
+        private String artifactId;
+    }
+
+    /**
+     * Read a pom.xml file with a streaming parser, stopping as soon as a modules tag is found
+     *
+     * @param inputStream the content of the pom.xml file
+     * @return the summary of the POM
+     */
+    private static PomSummary readPom(InputStream inputStream) throws XMLStreamException {
+        PomSummary pom = new PomSummary();
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+        try {
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (name.equals("modules")) {
+                        pom.aggregator = true;
+                        return pom;
+                    } else if (depth == 2 && pom.artifactId == null && name.equals("artifactId")) {
+                        pom.artifactId = reader.getElementText();
+                        depth--;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+            return pom;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Obtain the name of the microservice from the rootProject.name of a settings.gradle file
+     *
+     * @param inputStream the content of the settings.gradle file
+     * @param defaultName the name returned if no rootProject.name is found
+     * @return the name of the root project
+     */
+    private static String getRootProjectName(InputStream inputStream, String defaultName) throws IOException {
+        // Identify pattern in settings.gradle to find for the microservice name
+        Matcher m = ROOT_PROJECT_NAME.matcher("");
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+            // For each line, identify any matches to find the name
+            String line = br.readLine();
+            while (line != null) {
+                m.reset(line);
+                if(m.find())
+                {
+                    return m.group(1);
+                }
+                line = br.readLine();
+            }
+        }
+        return defaultName;
     }
 
 
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
     /**
      * Write each service and endpoints to intermediate representation
      *
@@ -225,9 +489,22 @@ public class IRExtractionService {
      * @param fileName the name of the output file for IR
      */
     private void writeToFile(Set<Microservice> microservices, String fileName) throws IOException {
-        MicroserviceSystem microserviceSystem = new MicroserviceSystem(config.getSystemName(), commitID, microservices, new HashSet<>());
+        JsonReadWriteUtils.writeToJSON(fileName, createSystem(microservices));
+    }
 
-        JsonReadWriteUtils.writeToJSON(fileName, microserviceSystem);
+    /**
+     * Assemble the scanned microservices into a system and resolve the security of its
+     * endpoints, whose role bitsets refer to the role table of the whole system. The system
+     * keeps the intern table of the parsed files
+     *
+     * @param microservices the scanned microservices
+     * @return the microservice system
+     */
+    private MicroserviceSystem createSystem(Set<Microservice> microservices) {
+        MicroserviceSystem microserviceSystem = new MicroserviceSystem(config.getSystemName(), commitID, microservices, new HashSet<>());
+        EndpointSecurity.analyze(microserviceSystem);
+        microserviceSystem.intern(internTable);
+        return microserviceSystem;
     }
 
     /**
@@ -239,9 +516,24 @@ public class IRExtractionService {
      * @return model of a single service containing the extracted endpoints and dependencies
      */
     public Microservice recursivelyScanFiles(String rootMicroservicePath, String microserviceName) {
+        Microservice model = createMicroservice(rootMicroservicePath, microserviceName);
+
+        scanDirectory(new File(rootMicroservicePath), model);
+
+        return model;
+    }
+
+    /**
+     * Create an empty microservice model for the given root directory
+     *
+     * @param rootMicroservicePath The path to the microservice root directory
+     * @param microserviceName The name of the microservice; using null or "unknown-service" will lead to extracting it from the path
+     * @return model of a single service without any files
+     */
+    private Microservice createMicroservice(String rootMicroservicePath, String microserviceName) {
         // Validate path exists and is a directory
         File localDir = new File(rootMicroservicePath);
-        if (!localDir.exists() || !localDir.isDirectory()) {
+        if (commitTree == null ? !localDir.isDirectory() : !commitTree.isDirectory(toGitPath(rootMicroservicePath))) {
             throw new IllegalArgumentException("The provided repository path is invalid!");
         }
 
@@ -249,11 +541,7 @@ public class IRExtractionService {
         if(microserviceName == null || microserviceName.equals("unknown-service"))
             microserviceName = FileUtils.fallbackGetMicroserviceNameFromPath(rootMicroservicePath);
 
-        Microservice model = new Microservice(microserviceName, FileUtils.localPathToGitPath(rootMicroservicePath, config.getRepoName()));
-
-        scanDirectory(localDir, model);
-
-        return model;
+        return new Microservice(microserviceName, FileUtils.localPathToGitPath(rootMicroservicePath, config.getRepoName()));
     }
 
     /**
@@ -264,47 +552,366 @@ public class IRExtractionService {
     public void scanDirectory(
             File directory,
             Microservice microservice) {
-        File[] files = directory.listFiles();
+        List<File> files = new ArrayList<>();
+        if (commitTree == null) {
+            collectFiles(directory, files);
+        } else {
+            collectTreeFiles(toGitPath(directory.getPath()), files);
+        }
+
+        Map<Microservice, List<File>> microserviceFiles = new LinkedHashMap<>();
+        microserviceFiles.put(microservice, files);
+        scanFiles(microserviceFiles);
+    }
+
+    /**
+     * Recursively collect the valid files of the given directory in directory listing order
+     *
+     * @param directory the directory to search
+     * @param files the list that valid files are added to
+     */
+    private void collectFiles(File directory, List<File> files) {
+        File[] children = directory.listFiles();
 
-        if (files != null) {
-            for (File file : files) {
+        if (children != null) {
+            for (File file : children) {
                 if (file.isDirectory()) {
-                    scanDirectory(file, microservice);
+                    collectFiles(file, files);
                 } else if (FileUtils.isValidFile(file.getPath())) {
+                    files.add(file);
+                }
+            }
+        }
+    }
 
-                    if(FileUtils.isConfigurationFile(file.getPath())) {
-                        ConfigFile configFile = SourceToObjectUtils.parseConfigurationFile(file, config);
-                        if(configFile != null) {
-                            microservice.getFiles().add(configFile);
-                        }
+    /**
+     * Recursively collect the valid files of the given directory of the commit tree in tree
+     * order, as the local paths they would have in the working tree
+     *
+     * @param directory the git path of the directory to search
+     * @param files the list that valid files are added to
+     */
+    private void collectTreeFiles(String directory, List<File> files) {
+        for (String path : commitTree.list(directory)) {
+            if (commitTree.isDirectory(path)) {
+                collectTreeFiles(path, files);
+            } else if (FileUtils.isValidFile(path)) {
+                files.add(new File(toLocalPath(path)));
+            }
+        }
+    }
 
-                    } else {
-                        JClass jClass = SourceToObjectUtils.parseClass(file, config, microservice.getName());
-                        if (jClass != null) {
-                            microservice.addJClass(jClass);
-                        }
-                    }
+    /**
+     * Convert a git path of the commit tree to the local path it would have in the working tree
+     *
+     * @param path the git path without a leading separator, "" for the repository root
+     * @return the local path
+     */
+    private String toLocalPath(String path) {
+        return path.isEmpty() ? FileUtils.getRepositoryPath(config.getRepoName()) : FileUtils.gitPathToLocalPath(FileUtils.GIT_SEPARATOR + path, config.getRepoName());
+    }
+
+    /**
+     * Convert a local path to a git path of the commit tree
+     *
+     * @param localPath the local path
+     * @return the git path without a leading separator, "" for the repository root
+     */
+    private String toGitPath(String localPath) {
+        String path = FileUtils.localPathToGitPath(localPath, config.getRepoName());
+        return path.startsWith(FileUtils.GIT_SEPARATOR) ? path.substring(1) : path;
+    }
+
+    /**
+     * Parse the given files into their microservices, then determine the repositories
+     * reached by the endpoints of each microservice
+     *
+     * @param microserviceFiles mapping of microservices to the files belonging to them
+     */
+    private void scanFiles(Map<Microservice, List<File>> microserviceFiles) {
+        parseFiles(microserviceFiles);
+        microserviceFiles.keySet().forEach(EndpointReachability::analyze);
+    }
+
+    /**
+     * Parse the given files and add the results to their microservice. Files are
+     * parsed by a pool of worker threads when more than one thread is configured,
+     * results are always added in the original file order so the extracted models
+     * are identical to a sequential run.
+     *
+     * @param microserviceFiles mapping of microservices to the files belonging to them
+     */
+    private void parseFiles(Map<Microservice, List<File>> microserviceFiles) {
+        // One context for the whole commit, the working tree does not change during extraction
+        if (symbolSolverContext == null) {
+            symbolSolverContext = commitTree == null ? SymbolSolverContext.fromConfig(config) : SymbolSolverContext.fromCommitTree(commitTree);
+        }
+        if (parseCache != null && blobIds == null && commitTree != null) {
+            blobIds = commitTree.getBlobIds();
+        } else if (parseCache != null && blobIds == null && treeAtCommit) {
+            try {
+                blobIds = gitService.getBlobIds(commitID);
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to read the files of commit " + commitID, e);
+            }
+        } else if (parseCache != null && blobIds == null) {
+            // The working tree may hold uncommitted changes, so files are keyed by their own state
+            blobIds = Map.of();
+        }
 
+        if (threads == 1) {
+            for (Map.Entry<Microservice, List<File>> entry : microserviceFiles.entrySet()) {
+                for (File file : entry.getValue()) {
+                    addProjectFile(entry.getKey(), parseFile(file, entry.getKey().getName()));
+                }
+            }
+            return;
+        }
 
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            Map<Microservice, List<Future<ProjectFile>>> futures = new LinkedHashMap<>();
+            for (Map.Entry<Microservice, List<File>> entry : microserviceFiles.entrySet()) {
+                String microserviceName = entry.getKey().getName();
+                List<Future<ProjectFile>> microserviceFutures = new ArrayList<>();
+                for (File file : entry.getValue()) {
+                    microserviceFutures.add(executorService.submit(() -> parseFile(file, microserviceName)));
                 }
+                futures.put(entry.getKey(), microserviceFutures);
+            }
+
+            for (Map.Entry<Microservice, List<Future<ProjectFile>>> entry : futures.entrySet()) {
+                for (Future<ProjectFile> future : entry.getValue()) {
+                    addProjectFile(entry.getKey(), future.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while parsing files", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error parsing file", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse a single file into a ConfigFile or JClass, reading it from the parse cache
+     * if the file is unchanged since it was last parsed
+     *
+     * @param file the file to parse
+     * @param microserviceName the name of the microservice the file belongs to
+     * @return the parsed file with its strings interned or null if it is not part of the IR
+     */
+    private ProjectFile parseFile(File file, String microserviceName) {
+        // Java files are filtered before the cache is consulted, so the counts do not depend on cache hits
+        if (!FileUtils.isConfigurationFile(file.getPath())) {
+            javaFileCount.incrementAndGet();
+            if (!mayHaveClassRole(file)) {
+                skippedFileCount.incrementAndGet();
+                return null;
             }
         }
+
+        ProjectFile projectFile;
+        if (parseCache == null) {
+            projectFile = parseUncachedFile(file, microserviceName);
+        } else {
+            // Files without a blob id of the commit fall back to their size and modification time
+            ObjectId blobId = blobIds.get(toGitPath(file.getPath()));
+            String contentId = blobId == null ? ParseCache.fileId(file) : blobId.getName();
+
+            projectFile = parseCache.get(ParseCache.key(contentId, file.getPath(), microserviceName), () -> parseUncachedFile(file, microserviceName));
+        }
+
+        if (projectFile != null) {
+            projectFile.intern(internTable);
+        }
+        return projectFile;
+    }
+
+    /**
+     * Check if a Java file of the working tree or commit tree may declare a class with a known role
+     *
+     * @param file the Java file
+     * @return false only if the file cannot produce a JClass
+     * @see StereotypeFilter
+     */
+    private boolean mayHaveClassRole(File file) {
+        if (commitTree == null) {
+            return StereotypeFilter.mayHaveClassRole(file);
+        }
+        return StereotypeFilter.mayHaveClassRole(new String(readTreeFile(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a single file into a ConfigFile or JClass, Java files must have passed the
+     * {@link StereotypeFilter}
+     *
+     * @param file the file to parse
+     * @param microserviceName the name of the microservice the file belongs to
+     * @return the parsed file or null if it is not part of the IR
+     */
+    private ProjectFile parseUncachedFile(File file, String microserviceName) {
+        if (commitTree != null) {
+            return parseTreeFile(file, microserviceName);
+        }
+
+        if(FileUtils.isConfigurationFile(file.getPath())) {
+            return SourceToObjectUtils.parseConfigurationFile(file, config);
+        }
+
+        return SourceToObjectUtils.parseClass(file, config, microserviceName, symbolSolverContext);
+    }
+
+    /**
+     * Parse a single file of the commit tree into a ConfigFile or JClass
+     *
+     * @param file the local path the file would have in the working tree
+     * @param microserviceName the name of the microservice the file belongs to
+     * @return the parsed file or null if it is not part of the IR
+     */
+    private ProjectFile parseTreeFile(File file, String microserviceName) {
+        byte[] content = readTreeFile(file);
+
+        if(FileUtils.isConfigurationFile(file.getPath())) {
+            return SourceToObjectUtils.parseConfigurationFile(file.getPath(), content, config);
+        }
+
+        return SourceToObjectUtils.parseClass(file.getPath(), content, config, microserviceName, symbolSolverContext);
+    }
+
+    /**
+     * Read the content of a file from the commit tree
+     *
+     * @param file the local path the file would have in the working tree
+     * @return the content of the file at the commit
+     */
+    private byte[] readTreeFile(File file) {
+        try {
+            return commitTree.open(toGitPath(file.getPath()));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read " + file.getPath() + " of commit " + commitID, e);
+        }
+    }
+
+    /**
+     * Set the cache consulted before parsing a file
+     *
+     * @param parseCache the parse cache, null to always parse files
+     */
+    public void setParseCache(ParseCache parseCache) {
+        this.parseCache = parseCache;
+    }
+
+    /**
+     * @return the number of Java files considered for parsing so far
+     */
+    public int getJavaFileCount() {
+        return javaFileCount.get();
+    }
+
+    /**
+     * @return the number of Java files skipped by the stereotype pre-filter so far
+     */
+    public int getSkippedFileCount() {
+        return skippedFileCount.get();
+    }
+
+    /**
+     * Add a parsed file to the microservice it belongs to
+     *
+     * @param microservice the microservice to add to
+     * @param projectFile the parsed file, ignored if null
+     */
+    private void addProjectFile(Microservice microservice, ProjectFile projectFile) {
+        if (projectFile instanceof ConfigFile) {
+            microservice.addFile((ConfigFile) projectFile);
+        } else if (projectFile instanceof JClass) {
+            microservice.addJClass((JClass) projectFile);
+        }
     }
 
     public static MicroserviceSystem create(String configPath) throws GitAPIException, IOException, InterruptedException {
-        IRExtractionService extractionService = new IRExtractionService(configPath, Optional.empty());
+        return create(configPath, 1);
+    }
+
+    /**
+     * Create an IR of the HEAD commit parsing files with the given number of worker threads
+     *
+     * @param configPath path to configuration file
+     * @param threads number of worker threads used for parsing, 1 parses sequentially
+     * @return the extracted microservice system
+     */
+    public static MicroserviceSystem create(String configPath, int threads) throws GitAPIException, IOException, InterruptedException {
+        return create(configPath, threads, null);
+    }
+
+    /**
+     * Create an IR of the HEAD commit parsing files with the given number of worker threads,
+     * reusing the results of files that are found in the given parse cache
+     *
+     * @param configPath path to configuration file
+     * @param threads number of worker threads used for parsing, 1 parses sequentially
+     * @param parseCache the parse cache, null to always parse files
+     * @return the extracted microservice system
+     */
+    public static MicroserviceSystem create(String configPath, int threads, ParseCache parseCache) throws GitAPIException, IOException, InterruptedException {
+        IRExtractionService extractionService = new IRExtractionService(configPath, Optional.empty(), threads);
+        extractionService.setParseCache(parseCache);
         Set<Microservice> microservices = extractionService.cloneAndScanServices();
-        MicroserviceSystem microserviceSystem = new MicroserviceSystem(extractionService.config.getSystemName(), extractionService.commitID, microservices, new HashSet<>());
-        return microserviceSystem;
+        return extractionService.createSystem(microservices);
+    }
+
+    /**
+     * Create an IR of the given commit reading its files straight from the object database
+     * of the clone, without checking out the commit or touching the working tree
+     *
+     * @param configPath path to configuration file
+     * @param commitID optional commitID for extraction, if empty resolves to HEAD
+     * @param threads number of worker threads used for parsing, 1 parses sequentially
+     * @return the extracted microservice system
+     */
+    public static MicroserviceSystem createFromCommit(String configPath, Optional<String> commitID, int threads) throws GitAPIException, IOException, InterruptedException {
+        return createFromCommit(configPath, commitID, threads, null);
+    }
+
+    /**
+     * Create an IR of the given commit reading its files straight from the object database
+     * of the clone, reusing the results of files that are found in the given parse cache
+     *
+     * @param configPath path to configuration file
+     * @param commitID optional commitID for extraction, if empty resolves to HEAD
+     * @param threads number of worker threads used for parsing, 1 parses sequentially
+     * @param parseCache the parse cache, null to always parse files
+     * @return the extracted microservice system
+     */
+    public static MicroserviceSystem createFromCommit(String configPath, Optional<String> commitID, int threads, ParseCache parseCache) throws GitAPIException, IOException, InterruptedException {
+        IRExtractionService extractionService = new IRExtractionService(configPath, commitID, threads, false);
+        extractionService.setParseCache(parseCache);
+        Set<Microservice> microservices = extractionService.cloneAndScanServices();
+        return extractionService.createSystem(microservices);
     }
 
     public static void createAndWrite(String configPath, String outputPath) throws GitAPIException, IOException, InterruptedException {
-        MicroserviceSystem microserviceSystem = create(configPath);
+        createAndWrite(configPath, outputPath, 1);
+    }
+
+    public static void createAndWrite(String configPath, String outputPath, int threads) throws GitAPIException, IOException, InterruptedException {
+        MicroserviceSystem microserviceSystem = create(configPath, threads);
         JsonReadWriteUtils.writeToJSON(outputPath, microserviceSystem);
     }
 
     public static MicroserviceSystem read(String fPath) throws IOException {
-        MicroserviceSystem microserviceSystem = JsonReadWriteUtils.readFromJSON(fPath, MicroserviceSystem.class);
+        // Intern each microservice as it is read, so only its own duplicate strings are live at once
+        InternTable internTable = new InternTable();
+        Set<Microservice> microservices = new NodeSet<>();
+        MicroserviceSystem microserviceSystem = JsonReadWriteUtils.readMicroservices(fPath, microservice -> {
+            microservice.intern(internTable);
+            microservices.add(microservice);
+        });
+        microserviceSystem.intern(internTable);
+        microserviceSystem.setMicroservices(microservices);
         return microserviceSystem;
     }
 
@@ -0,0 +1,7 @@
+/**
+ * This package contains the classes responsible for mining the history of a repository into a series of intermediate representations (IR).
+ *
+ * <p>This package involves using the {@link edu.university.ecs.lab.intermediate.history.services.HistoryMiningService}
+ * to extract the IR of a start commit once and then advance it commit by commit in memory.
+ */
+package edu.university.ecs.lab.intermediate.history;
@@ -0,0 +1,145 @@
+package edu.university.ecs.lab.intermediate.history.services;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.ParseCache;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.services.DeltaExtractionService;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import edu.university.ecs.lab.intermediate.merge.services.MergeService;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Service for mining the history of a repository into a series of intermediate representations.
+ * The IR of the start commit is extracted once and then advanced in memory by the delta of each
+ * following commit, instead of writing and re-reading every IR and delta as JSON. All commits are
+ * read from the object database, the working tree of the clone is never reset.
+ */
+public class HistoryMiningService {
+    /**
+     * Path to the configuration file
+     */
+    private final String configPath;
+
+    /**
+     * Configuration object
+     */
+    private final Config config;
+
+    /**
+     * Service to read commits from git
+     */
+    private final GitService gitService;
+
+    /**
+     * Number of worker threads used for extracting the IR of the start commit
+     */
+    private final int threads;
+
+    /**
+     * Cache of parsed files shared between commits, null if files are always parsed
+     */
+    private final ParseCache parseCache;
+
+    /**
+     * Number of commits whose delta was applied
+     */
+    private int minedCommitCount;
+
+    /**
+     * Number of commits skipped as they touch no files of the IR
+     */
+    private int skippedCommitCount;
+
+    /**
+     * Create a history mining service for the repository of the given configuration
+     *
+     * @param configPath path to configuration file
+     * @param threads number of worker threads used for extracting the IR of the start commit
+     * @param parseCache the parse cache, null to always parse files
+     */
+    public HistoryMiningService(String configPath, int threads, ParseCache parseCache) throws IOException, InterruptedException {
+        this.configPath = configPath;
+        this.config = ConfigUtil.readConfig(configPath);
+        this.gitService = new GitService(configPath);
+        this.threads = threads;
+        this.parseCache = parseCache;
+    }
+
+    /**
+     * Mine the commits following the start commit up to the end commit. Only first parents
+     * are followed. Commits rejected by the filter are not handed to the sink, their changes
+     * are included in the delta of the next accepted commit. Commits that touch no valid
+     * files (see {@link FileUtils#VALID_FILES}) are skipped entirely.
+     *
+     * @param startCommit the commit whose IR is extracted first
+     * @param endCommit optional last commit to mine, if empty resolves to HEAD
+     * @param filter the commits to mine
+     * @param sink receives the IR of the start commit and of every mined commit
+     * @return the IR of the last mined commit
+     */
+    public MicroserviceSystem mine(String startCommit, Optional<String> endCommit, Predicate<RevCommit> filter, HistorySink sink) throws GitAPIException, IOException, InterruptedException {
+        MicroserviceSystem microserviceSystem = IRExtractionService.createFromCommit(configPath, Optional.of(startCommit), threads, parseCache);
+        sink.accept(microserviceSystem, null);
+
+        String previousCommit = startCommit;
+        for (RevCommit commit : gitService.getCommits(startCommit, endCommit.orElse("HEAD"))) {
+            if (!filter.test(commit)) {
+                continue;
+            }
+
+            // Skip commits without changes to the files the IR is built from
+            if (gitService.getChangedPaths(previousCommit, commit.getName()).stream().noneMatch(FileUtils::isValidFile)) {
+                skippedCommitCount++;
+                continue;
+            }
+
+            SystemChange systemChange = DeltaExtractionService.createFromCommits(config, gitService, previousCommit, commit.getName(), parseCache);
+            MergeService.merge(config, microserviceSystem, systemChange);
+            sink.accept(microserviceSystem, systemChange);
+
+            previousCommit = commit.getName();
+            minedCommitCount++;
+        }
+
+        return microserviceSystem;
+    }
+
+    /**
+     * @return the number of commits whose delta was applied so far
+     */
+    public int getMinedCommitCount() {
+        return minedCommitCount;
+    }
+
+    /**
+     * @return the number of commits skipped as they touch no files of the IR so far
+     */
+    public int getSkippedCommitCount() {
+        return skippedCommitCount;
+    }
+
+    /**
+     * Mine every commit following the start commit up to HEAD
+     *
+     * @param configPath path to configuration file
+     * @param startCommit the commit whose IR is extracted first
+     * @param sink receives the IR of the start commit and of every mined commit
+     * @return the IR of the last mined commit
+     */
+    public static MicroserviceSystem mine(String configPath, String startCommit, HistorySink sink) throws GitAPIException, IOException, InterruptedException {
+        return new HistoryMiningService(configPath, 1, null).mine(startCommit, Optional.empty(), commit -> true, sink);
+    }
+
+    public static void mineAndWrite(String configPath, String startCommit, String outputDir) throws GitAPIException, IOException, InterruptedException {
+        mine(configPath, startCommit, HistorySink.writeSnapshots(outputDir));
+    }
+}
@@ -0,0 +1,58 @@
+package edu.university.ecs.lab.intermediate.history.services;
+
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.delta.models.SystemChange;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Receiver of the intermediate representations produced while mining the history of a repository.
+ * The sink is called once for the start commit and once for every mined commit after the IR has
+ * been advanced. The same MicroserviceSystem instance is advanced in place between calls, so sinks
+ * that keep snapshots must copy or serialize it.
+ */
+@FunctionalInterface
+public interface HistorySink {
+    /**
+     * Accept the IR of a commit
+     *
+     * @param microserviceSystem the IR at the commit
+     * @param systemChange the changes since the previously accepted commit, null for the start commit
+     */
+    void accept(MicroserviceSystem microserviceSystem, SystemChange systemChange) throws IOException;
+
+    /**
+     * Create a sink writing the full IR of every commit to the given directory as
+     * IR_&lt;index&gt;_&lt;commitID&gt;.json
+     *
+     * @param outputDir the directory to write to
+     * @return the sink
+     */
+    static HistorySink writeSnapshots(String outputDir) {
+        AtomicInteger index = new AtomicInteger();
+        return (microserviceSystem, systemChange) -> JsonReadWriteUtils.writeToJSON(
+                outputDir + File.separator + "IR_" + index.getAndIncrement() + "_" + microserviceSystem.getCommitID() + ".json",
+                microserviceSystem);
+    }
+
+    /**
+     * Create a sink writing the IR of the start commit followed by the delta of every mined
+     * commit to the given directory as IR_0_&lt;commitID&gt;.json and Delta_&lt;index&gt;_&lt;commitID&gt;.json
+     *
+     * @param outputDir the directory to write to
+     * @return the sink
+     */
+    static HistorySink writeDeltas(String outputDir) {
+        AtomicInteger index = new AtomicInteger();
+        return (microserviceSystem, systemChange) -> {
+            if (systemChange == null) {
+                JsonReadWriteUtils.writeToJSON(outputDir + File.separator + "IR_" + index.getAndIncrement() + "_" + microserviceSystem.getCommitID() + ".json", microserviceSystem);
+            } else {
+                JsonReadWriteUtils.writeToJSON(outputDir + File.separator + "Delta_" + index.getAndIncrement() + "_" + systemChange.getNewCommit() + ".json", systemChange);
+            }
+        };
+    }
+}
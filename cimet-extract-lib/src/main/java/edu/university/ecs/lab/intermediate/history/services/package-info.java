@@ -0,0 +1,8 @@
+/**
+ * This package provides services for mining the history of a repository into a series of intermediate representations (IR).
+ *
+ * <p>The main service in this package is the {@link edu.university.ecs.lab.intermediate.history.services.HistoryMiningService},
+ * which extracts the IR of a start commit and applies the delta of each following commit in memory, handing every
+ * step to a {@link edu.university.ecs.lab.intermediate.history.services.HistorySink}.</p>
+ */
+package edu.university.ecs.lab.intermediate.history.services;
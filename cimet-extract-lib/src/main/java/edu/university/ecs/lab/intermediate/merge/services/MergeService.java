@@ -3,6 +3,9 @@ package edu.university.ecs.lab.intermediate.merge.services;
 import edu.university.ecs.lab.common.config.Config;
 import edu.university.ecs.lab.common.config.ConfigUtil;
 import edu.university.ecs.lab.common.models.ir.*;
+import edu.university.ecs.lab.common.utils.EndpointReachability;
+import edu.university.ecs.lab.common.utils.EndpointSecurity;
+import edu.university.ecs.lab.common.utils.InternTable;
 import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
 import edu.university.ecs.lab.delta.models.Delta;
 import edu.university.ecs.lab.delta.models.SystemChange;
@@ -25,6 +28,11 @@ public class MergeService {
     private final SystemChange systemChange;
     private final String outputPath;
 
+    /**
+     * Microservices whose files or structure were changed by the merge
+     */
+    private final Set<Microservice> changedMicroservices = Collections.newSetFromMap(new IdentityHashMap<>());
+
     // TODO handle exceptions here
     public MergeService(
             String intermediatePath,
@@ -33,10 +41,25 @@ public class MergeService {
             String outputPath) throws IOException {
         this.config = ConfigUtil.readConfig(configPath);
         this.microserviceSystem = JsonReadWriteUtils.readFromJSON(Path.of(intermediatePath).toAbsolutePath().toString(), MicroserviceSystem.class);
+        this.microserviceSystem.intern(new InternTable());
         this.systemChange = JsonReadWriteUtils.readFromJSON(Path.of(deltaPath).toAbsolutePath().toString(), SystemChange.class);
         this.outputPath = outputPath.isEmpty() ? "./NewIR.json" : outputPath;
     }
 
+    /**
+     * Create a merge service advancing an IR that is already in memory
+     *
+     * @param config the config of the repository
+     * @param microserviceSystem the IR to advance, updated in place
+     * @param systemChange the changes to apply
+     */
+    public MergeService(Config config, MicroserviceSystem microserviceSystem, SystemChange systemChange) {
+        this.config = config;
+        this.microserviceSystem = microserviceSystem;
+        this.systemChange = systemChange;
+        this.outputPath = "./NewIR.json";
+    }
+
     /**
      * This method generates the new IR from the old IR + Delta file
      */
@@ -68,6 +91,12 @@ public class MergeService {
             }
         }
 
+        // Calls between classes and security rules may have changed anywhere in a changed microservice,
+        // microservices that were removed from the system are not analyzed
+        changedMicroservices.removeIf(microservice -> microserviceSystem.findMicroserviceByPath(microservice.getPath()) != microservice);
+        changedMicroservices.forEach(EndpointReachability::analyze);
+        EndpointSecurity.analyze(microserviceSystem, changedMicroservices);
+
         microserviceSystem.setCommitID(systemChange.getNewCommit());
 
         //  JsonReadWriteUtils.writeToJSON(outputPath, microserviceSystem);
@@ -80,29 +109,29 @@ public class MergeService {
      * @param delta the delta change for adding
      */
     public void addFile(Delta delta) {
-        // Check for unparsable files
-        if(delta.getClassChange() == null && delta.getConfigChange() == null)
+        // Check for unparsable files, the delta keeps its own copy of the file
+        ProjectFile projectFile = delta.copyChange();
+        if(projectFile == null)
             return;
 
         Microservice ms = microserviceSystem.findMicroserviceByPath(delta.getNewPath());
 
+        // Share the strings of the new file with the rest of the system
+        projectFile.intern(microserviceSystem.getInternTable());
+
         // If no ms is found, it will be held in orphans
         if (Objects.isNull(ms)) {
-            if(delta.getClassChange() != null) {
-                microserviceSystem.getOrphans().add(delta.getClassChange());
-            } else if(delta.getConfigChange() != null) {
-                microserviceSystem.getOrphans().add(delta.getConfigChange());
-            }
-
+            microserviceSystem.addOrphan(projectFile);
             return;
         }
 
         // If we found it's ms
-        if(delta.getConfigChange() != null) {
-            ms.getFiles().add(delta.getConfigChange());
+        changedMicroservices.add(ms);
+        if(projectFile instanceof ConfigFile) {
+            ms.addFile((ConfigFile) projectFile);
         } else {
             // Add the JClass, the microservice name is updated see addJClass()
-            ms.addJClass(delta.getClassChange());
+            ms.addJClass((JClass) projectFile);
         }
     }
 
@@ -118,18 +147,13 @@ public class MergeService {
         // If we are removing a file and it's microservice doesn't exist
         if (Objects.isNull(ms)) {
             // Check the orphan pool
-            for (ProjectFile orphan : microserviceSystem.getOrphans()) {
-                // If found remove it and return
-                if (orphan.getPath().equals(delta.getOldPath())) {
-                    microserviceSystem.getOrphans().remove(orphan);
-                    return;
-                }
-            }
+            microserviceSystem.removeOrphan(delta.getOldPath());
             return;
         }
 
         // Remove the file depending on which is null, skips gracefully if not found in microservice
         // see removeProjectFile()
+        changedMicroservices.add(ms);
         ms.removeProjectFile(delta.getOldPath());
     }
 
@@ -160,29 +184,26 @@ public class MergeService {
                 switch (delta.getChangeType()) {
                     case ADD:
 
-                        // If a delta is more/less specific than an active microservice
-                        Microservice removeMicroservice = null;
-                        for (Microservice compareMicroservice : microserviceSystem.getMicroservices()) {
-                            // If delta is more specific than compareMicroservice, we remove this one
-                            if (delta.getNewPath().replace("/pom.xml", "").replace("/build.gradle", "").matches(compareMicroservice.getPath() + "/.*")) {
-                                removeMicroservice = compareMicroservice;
-
-                            // If a microservice already exists that is more specific, skip the addition
-                            } else if (compareMicroservice.getPath().matches(delta.getNewPath().replace("/pom.xml", "").replace("/build.gradle", "") + "/.*")) {
-                                break match;
-                            }
+                        String microservicePath = delta.getNewPath().replace("/pom.xml", "").replace("/build.gradle", "");
+
+                        // If a microservice already exists at this path or one is more specific, skip the addition
+                        Microservice removeMicroservice = microserviceSystem.findMicroserviceByPath(microservicePath);
+                        if ((Objects.nonNull(removeMicroservice) && removeMicroservice.getPath().equals(microservicePath))
+                                || microserviceSystem.hasMicroservicesBelow(microservicePath)) {
+                            break match;
                         }
 
-                        // If a match was found, orphanize and remove. They will be adopted below
+                        // If delta is more specific than an active microservice, orphanize and remove it. They will be adopted below
                         if (Objects.nonNull(removeMicroservice)) {
-                            microserviceSystem.getMicroservices().remove(removeMicroservice);
+                            microserviceSystem.removeMicroservice(removeMicroservice);
                             microserviceSystem.orphanize(removeMicroservice);
                         }
 
-                        microservice = new Microservice(tokens[tokens.length - 2], delta.getNewPath().replace("/pom.xml", "").replace("/build.gradle", ""));
+                        microservice = new Microservice(tokens[tokens.length - 2], microservicePath);
                         // Here we must check if any orphans are waiting on this creation
                         microserviceSystem.adopt(microservice);
-                        microserviceSystem.getMicroservices().add(microservice);
+                        microserviceSystem.addMicroservice(microservice);
+                        changedMicroservices.add(microservice);
                         break;
 
 
@@ -190,7 +211,7 @@ public class MergeService {
                         microservice = microserviceSystem.findMicroserviceByPath(delta.getOldPath().replace("/pom.xml", "").replace("/build.gradle", ""));
 
                         // Here we must orphan all the classes of this microservice
-                        microserviceSystem.getMicroservices().remove(microservice);
+                        microserviceSystem.removeMicroservice(microservice);
                         microserviceSystem.orphanize(microservice);
                         break;
 
@@ -293,6 +314,20 @@ public class MergeService {
         return mergeService.getMicroserviceSystem();
     }
 
+    /**
+     * Advance an IR in memory by applying a system change, without reading or writing files
+     *
+     * @param config the config of the repository
+     * @param microserviceSystem the IR to advance, updated in place
+     * @param systemChange the changes to apply
+     * @return the advanced IR
+     */
+    public static MicroserviceSystem merge(Config config, MicroserviceSystem microserviceSystem, SystemChange systemChange) {
+        MergeService mergeService = new MergeService(config, microserviceSystem, systemChange);
+        mergeService.generateMergeIR(systemChange.getNewCommit());
+        return mergeService.getMicroserviceSystem();
+    }
+
     public static void createAndWrite(String configPath, String intermediatePath, String deltaPath, String newCommitID, String outputPath) throws IOException {
         MicroserviceSystem microserviceSystem = create(configPath, intermediatePath, deltaPath, newCommitID);
         JsonReadWriteUtils.writeToJSON(outputPath, microserviceSystem);
@@ -4,6 +4,7 @@
  * <p>The main sub-packages within this package are:</p>
  *   - {@link  edu.university.ecs.lab.intermediate.create}: Includes the classes responsible for generating the intermediate representation from the source code.
  *   - {@link  edu.university.ecs.lab.intermediate.merge}: Includes the classes responsible for merging the intermediate representation with delta changes.
+ *   - {@link  edu.university.ecs.lab.intermediate.history}: Includes the classes responsible for mining the intermediate representation over a range of commits.
  *   - {@link  edu.university.ecs.lab.intermediate.utils}: Includes utility classes used throughout the intermediate representation processes.
  *
  * <p>The intermediate extraction process involves cloning remote services, scanning through each local repository to extract REST endpoints and calls, and writing the extracted data into an intermediate representation.</p>
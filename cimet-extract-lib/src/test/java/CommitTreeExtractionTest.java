@@ -0,0 +1,41 @@
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public class CommitTreeExtractionTest {
+    private static final String CONTROLLER_PATH = "todo-service/src/main/java/com/apssouza/controllers/TodoController.java";
+
+    @Test
+    void testTreeMatchesCheckout() throws Exception {
+        String initialCommit = TestUtilities.createLocalSystem();
+        MicroserviceSystem checkout = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Assertions.assertEquals(checkout, IRExtractionService.createFromCommit(TestUtilities.LOCAL_CONFIG_FILE, Optional.empty(), 1));
+
+        // Remove the controller in a second commit, the initial commit is read back without a checkout
+        Path root = Path.of(FileUtils.getRepositoryPath(TestUtilities.LOCAL_REPO_NAME));
+        try (Git git = Git.open(root.toFile())) {
+            git.rm().addFilepattern(CONTROLLER_PATH).call();
+            git.commit().setMessage("Remove controller").setSign(false)
+                    .setAuthor("test", "test@test.com").setCommitter("test", "test@test.com").call();
+
+            MicroserviceSystem initial = IRExtractionService.createFromCommit(TestUtilities.LOCAL_CONFIG_FILE, Optional.of(initialCommit), 4);
+            MicroserviceSystem head = IRExtractionService.createFromCommit(TestUtilities.LOCAL_CONFIG_FILE, Optional.empty(), 1);
+
+            Assertions.assertEquals(checkout, initial);
+            Assertions.assertNotNull(initial.findFile("/" + CONTROLLER_PATH));
+            Assertions.assertNotEquals(checkout.getMicroservices(), head.getMicroservices());
+            Assertions.assertNull(head.findFile("/" + CONTROLLER_PATH));
+
+            // The working tree is left at the latest commit
+            Assertions.assertFalse(Files.exists(root.resolve(CONTROLLER_PATH)));
+            Assertions.assertTrue(git.status().call().isClean());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import edu.university.ecs.lab.common.utils.CompilationUnitVisitor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class CompilationUnitVisitorTest {
+    private static final int METHODS = 20;
+    private static final int LARGE_METHODS = 200;
+    private static final int ROUNDS = 50;
+
+    @Test
+    void testVisitorMatchesFindAll() throws Exception {
+        for (CompilationUnit cu : List.of(StaticJavaParser.parse(Path.of("src/test/resources/java_files/TestFile2.java")),
+                StaticJavaParser.parse(syntheticController(METHODS)))) {
+            CompilationUnitVisitor visitor = new CompilationUnitVisitor(cu);
+
+            Assertions.assertEquals(cu.findAll(ImportDeclaration.class), visitor.getImportDeclarations());
+            Assertions.assertEquals(cu.findAll(MethodDeclaration.class), visitor.getMethodDeclarations());
+            Assertions.assertEquals(cu.findAll(FieldDeclaration.class), visitor.getFieldDeclarations());
+            Assertions.assertEquals(classAnnotations(cu), visitor.getClassAnnotations());
+            Assertions.assertSame(cu.findFirst(ClassOrInterfaceDeclaration.class).orElse(null), visitor.getClassOrInterfaceDeclaration());
+
+            List<MethodDeclaration> methods = visitor.getMethodDeclarations();
+            for (int i = 0; i < methods.size(); i++) {
+                Assertions.assertEquals(methods.get(i).findAll(MethodCallExpr.class), visitor.getMethodCallExprs(i));
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkVisitorAgainstFindAll() {
+        CompilationUnit cu = StaticJavaParser.parse(syntheticController(LARGE_METHODS));
+
+        int[] legacyVisits = new int[1];
+        legacyTraversals(cu, legacyVisits);
+        int visitorVisits = new CompilationUnitVisitor(cu).getVisitedNodes();
+        Assertions.assertTrue(visitorVisits < legacyVisits[0], () -> "findAll: " + legacyVisits[0] + " nodes, visitor: " + visitorVisits + " nodes");
+
+        // Warm up both approaches before timing
+        time(() -> legacyTraversals(cu, new int[1]));
+        time(() -> new CompilationUnitVisitor(cu));
+
+        long legacyNanos = time(() -> legacyTraversals(cu, new int[1]));
+        long visitorNanos = time(() -> new CompilationUnitVisitor(cu));
+        Assertions.assertTrue(visitorNanos < legacyNanos, () -> String.format("findAll: %.3f ms/file, visitor: %.3f ms/file",
+                legacyNanos / 1e6 / ROUNDS, visitorNanos / 1e6 / ROUNDS));
+    }
+
+    /**
+     * Runs an action for all rounds and returns the elapsed time
+     */
+    private static long time(Runnable action) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            action.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Performs the traversals parseClass made for a controller before the visitor: two package
+     * lookups, the class annotations, class declarations, imports, methods for the endpoints,
+     * fields, methods again for the method calls, the calls of each method and one field scan
+     * for each rest call whose URL is resolved from a field
+     */
+    private static void legacyTraversals(CompilationUnit cu, int[] visits) {
+        findAll(cu, PackageDeclaration.class, visits);
+        findAll(cu, PackageDeclaration.class, visits);
+        findAll(cu, AnnotationExpr.class, visits);
+        findAll(cu, ClassOrInterfaceDeclaration.class, visits);
+        findAll(cu, ImportDeclaration.class, visits);
+        findAll(cu, MethodDeclaration.class, visits);
+        findAll(cu, FieldDeclaration.class, visits);
+        for (MethodDeclaration md : findAll(cu, MethodDeclaration.class, visits)) {
+            for (MethodCallExpr mce : findAll(md, MethodCallExpr.class, visits)) {
+                if (mce.getNameAsString().equals("exchange")) {
+                    findAll(cu, FieldDeclaration.class, visits);
+                }
+            }
+        }
+    }
+
+    /**
+     * Same traversal as {@link Node#findAll(Class)}, counting the visited nodes
+     */
+    private static <T extends Node> List<T> findAll(Node node, Class<T> type, int[] visits) {
+        List<T> found = new ArrayList<>();
+        node.walk(Node.TreeTraversal.PREORDER, n -> {
+            visits[0]++;
+            if (type.isAssignableFrom(n.getClass())) {
+                found.add(type.cast(n));
+            }
+        });
+        return found;
+    }
+
+    private static Set<AnnotationExpr> classAnnotations(CompilationUnit cu) {
+        return cu.findAll(AnnotationExpr.class).stream()
+                .filter(ae -> ae.getParentNode().orElse(null) instanceof ClassOrInterfaceDeclaration)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static String syntheticController(int methods) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package com.example.controllers;\n")
+                .append("import org.springframework.web.bind.annotation.*;\n")
+                .append("import org.springframework.web.client.RestTemplate;\n")
+                .append("@RestController\n@RequestMapping(\"/api\")\n")
+                .append("public class LargeController {\n")
+                .append("    private static final String BASE = \"http://service/api\";\n")
+                .append("    private RestTemplate restTemplate;\n");
+        for (int i = 0; i < methods; i++) {
+            sb.append("    @GetMapping(\"/items").append(i).append("/{id}\")\n")
+                    .append("    public String get").append(i).append("(@PathVariable String id) {\n")
+                    .append("        String value = id.trim().toLowerCase();\n")
+                    .append("        Runnable r = new Runnable() { public void run() { value.length(); } };\n")
+                    .append("        return restTemplate.exchange(BASE + \"/items").append(i)
+                    .append("/\" + value, HttpMethod.GET, null, String.class).getBody();\n")
+                    .append("    }\n");
+        }
+        return sb.append("}\n").toString();
+    }
+}
@@ -0,0 +1,112 @@
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.resolution.UnsolvedSymbolException;
+import com.github.javaparser.resolution.model.typesystem.ReferenceTypeImpl;
+import edu.university.ecs.lab.common.utils.CompilationUnitVisitor;
+import edu.university.ecs.lab.common.utils.DeclaredTypeLookup;
+import edu.university.ecs.lab.common.utils.SymbolSolverContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeclaredTypeLookupTest {
+    private static final String SOURCE = String.join("\n",
+            "package com.example;",
+            "import java.util.*;",
+            "import org.springframework.web.client.RestTemplate;",
+            "public class OrderService<T> {",
+            "    private RestTemplate restTemplate;",
+            "    private List<String> names;",
+            "    private int[] counts;",
+            "    private T item;",
+            "    private StringBuilder builder;",
+            "    public void run(String id, Object... args) {",
+            "        restTemplate.getForObject(id, String.class);",
+            "        names.add(id);",
+            "        counts.clone();",
+            "        item.toString();",
+            "        args.clone();",
+            "        id.trim();",
+            "        builder.append(id);",
+            "        Collections.emptyList();",
+            "        var inferred = new ArrayList<String>();",
+            "        inferred.add(id);",
+            "        String builder = id;",
+            "        builder.length();",
+            "        for (Map.Entry<String, String> entry : new HashMap<String, String>().entrySet()) { entry.getKey(); }",
+            "        Runnable r = new Runnable() { public void run() { id.trim(); } };",
+            "        switch (id) { case \"a\": id.trim(); }",
+            "        if (args instanceof Object o) { o.toString(); }",
+            "        names.forEach(name -> name.trim());",
+            "        names.forEach((String name) -> name.trim());",
+            "        try { id.trim(); } catch (IllegalStateException e) { e.getMessage(); }",
+            "    }",
+            "}");
+
+    @Test
+    void testLookupMatchesSolver() throws Exception {
+        SymbolSolverContext context = new SymbolSolverContext(TestUtilities.RESOURCES_PATH);
+        List<CompilationUnit> compilationUnits = new ArrayList<>();
+        compilationUnits.add(context.getJavaParser().parse(SOURCE).getResult().orElseThrow());
+        for (File file : new File(TestUtilities.JAVA_FILES_PATH).listFiles()) {
+            compilationUnits.add(context.getJavaParser().parse(file).getResult().orElseThrow());
+        }
+
+        int answered = 0;
+        for (CompilationUnit cu : compilationUnits) {
+            DeclaredTypeLookup lookup = new DeclaredTypeLookup(new CompilationUnitVisitor(cu).getPatternVariables());
+            for (MethodCallExpr mce : cu.findAll(MethodCallExpr.class)) {
+                if (mce.getScope().isEmpty() || !mce.getScope().get().isNameExpr()) {
+                    continue;
+                }
+                NameExpr scope = mce.getScope().get().asNameExpr();
+                String declaredType = lookup.lookup(scope);
+                if (declaredType != null) {
+                    answered++;
+                    Assertions.assertEquals(solve(context, scope), declaredType, mce.toString());
+                }
+            }
+        }
+        Assertions.assertTrue(answered > 0);
+    }
+
+    @Test
+    void testLookupGivesUpWhenUncertain() {
+        CompilationUnit cu = new SymbolSolverContext(TestUtilities.RESOURCES_PATH).getJavaParser().parse(SOURCE).getResult().orElseThrow();
+        DeclaredTypeLookup lookup = new DeclaredTypeLookup(new CompilationUnitVisitor(cu).getPatternVariables());
+        List<String> results = new ArrayList<>();
+        for (MethodCallExpr mce : cu.findAll(MethodCallExpr.class)) {
+            mce.getScope().filter(Expression::isNameExpr).ifPresent(scope -> results.add(mce + "=" + lookup.lookup(scope.asNameExpr())));
+        }
+
+        Assertions.assertTrue(results.contains("restTemplate.getForObject(id, String.class)=RestTemplate"));
+        Assertions.assertTrue(results.contains("counts.clone()="));
+        Assertions.assertTrue(results.contains("builder.length()=String"));
+        Assertions.assertTrue(results.contains("names.add(id)=null"));
+        Assertions.assertTrue(results.contains("item.toString()=null"));
+        Assertions.assertTrue(results.contains("inferred.add(id)=null"));
+        Assertions.assertTrue(results.contains("Collections.emptyList()=null"));
+        Assertions.assertTrue(results.contains("o.toString()=null"));
+        Assertions.assertTrue(results.contains("name.trim()=null"));
+    }
+
+    /**
+     * Resolve the type of a scope the way SourceToObjectUtils does with the symbol solver
+     */
+    private static String solve(SymbolSolverContext context, Expression scope) {
+        try {
+            String[] parts = ((ReferenceTypeImpl) context.getFacade().getType(scope)).getQualifiedName().split("\\.");
+            return parts[parts.length - 1];
+        } catch (Exception e) {
+            if (e instanceof UnsolvedSymbolException && ((UnsolvedSymbolException) e).getName() != null) {
+                return ((UnsolvedSymbolException) e).getName();
+            }
+            return "";
+        }
+    }
+}
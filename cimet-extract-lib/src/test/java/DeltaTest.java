@@ -0,0 +1,74 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.university.ecs.lab.common.models.ir.JClass;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.delta.models.Delta;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.models.enums.ChangeType;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class DeltaTest {
+    private static final String PATH = "/todo-service/src/main/java/com/apssouza/controllers/TodoController.java";
+
+    @Test
+    void testParsedFileIsWrittenAsTree() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        JClass jClass = system.findClass(PATH);
+
+        Delta typed = Delta.fromFile(PATH, PATH, ChangeType.MODIFY, jClass);
+        Delta tree = new Delta(PATH, PATH, ChangeType.MODIFY, new ObjectMapper().valueToTree(jClass));
+        Assertions.assertSame(jClass, typed.getClassChange());
+        Assertions.assertNull(typed.getConfigChange());
+        Assertions.assertEquals(tree.getData(), typed.getData());
+        Assertions.assertSame(typed.getData(), typed.getData());
+        Assertions.assertEquals(JsonReadWriteUtils.setupObjectWriter().writeValueAsString(tree),
+                JsonReadWriteUtils.setupObjectWriter().writeValueAsString(typed));
+
+        // Merging modifies a copy, the delta still writes the parsed file
+        JClass copy = (JClass) typed.copyChange();
+        Assertions.assertEquals(jClass, copy);
+        Assertions.assertNotSame(jClass, copy);
+        copy.updateMicroserviceName("other-service");
+        Assertions.assertEquals(tree, typed);
+
+        // Replacing the data drops the parsed file and its converted JSON
+        typed.setData(tree.getData().deepCopy());
+        Assertions.assertEquals(tree.getData(), typed.getData());
+        Assertions.assertNotSame(jClass, typed.getClassChange());
+        Assertions.assertEquals(jClass, typed.getClassChange());
+    }
+
+    @Test
+    void testReadFileIsMaterializedOnce() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        JClass jClass = system.findClass(PATH);
+
+        SystemChange systemChange = new SystemChange();
+        systemChange.setChanges(List.of(Delta.fromFile(PATH, PATH, ChangeType.MODIFY, jClass), new Delta(PATH, "/dev/null", ChangeType.DELETE,
+                new ObjectMapper().createObjectNode())));
+        Path file = Files.createTempFile("delta", ".json");
+        try {
+            JsonReadWriteUtils.writeToJSON(file.toString(), systemChange);
+            SystemChange read = JsonReadWriteUtils.readFromJSON(file.toString(), SystemChange.class);
+
+            Delta modify = read.getChanges().get(0);
+            Assertions.assertEquals(jClass, modify.getClassChange());
+            Assertions.assertSame(modify.getClassChange(), modify.getClassChange());
+            Assertions.assertNull(modify.getConfigChange());
+
+            Delta delete = read.getChanges().get(1);
+            Assertions.assertNull(delete.getClassChange());
+            Assertions.assertNull(delete.getConfigChange());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import edu.university.ecs.lab.common.models.ir.*;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class DerivedViewsBenchmarkTest {
+    private static final String CONTROLLER_PATH = "/todo-service/src/main/java/com/apssouza/controllers/TodoController.java";
+    private static final int ROUNDS = 1000;
+
+    @Test
+    void testViewsFollowChanges() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Microservice microservice = system.findMicroserviceByPath(CONTROLLER_PATH);
+
+        Assertions.assertEquals(legacyClasses(microservice), microservice.getClasses());
+        Assertions.assertEquals(legacyEndpoints(microservice), microservice.getEndpoints());
+        Assertions.assertSame(microservice.getEndpoints(), microservice.getEndpoints());
+        Assertions.assertFalse(microservice.getEndpoints().isEmpty());
+
+        JClass controller = system.findClass(CONTROLLER_PATH);
+        microservice.removeProjectFile(CONTROLLER_PATH);
+        Assertions.assertFalse(microservice.getClasses().contains(controller));
+        Assertions.assertTrue(microservice.getEndpoints().isEmpty());
+
+        // The member sets can only be changed through methods that drop the views
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> microservice.getControllers().add(controller));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> controller.getMethodCalls().add(new MethodCall()));
+
+        microservice.addJClass(controller);
+        controller.setMethods(new HashSet<>());
+        Assertions.assertTrue(controller.getEndpoints().isEmpty());
+        Assertions.assertTrue(microservice.getEndpoints().isEmpty());
+        Assertions.assertEquals(legacyClasses(microservice), microservice.getClasses());
+    }
+
+    /**
+     * Microservices cache their endpoints in hash sets, so the fields the endpoint analyses set
+     * after an endpoint was added must not change its hash
+     */
+    @Test
+    void testEndpointHashIgnoresDerivedFields() throws Exception {
+        Set<String> identityFields = Set.of("url", "httpMethod");
+        for (Field field : Endpoint.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+
+            Endpoint endpoint = new Endpoint();
+            int hashCode = endpoint.hashCode();
+            field.setAccessible(true);
+            field.set(endpoint, changedValue(field.getType()));
+            Assertions.assertEquals(identityFields.contains(field.getName()), hashCode != endpoint.hashCode(), field.getName());
+        }
+    }
+
+    private static Object changedValue(Class<?> type) {
+        if (type == String.class) {
+            return "changed";
+        } else if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        } else if (type == long[].class) {
+            return new long[] {1};
+        } else if (List.class.isAssignableFrom(type)) {
+            return new ArrayList<>(List.of("changed"));
+        } else if (Set.class.isAssignableFrom(type)) {
+            return new HashSet<>(Set.of("changed"));
+        } else if (type == boolean.class) {
+            return true;
+        }
+        throw new IllegalArgumentException("No changed value for " + type);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkViewAllocations() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+
+        // Warm up both approaches before measuring
+        long legacyBytes = allocatedBytes(() -> system.getMicroservices().forEach(DerivedViewsBenchmarkTest::legacyViews));
+        long cachedBytes = allocatedBytes(() -> system.getMicroservices().forEach(DerivedViewsBenchmarkTest::cachedViews));
+        legacyBytes = allocatedBytes(() -> system.getMicroservices().forEach(DerivedViewsBenchmarkTest::legacyViews));
+        cachedBytes = allocatedBytes(() -> system.getMicroservices().forEach(DerivedViewsBenchmarkTest::cachedViews));
+
+        Assertions.assertTrue(cachedBytes < legacyBytes);
+    }
+
+    /**
+     * Runs an action for all rounds and returns the bytes allocated by the current thread
+     */
+    private static long allocatedBytes(Runnable action) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            action.run();
+        }
+        return threadMXBean.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    private static int cachedViews(Microservice microservice) {
+        return microservice.getClasses().size() + microservice.getAllFiles().size() + microservice.getRestCalls().size()
+                + microservice.getEndpoints().size() + microservice.getMethodCalls().size() + microservice.getMethods().size();
+    }
+
+    /**
+     * Computes the views the way they were computed on every call before they were memoized
+     */
+    private static int legacyViews(Microservice microservice) {
+        Set<ProjectFile> allFiles = new HashSet<>(legacyClasses(microservice));
+        allFiles.addAll(microservice.getFiles());
+        allFiles.addAll(legacyClasses(microservice));
+        List<RestCall> restCalls = legacyClasses(microservice).stream().flatMap(jClass -> jClass.getMethodCalls().stream())
+                .filter(methodCall -> methodCall instanceof RestCall).map(methodCall -> (RestCall) methodCall).collect(Collectors.toList());
+        Set<MethodCall> methodCalls = legacyClasses(microservice).stream().flatMap(jClass -> jClass.getMethodCalls().stream()).collect(Collectors.toSet());
+        Set<Method> methods = legacyClasses(microservice).stream().flatMap(jClass -> jClass.getMethods().stream()).collect(Collectors.toSet());
+        return legacyClasses(microservice).size() + allFiles.size() + restCalls.size()
+                + legacyEndpoints(microservice).size() + methodCalls.size() + methods.size();
+    }
+
+    private static Set<JClass> legacyClasses(Microservice microservice) {
+        Set<JClass> classes = new HashSet<>();
+        classes.addAll(microservice.getControllers());
+        classes.addAll(microservice.getServices());
+        classes.addAll(microservice.getRepositories());
+        classes.addAll(microservice.getEntities());
+        classes.addAll(microservice.getFeignClients());
+        return classes;
+    }
+
+    private static Set<Endpoint> legacyEndpoints(Microservice microservice) {
+        return microservice.getControllers().stream().flatMap(controller -> controller.getMethods().stream())
+                .filter(method -> method instanceof Endpoint).map(method -> (Endpoint) method).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,91 @@
+import edu.university.ecs.lab.common.models.enums.AccessModifier;
+import edu.university.ecs.lab.common.models.enums.ClassRole;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.models.ir.Endpoint;
+import edu.university.ecs.lab.common.models.ir.JClass;
+import edu.university.ecs.lab.common.models.ir.Location;
+import edu.university.ecs.lab.common.models.ir.Method;
+import edu.university.ecs.lab.common.models.ir.MethodCall;
+import edu.university.ecs.lab.common.models.ir.Microservice;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.models.ir.RestCall;
+import edu.university.ecs.lab.common.utils.EndpointMatcher;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class EndpointMatcherTest {
+
+    @Test
+    void testTemplateMatching() {
+        Endpoint byId = endpoint("getUser", "/api/users/{id}", HttpMethod.GET);
+        Endpoint me = endpoint("getMe", "/api/users/me", HttpMethod.GET);
+        Endpoint any = endpoint("handle", "/api/users/{?}/orders", HttpMethod.ALL);
+        Endpoint create = endpoint("createUser", "/api/users", HttpMethod.POST);
+        EndpointMatcher matcher = new EndpointMatcher(List.of(byId, me, any, create));
+
+        Assertions.assertEquals(List.of(me, byId), matcher.match(HttpMethod.GET, "/api/users/me"));
+        Assertions.assertEquals(List.of(byId), matcher.match(HttpMethod.GET, "/api/users/42/?verbose=true"));
+        Assertions.assertEquals(List.of(any), matcher.match(HttpMethod.DELETE, "/api/users/{?}/orders"));
+        Assertions.assertEquals(List.of(create), matcher.match(HttpMethod.POST, "/api/users?name={?}"));
+        Assertions.assertTrue(matcher.match(HttpMethod.PUT, "/api/users").isEmpty());
+
+        Assertions.assertEquals(4, matcher.matchPrefix(HttpMethod.ALL, "/api").size());
+        Assertions.assertEquals(List.of(me, byId, any), matcher.matchPrefix(HttpMethod.GET, "/api/users/{?}"));
+    }
+
+    @Test
+    void testLinkSystem() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+
+        Map<RestCall, List<Endpoint>> links = EndpointMatcher.link(system);
+        Assertions.assertEquals(9, links.size());
+        // Calls within the same microservice are not linked, the rebook service calls a seat service that is not part of the system
+        Assertions.assertTrue(links.values().stream().allMatch(List::isEmpty));
+    }
+
+    @Test
+    void testLinkCrossServiceCalls() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        JClass controller = system.findClass("/todo-service/src/main/java/com/apssouza/controllers/TodoController.java");
+
+        // A client service calling the todo service by a concrete id, by an unknown argument and by an unmapped URL
+        Microservice client = new Microservice("client-service", "/client-service");
+        JClass todoClient = new JClass("TodoClient", "/client-service/TodoClient.java", "com.example", ClassRole.SERVICE);
+        RestCall find = restCall("getForObject", "/todos/42", HttpMethod.GET);
+        RestCall statusUpdate = restCall("put", "/todos/{?}/status", HttpMethod.PUT);
+        RestCall unmapped = restCall("delete", "/users/42", HttpMethod.DELETE);
+        todoClient.setMethodCalls(new ArrayList<>(List.of(find, statusUpdate, unmapped)));
+        client.addJClass(todoClient);
+        system.addMicroservice(client);
+
+        Map<RestCall, List<Endpoint>> links = EndpointMatcher.link(system);
+        Assertions.assertEquals(12, links.size());
+        Assertions.assertEquals(List.of(findEndpoint(controller, "find")), links.get(find));
+        Assertions.assertEquals(List.of(findEndpoint(controller, "statusUpdate")), links.get(statusUpdate));
+        Assertions.assertTrue(links.get(unmapped).isEmpty());
+    }
+
+    private static Endpoint findEndpoint(JClass jClass, String name) {
+        return jClass.getEndpoints().stream().filter(endpoint -> endpoint.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static RestCall restCall(String name, String url, HttpMethod httpMethod) {
+        MethodCall methodCall = new MethodCall(name, "com.example", "RestTemplate", "restTemplate", "call", "", "client-service",
+                "TodoClient", new Location(null));
+        return new RestCall(methodCall, url, httpMethod);
+    }
+
+    private static Endpoint endpoint(String name, String url, HttpMethod httpMethod) {
+        Method method = new Method(name, "com.example.UserController", new HashSet<>(), "String", new HashSet<>(), "user-service",
+                "UserController", AccessModifier.PUBLIC, false, false, false, new HashSet<>(), new Location(null));
+        return new Endpoint(method, url, httpMethod);
+    }
+}
@@ -0,0 +1,54 @@
+import edu.university.ecs.lab.common.models.enums.AccessModifier;
+import edu.university.ecs.lab.common.models.enums.ClassRole;
+import edu.university.ecs.lab.common.models.enums.CrudOperation;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.models.ir.*;
+import edu.university.ecs.lab.common.utils.EndpointReachability;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class EndpointReachabilityTest {
+
+    @Test
+    void testRepositoriesReachedThroughServices() {
+        Microservice microservice = new Microservice("user-service", "/user-service");
+
+        JClass controller = new JClass("UserController", "/user-service/UserController.java", "com.example", ClassRole.CONTROLLER);
+        Endpoint create = endpoint("create", "/users", HttpMethod.POST);
+        Endpoint remove = endpoint("remove", "/users/{?}", HttpMethod.DELETE);
+        controller.setMethods(new HashSet<>(Set.of(create, remove)));
+        controller.setMethodCalls(new ArrayList<>(List.of(call("register", "UserService", "create"), call("unregister", "UserService", "remove"))));
+
+        // Calls to the interface lead to its implementation, which calls itself recursively
+        JClass serviceInterface = new JInterface("UserService", "/user-service/UserService.java", "com.example", ClassRole.SERVICE);
+        JClass service = new JClass("UserServiceImpl", "/user-service/UserServiceImpl.java", "com.example", ClassRole.SERVICE);
+        service.setMethodCalls(new ArrayList<>(List.of(call("findByName", "UserRepository", "register"), call("save", "UserRepository", "register"),
+                call("unregister", "", "unregister"), call("deleteById", "UserRepository", "unregister"), call("findAll", "AuditRepository", "unregister"))));
+
+        JClass repository = new JClass("UserRepository", "/user-service/UserRepository.java", "com.example", ClassRole.REPOSITORY);
+        JClass auditRepository = new JClass("AuditRepository", "/user-service/AuditRepository.java", "com.example", ClassRole.REPOSITORY);
+        List.of(controller, serviceInterface, service, repository, auditRepository).forEach(microservice::addJClass);
+
+        EndpointReachability.analyze(microservice);
+
+        Assertions.assertEquals(List.of(new RepositoryAccess(repository.getPath(), "UserRepository", Set.of(CrudOperation.CREATE, CrudOperation.READ))),
+                create.getRepositoryAccesses());
+        Assertions.assertEquals(List.of(new RepositoryAccess(auditRepository.getPath(), "AuditRepository", Set.of(CrudOperation.READ)),
+                new RepositoryAccess(repository.getPath(), "UserRepository", Set.of(CrudOperation.DELETE))), remove.getRepositoryAccesses());
+    }
+
+    private static Endpoint endpoint(String name, String url, HttpMethod httpMethod) {
+        Method method = new Method(name, "com.example.UserController", new HashSet<>(), "void", new HashSet<>(), "user-service",
+                "UserController", AccessModifier.PUBLIC, false, false, false, new HashSet<>(), new Location(null));
+        return new Endpoint(method, url, httpMethod);
+    }
+
+    private static MethodCall call(String name, String objectType, String calledFrom) {
+        return new MethodCall(name, "com.example", objectType, objectType.isEmpty() ? "" : "object", calledFrom, "", "user-service", "", new Location(null));
+    }
+}
@@ -0,0 +1,172 @@
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.models.enums.ClassRole;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.models.enums.SecurityAccess;
+import edu.university.ecs.lab.common.models.ir.*;
+import edu.university.ecs.lab.common.utils.EndpointSecurity;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
+import edu.university.ecs.lab.common.utils.SymbolSolverContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class EndpointSecurityTest {
+    private static final String CONTROLLER = String.join("\n",
+            "package com.example;",
+            "@RestController",
+            "@RequestMapping(\"/api/v1\")",
+            "@PreAuthorize(\"hasRole('USER') or hasAuthority('ROLE_MANAGER')\")",
+            "public class UserController {",
+            "    @GetMapping(\"/users/{id}\") public String get(@PathVariable String id) { return id; }",
+            "    @DeleteMapping(\"/users/{id}\") @Secured({\"ROLE_ADMIN\", \"ROLE_AUDITOR\"}) public void delete(@PathVariable String id) { }",
+            "    @GetMapping(\"/welcome\") @PermitAll public String welcome() { return \"\"; }",
+            "    @PostMapping(\"/orders\") @RolesAllowed(\"CUSTOMER\") public void order() { }",
+            "}");
+
+    private static final String ORDER_CONTROLLER = String.join("\n",
+            "package com.example;",
+            "@RestController",
+            "@RequestMapping(\"/api/v1\")",
+            "public class OrderController {",
+            "    @GetMapping(\"/orders/{id}\") @RolesAllowed(\"AUDITOR\") public String get(@PathVariable String id) { return id; }",
+            "}");
+
+    private static final String ADAPTER_CONFIG = String.join("\n",
+            "package com.example;",
+            "@Configuration",
+            "public class SecurityConfig extends WebSecurityConfigurerAdapter {",
+            "    private static final String USERS = \"/api/v1/users/**\";",
+            "    @Override",
+            "    protected void configure(HttpSecurity http) throws Exception {",
+            "        http.csrf().disable().authorizeRequests()",
+            "                .antMatchers(HttpMethod.GET, \"/api/v1/users/*\").hasAnyRole(\"USER\", \"ROLE_ADMIN\")",
+            "                .antMatchers(USERS).hasRole(\"ADMIN\")",
+            "                .antMatchers(\"/api/v1/welcome\").permitAll()",
+            "                .anyRequest().authenticated();",
+            "    }",
+            "}");
+
+    private static final String FILTER_CHAIN_CONFIG = String.join("\n",
+            "package com.example;",
+            "@Configuration",
+            "public class SecurityConfig {",
+            "    @Bean",
+            "    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {",
+            "        http.authorizeHttpRequests(auth -> auth",
+            "                .requestMatchers(HttpMethod.DELETE).denyAll()",
+            "                .anyRequest().permitAll());",
+            "        return http.build();",
+            "    }",
+            "}");
+
+    @Test
+    void testAdapterConfiguration() throws Exception {
+        Microservice microservice = parse(ADAPTER_CONFIG);
+
+        JClass securityConfig = microservice.getSecurityConfigurations().iterator().next();
+        Assertions.assertEquals(ClassRole.SECURITY_CONFIG, securityConfig.getClassRole());
+        Assertions.assertEquals(new SecurityRule(HttpMethod.GET, List.of("/api/v1/users/*"), SecurityAccess.ROLES, Set.of("ADMIN", "USER")),
+                securityConfig.getSecurityRules().get(0));
+        Assertions.assertEquals(4, securityConfig.getSecurityRules().size());
+
+        MicroserviceSystem microserviceSystem = system(microservice);
+        EndpointSecurity.analyze(microserviceSystem);
+        Assertions.assertEquals(List.of("ADMIN", "AUDITOR", "CUSTOMER", "MANAGER", "USER"), microserviceSystem.getRoles());
+
+        Map<String, Endpoint> endpoints = endpoints(microservice);
+        Assertions.assertEquals(SecurityAccess.ROLES, endpoints.get("get").getSecurityAccess());
+        Assertions.assertEquals(List.of("ADMIN", "USER"), microserviceSystem.getRoleNames(endpoints.get("get").getSecurityRoles()));
+        Assertions.assertEquals(SecurityAccess.ROLES, endpoints.get("delete").getSecurityAccess());
+        Assertions.assertArrayEquals(new long[] {0b1}, endpoints.get("delete").getSecurityRoles());
+        Assertions.assertEquals(SecurityAccess.PERMIT_ALL, endpoints.get("welcome").getSecurityAccess());
+        Assertions.assertEquals(SecurityAccess.AUTHENTICATED, endpoints.get("order").getSecurityAccess());
+        Assertions.assertEquals(0, endpoints.get("order").getSecurityRoles().length);
+    }
+
+    @Test
+    void testSecurityAnnotations() throws Exception {
+        Microservice microservice = parse(ADAPTER_CONFIG);
+        MicroserviceSystem microserviceSystem = system(microservice);
+        EndpointSecurity.analyze(microserviceSystem);
+
+        // Method annotations replace the class annotation
+        Map<String, Endpoint> endpoints = endpoints(microservice);
+        Assertions.assertEquals(SecurityAccess.ROLES, endpoints.get("get").getMethodSecurityAccess());
+        Assertions.assertEquals(List.of("MANAGER", "USER"), microserviceSystem.getRoleNames(endpoints.get("get").getMethodSecurityRoles()));
+        Assertions.assertEquals(List.of("ADMIN", "AUDITOR"), microserviceSystem.getRoleNames(endpoints.get("delete").getMethodSecurityRoles()));
+        Assertions.assertEquals(List.of("CUSTOMER"), microserviceSystem.getRoleNames(endpoints.get("order").getMethodSecurityRoles()));
+        Assertions.assertEquals(SecurityAccess.PERMIT_ALL, endpoints.get("welcome").getMethodSecurityAccess());
+        Assertions.assertEquals(0, endpoints.get("welcome").getMethodSecurityRoles().length);
+
+        // Both rules of an endpoint are checked with bit operations
+        BitSet allowed = BitSet.valueOf(endpoints.get("delete").getSecurityRoles());
+        allowed.and(BitSet.valueOf(endpoints.get("delete").getMethodSecurityRoles()));
+        Assertions.assertEquals(List.of("ADMIN"), microserviceSystem.getRoleNames(allowed.toLongArray()));
+    }
+
+    @Test
+    void testFilterChainConfiguration() throws Exception {
+        Microservice microservice = parse(FILTER_CHAIN_CONFIG);
+        MicroserviceSystem microserviceSystem = system(microservice);
+        EndpointSecurity.analyze(microserviceSystem);
+
+        Map<String, Endpoint> endpoints = endpoints(microservice);
+        Assertions.assertEquals(SecurityAccess.DENY_ALL, endpoints.get("delete").getSecurityAccess());
+        Assertions.assertEquals(SecurityAccess.PERMIT_ALL, endpoints.get("get").getSecurityAccess());
+
+        // Without a security configuration the access is unknown
+        microservice.removeJClass(microservice.getSecurityConfigurations().iterator().next().getPath());
+        EndpointSecurity.analyze(microserviceSystem);
+        Assertions.assertNull(endpoints(microservice).get("delete").getSecurityAccess());
+    }
+
+    @Test
+    void testAnalyzeChangedMicroservices() throws Exception {
+        Microservice users = parse(ADAPTER_CONFIG);
+        Microservice orders = parse("order-service", ORDER_CONTROLLER);
+        MicroserviceSystem microserviceSystem = system(users, orders);
+        EndpointSecurity.analyze(microserviceSystem);
+        Assertions.assertEquals(List.of("ADMIN", "AUDITOR", "CUSTOMER", "MANAGER", "USER"), microserviceSystem.getRoles());
+
+        // Only the changed microservice is analyzed, the other keeps its access
+        Endpoint order = endpoints(orders).get("get");
+        order.setMethodSecurityAccess(null);
+        users.removeJClass(users.getControllers().iterator().next().getPath());
+        EndpointSecurity.analyze(microserviceSystem, List.of(users));
+        Assertions.assertNull(order.getMethodSecurityAccess());
+
+        // Roles no longer granted are dropped from the table, the bitsets of other endpoints follow it
+        Assertions.assertEquals(List.of("AUDITOR"), microserviceSystem.getRoles());
+        Assertions.assertEquals(List.of("AUDITOR"), microserviceSystem.getRoleNames(order.getMethodSecurityRoles()));
+    }
+
+    private static Microservice parse(String securityConfig) throws Exception {
+        return parse("user-service", CONTROLLER, securityConfig);
+    }
+
+    private static Microservice parse(String microserviceName, String... sources) throws Exception {
+        Config config = ConfigUtil.readConfig(TestUtilities.LOCAL_CONFIG_FILE);
+        SymbolSolverContext symbolSolverContext = SymbolSolverContext.fromConfig(config);
+
+        Microservice microservice = new Microservice(microserviceName, "/" + microserviceName);
+        for (String source : sources) {
+            String className = source.substring(source.indexOf("class ") + 6, source.indexOf(' ', source.indexOf("class ") + 6));
+            String path = FileUtils.gitPathToLocalPath("/" + microserviceName + "/src/com/example/" + className + ".java", config.getRepoName());
+            microservice.addJClass(SourceToObjectUtils.parseClass(path, source.getBytes(StandardCharsets.UTF_8), config, microserviceName, symbolSolverContext));
+        }
+        return microservice;
+    }
+
+    private static MicroserviceSystem system(Microservice... microservices) {
+        return new MicroserviceSystem("system", "", new HashSet<>(Set.of(microservices)), new HashSet<>());
+    }
+
+    private static Map<String, Endpoint> endpoints(Microservice microservice) {
+        return microservice.getEndpoints().stream().collect(Collectors.toMap(Endpoint::getName, endpoint -> endpoint));
+    }
+}
@@ -0,0 +1,47 @@
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class GitDifferencesTest {
+    private static final String SERVICE_PATH = "ts-rebook-service/src/main/java/rebook/service/RebookServiceImpl.java";
+    private static final String DTO_PATH = "todo-service/src/main/java/com/apssouza/dto/TodoDto.java";
+
+    @Test
+    void testDifferencesSkipInvalidAndCommentOnlyChanges() throws Exception {
+        String initialCommit = TestUtilities.createLocalSystem();
+        Path root = Path.of(FileUtils.getRepositoryPath(TestUtilities.LOCAL_REPO_NAME));
+
+        String lastCommit;
+        try (Git git = Git.open(root.toFile())) {
+            // Comment and whitespace changes only
+            Path service = root.resolve(SERVICE_PATH);
+            Files.writeString(service, "// Rebook service\n" + Files.readString(service).replace("{", "{ /* block */\n"));
+
+            // A code change
+            Path dto = root.resolve(DTO_PATH);
+            Files.writeString(dto, Files.readString(dto).replaceFirst("\\{", "{ private int version;"));
+
+            // Files the IR is not built from and a configuration file
+            Files.writeString(root.resolve("README.md"), "Test system");
+            Files.writeString(root.resolve("todo-service/application.yml"), "server:\n  port: 8080\n");
+
+            git.add().addFilepattern(".").call();
+            lastCommit = git.commit().setMessage("Change files").setSign(false)
+                    .setAuthor("test", "test@test.com").setCommitter("test", "test@test.com").call().getName();
+        }
+
+        List<DiffEntry> differences = new GitService(TestUtilities.LOCAL_CONFIG_FILE).getDifferences(initialCommit, lastCommit);
+        Set<String> paths = differences.stream().map(DiffEntry::getNewPath).collect(Collectors.toSet());
+
+        Assertions.assertEquals(Set.of(DTO_PATH, "todo-service/application.yml"), paths);
+    }
+}
@@ -0,0 +1,63 @@
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.services.DeltaExtractionService;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import edu.university.ecs.lab.intermediate.history.services.HistoryMiningService;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class HistoryMiningTest {
+    private static final String CONTROLLER_PATH = "todo-service/src/main/java/com/apssouza/controllers/TodoController.java";
+    private static final String MOVED_CONTROLLER_PATH = "todo-service/src/main/java/com/apssouza/TodoController.java";
+
+    @Test
+    void testMiningMatchesExtraction() throws Exception {
+        String initialCommit = TestUtilities.createLocalSystem();
+        Path root = Path.of(FileUtils.getRepositoryPath(TestUtilities.LOCAL_REPO_NAME));
+        String lastCommit;
+
+        try (Git git = Git.open(root.toFile())) {
+            // A commit without any valid files is skipped
+            Files.writeString(root.resolve("README.md"), "Test system");
+            git.add().addFilepattern("README.md").call();
+            commit(git, "Add readme");
+
+            // Move the controller, the delta deletes the old file and parses the new one
+            Files.move(root.resolve(CONTROLLER_PATH), root.resolve(MOVED_CONTROLLER_PATH));
+            git.rm().addFilepattern(CONTROLLER_PATH).call();
+            git.add().addFilepattern(MOVED_CONTROLLER_PATH).call();
+            lastCommit = commit(git, "Move controller");
+        }
+
+        List<SystemChange> systemChanges = new ArrayList<>();
+        List<String> commitIDs = new ArrayList<>();
+        HistoryMiningService historyMiningService = new HistoryMiningService(TestUtilities.LOCAL_CONFIG_FILE, 1, null);
+        MicroserviceSystem mined = historyMiningService.mine(initialCommit, Optional.empty(), commit -> true, (microserviceSystem, systemChange) -> {
+            systemChanges.add(systemChange);
+            commitIDs.add(microserviceSystem.getCommitID());
+        });
+
+        Assertions.assertEquals(1, historyMiningService.getMinedCommitCount());
+        Assertions.assertEquals(1, historyMiningService.getSkippedCommitCount());
+        Assertions.assertEquals(List.of(initialCommit, lastCommit), commitIDs);
+        Assertions.assertNull(systemChanges.get(0));
+        Assertions.assertEquals(2, systemChanges.get(1).getChanges().size());
+        Assertions.assertNotNull(mined.findClass("/" + MOVED_CONTROLLER_PATH));
+
+        Assertions.assertEquals(IRExtractionService.createFromCommit(TestUtilities.LOCAL_CONFIG_FILE, Optional.empty(), 1), mined);
+        Assertions.assertEquals(DeltaExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, initialCommit, lastCommit), systemChanges.get(1));
+    }
+
+    private static String commit(Git git, String message) throws Exception {
+        return git.commit().setMessage(message).setSign(false)
+                .setAuthor("test", "test@test.com").setCommitter("test", "test@test.com").call().getName();
+    }
+}
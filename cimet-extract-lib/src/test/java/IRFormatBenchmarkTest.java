@@ -0,0 +1,93 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.utils.IRFormat;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.delta.models.Delta;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.models.enums.ChangeType;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class IRFormatBenchmarkTest {
+    private static final int MICROSERVICES = 100;
+
+    @Test
+    void testSystemRoundTrip() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        String json = JsonReadWriteUtils.setupObjectWriter().writeValueAsString(system);
+
+        Path file = Files.createTempFile("ir", ".bin");
+        try {
+            for (IRFormat format : IRFormat.values()) {
+                for (boolean compress : new boolean[] {false, true}) {
+                    JsonReadWriteUtils.writeToFile(file.toString(), system, format, compress);
+                    MicroserviceSystem read = JsonReadWriteUtils.readFromJSON(file.toString(), MicroserviceSystem.class);
+                    Assertions.assertEquals(json, JsonReadWriteUtils.setupObjectWriter().writeValueAsString(read), format + (compress ? " gzip" : ""));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testSystemChangeRoundTrip() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        String path = "/todo-service/src/main/java/com/apssouza/controllers/TodoController.java";
+        Delta delta = new Delta(path, path, ChangeType.MODIFY, new ObjectMapper().valueToTree(system.findClass(path)));
+        SystemChange systemChange = new SystemChange();
+        systemChange.setOldCommit("old");
+        systemChange.setNewCommit("new");
+        systemChange.setChanges(List.of(delta));
+        String json = JsonReadWriteUtils.setupObjectWriter().writeValueAsString(systemChange);
+
+        Path file = Files.createTempFile("delta", ".bin");
+        try {
+            JsonReadWriteUtils.writeToFile(file.toString(), systemChange, IRFormat.SMILE, true);
+            SystemChange read = JsonReadWriteUtils.readFromJSON(file.toString(), SystemChange.class);
+            Assertions.assertEquals(json, JsonReadWriteUtils.setupObjectWriter().writeValueAsString(read));
+            Assertions.assertEquals(system.findClass(path), read.getChanges().get(0).getClassChange());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSyntheticSystem() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Path jsonFile = Files.createTempFile("synthetic-ir", ".json");
+        Path file = Files.createTempFile("synthetic-ir", ".bin");
+        try {
+            TestUtilities.writeSyntheticSystem(system, MICROSERVICES, jsonFile.toFile());
+            MicroserviceSystem synthetic = JsonReadWriteUtils.readFromJSON(jsonFile.toString(), MicroserviceSystem.class);
+
+            long jsonSize = 0;
+            for (IRFormat format : IRFormat.values()) {
+                JsonReadWriteUtils.writeToFile(file.toString(), synthetic, format, false);
+                long size = Files.size(file);
+                JsonReadWriteUtils.writeToFile(file.toString(), synthetic, format, true);
+                long compressedSize = Files.size(file);
+
+                Assertions.assertTrue(compressedSize < size, format + " is not smaller compressed");
+                if (format == IRFormat.JSON) {
+                    jsonSize = size;
+                } else {
+                    Assertions.assertTrue(size < jsonSize, format + " is not smaller than JSON");
+                }
+            }
+        } finally {
+            Files.deleteIfExists(jsonFile);
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import edu.university.ecs.lab.common.models.ir.Microservice;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.utils.IRFormat;
+import edu.university.ecs.lab.common.utils.IRIndex;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class IRIndexTest {
+    private static final int MICROSERVICES = 400;
+
+    @Test
+    void testLoadMicroservices() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Path irFile = Files.createTempFile("ir", ".json");
+        try {
+            for (boolean pretty : new boolean[] {true, false}) {
+                JsonReadWriteUtils.writeToFile(irFile.toString(), system, IRFormat.JSON, false, pretty, 1);
+                IRIndex irIndex = IRIndex.create(irFile.toString());
+                Assertions.assertEquals(system.getMicroservices().size(), irIndex.getMicroservices().size());
+
+                for (Microservice microservice : system.getMicroservices()) {
+                    Assertions.assertEquals(microservice, irIndex.loadMicroservice(microservice.getName()));
+                    Assertions.assertEquals(microservice, irIndex.loadMicroservice(microservice.getPath()));
+                }
+
+                Microservice first = system.getMicroservices().iterator().next();
+                MicroserviceSystem partial = IRIndex.open(irFile.toString()).load(List.of(first.getName()), true);
+                Assertions.assertEquals(system.getCommitID(), partial.getCommitID());
+                Assertions.assertEquals(system.getRoles(), partial.getRoles());
+                Assertions.assertEquals(system.getOrphans(), partial.getOrphans());
+                Assertions.assertEquals(1, partial.getMicroservices().size());
+                Assertions.assertSame(partial, partial.findMicroserviceByPath(first.getPath()).getParent());
+            }
+
+            Assertions.assertThrows(IllegalArgumentException.class, () -> IRIndex.open(irFile.toString()).loadMicroservice("unknown"));
+        } finally {
+            Files.deleteIfExists(irFile);
+            Files.deleteIfExists(Path.of(irFile + IRIndex.EXTENSION));
+        }
+    }
+
+    @Test
+    void testStaleIndexIsRebuilt() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Path irFile = Files.createTempFile("ir", ".json");
+        try {
+            JsonReadWriteUtils.writeToFile(irFile.toString(), system, IRFormat.JSON, false, true, 1);
+            IRIndex.create(irFile.toString());
+
+            JsonReadWriteUtils.writeToFile(irFile.toString(), system, IRFormat.JSON, false, false, 1);
+            IRIndex irIndex = IRIndex.open(irFile.toString());
+            for (Microservice microservice : system.getMicroservices()) {
+                Assertions.assertEquals(microservice, irIndex.loadMicroservice(microservice.getName()));
+            }
+        } finally {
+            Files.deleteIfExists(irFile);
+            Files.deleteIfExists(Path.of(irFile + IRIndex.EXTENSION));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSyntheticSystemLoad() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Path irFile = Files.createTempFile("synthetic-ir", ".json");
+        try {
+            TestUtilities.writeSyntheticSystem(system, MICROSERVICES, irFile.toFile());
+            MicroserviceSystem synthetic = IRExtractionService.read(irFile.toString());
+
+            Microservice last = null;
+            for (Microservice microservice : synthetic.getMicroservices()) {
+                last = microservice;
+            }
+            IRIndex irIndex = IRIndex.open(irFile.toString());
+            MicroserviceSystem partial = irIndex.load(List.of(last.getName()), false);
+            Assertions.assertEquals(last, partial.getMicroservices().iterator().next());
+
+            // Loading one microservice only reads its own slice of the file
+            IRIndex.Entry entry = irIndex.getMicroservices().get(MICROSERVICES - 1);
+            Assertions.assertEquals(last.getName(), entry.getName());
+            Assertions.assertTrue(entry.getLength() * (MICROSERVICES / 2) < Files.size(irFile));
+        } finally {
+            Files.deleteIfExists(irFile);
+            Files.deleteIfExists(Path.of(irFile + IRIndex.EXTENSION));
+        }
+    }
+}
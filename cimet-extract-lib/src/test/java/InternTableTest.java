@@ -0,0 +1,155 @@
+import edu.university.ecs.lab.common.models.ir.*;
+import edu.university.ecs.lab.common.utils.InternTable;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class InternTableTest {
+    private static final int MICROSERVICES = 100;
+    private static final String IR_PACKAGE = "edu.university.ecs.lab";
+
+    /**
+     * Estimated bytes of a string object and its array header, and of a location, on a 64-bit JVM with compressed oops
+     */
+    private static final int STRING_BYTES = 24 + 16;
+    private static final int LOCATION_BYTES = 24;
+
+    @Test
+    void testInterningKeepsSystem() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        String json = JsonReadWriteUtils.setupObjectWriter().writeValueAsString(system);
+
+        // Extraction already interned the system, a fresh table only copies the shared instances
+        InternTable internTable = new InternTable();
+        system.intern(internTable);
+        Assertions.assertEquals(json, JsonReadWriteUtils.setupObjectWriter().writeValueAsString(system));
+        Assertions.assertSame(internTable, system.getInternTable());
+
+        Iterator<Method> methods = system.findClass("/todo-service/src/main/java/com/apssouza/controllers/TodoController.java").getMethods().iterator();
+        Method first = methods.next();
+        Method second = methods.next();
+        Assertions.assertSame(first.getPackageName(), second.getPackageName());
+        Assertions.assertSame(first.getMicroserviceName(), second.getMicroserviceName());
+    }
+
+    @Test
+    void testSyntheticSystemSharesValues() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        int templates = system.getMicroservices().size();
+        Path irFile = Files.createTempFile("synthetic-ir", ".json");
+        try {
+            TestUtilities.writeSyntheticSystem(system, 2 * templates, irFile.toFile());
+
+            MicroserviceSystem synthetic = JsonReadWriteUtils.readFromJSON(irFile.toString(), MicroserviceSystem.class);
+            InternTable internTable = new InternTable();
+            synthetic.intern(internTable);
+            int size = internTable.size();
+            Assertions.assertEquals(2 * templates, synthetic.getMicroservices().size());
+
+            // Copies of the same microservice only differ by name, so they hold the same instances
+            List<Method> methods = new ArrayList<>();
+            synthetic.getMicroservices().forEach(microservice -> microservice.getClasses().stream()
+                    .filter(jClass -> jClass.getName().equals("TodoController"))
+                    .forEach(jClass -> methods.add(findMethod(jClass, "all"))));
+            Assertions.assertEquals(2, methods.size());
+            Assertions.assertNotSame(methods.get(0), methods.get(1));
+            Assertions.assertSame(methods.get(0).getLocation(), methods.get(1).getLocation());
+            Assertions.assertSame(methods.get(0).getPackageName(), methods.get(1).getPackageName());
+            Assertions.assertSame(methods.get(0).getReturnType(), methods.get(1).getReturnType());
+
+            // Interning an equal system again adds no values to the table
+            MicroserviceSystem copy = JsonReadWriteUtils.readFromJSON(irFile.toString(), MicroserviceSystem.class);
+            copy.intern(internTable);
+            Assertions.assertEquals(size, internTable.size());
+            Assertions.assertSame(synthetic.getName(), copy.getName());
+        } finally {
+            Files.deleteIfExists(irFile);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSyntheticSystemHeap() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Path irFile = Files.createTempFile("synthetic-ir", ".json");
+        try {
+            TestUtilities.writeSyntheticSystem(system, MICROSERVICES, irFile.toFile());
+
+            MicroserviceSystem synthetic = JsonReadWriteUtils.readFromJSON(irFile.toString(), MicroserviceSystem.class);
+            Assertions.assertEquals(MICROSERVICES, synthetic.getMicroservices().size());
+            long readBytes = retainedValueBytes(synthetic);
+
+            InternTable internTable = new InternTable();
+            synthetic.intern(internTable);
+            long internedBytes = retainedValueBytes(synthetic);
+
+            Assertions.assertTrue(internedBytes < readBytes / 2, () -> String.format("%d KB of strings and locations as read, %d KB interned, %d distinct strings",
+                    readBytes / 1024, internedBytes / 1024, internTable.size()));
+        } finally {
+            Files.deleteIfExists(irFile);
+        }
+    }
+
+    /**
+     * Estimates the heap retained by the distinct strings and locations reachable from a node,
+     * the instances interning shares. Nodes are walked through their fields, collections and maps
+     */
+    private static long retainedValueBytes(Object root) throws IllegalAccessException {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        long bytes = 0;
+
+        while (!pending.isEmpty()) {
+            Object object = pending.pop();
+            if (!visited.add(object)) {
+                continue;
+            }
+
+            if (object instanceof String) {
+                String string = (String) object;
+                int length = string.chars().allMatch(c -> c < 256) ? string.length() : 2 * string.length();
+                bytes += STRING_BYTES + (length + 7) / 8 * 8;
+            } else if (object instanceof Location) {
+                bytes += LOCATION_BYTES;
+            } else if (object instanceof Collection) {
+                ((Collection<?>) object).stream().filter(Objects::nonNull).forEach(pending::push);
+            } else if (object instanceof Map) {
+                ((Map<?, ?>) object).forEach((key, value) -> {
+                    pending.push(key);
+                    if (value != null) {
+                        pending.push(value);
+                    }
+                });
+            } else if (!(object instanceof Enum)) {
+                for (Class<?> type = object.getClass(); type.getPackageName().startsWith(IR_PACKAGE); type = type.getSuperclass()) {
+                    for (java.lang.reflect.Field field : type.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                            continue;
+                        }
+                        field.setAccessible(true);
+                        Object value = field.get(object);
+                        if (value != null) {
+                            pending.push(value);
+                        }
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static Method findMethod(JClass jClass, String name) {
+        return jClass.getMethods().stream().filter(method -> method.getName().equals(name)).findFirst().orElseThrow();
+    }
+}
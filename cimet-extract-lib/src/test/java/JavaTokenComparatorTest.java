@@ -0,0 +1,48 @@
+import edu.university.ecs.lab.common.utils.JavaTokenComparator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class JavaTokenComparatorTest {
+    private static final String SOURCE = String.join("\n",
+            "package com.example;",
+            "public class Example {",
+            "    private String url = \"http://localhost/api\";",
+            "    private String text = \"\"\"",
+            "        a /* b */ c",
+            "        \"\"\";",
+            "    public int add(int a, int b) { return a + b; }",
+            "}");
+
+    @Test
+    void testCommentsAndWhitespaceAreIgnored() {
+        assertEquivalent(true, SOURCE, "/** Example */\n" + SOURCE.replace("{ return", "{\n        // Sum\n        return"));
+        assertEquivalent(true, SOURCE, SOURCE.replace("    public", "\tpublic").replace("a + b", "a+b"));
+        assertEquivalent(true, "", "// Nothing here\n/* at all */");
+        assertEquivalent(true, "if (a) { b(); }", "if(a){b() ;}");
+        assertEquivalent(true, "c = a++ + b;", "c = a+++b;");
+    }
+
+    @Test
+    void testCodeChangesAreDetected() {
+        assertEquivalent(false, SOURCE, SOURCE.replace("a + b", "a - b"));
+        assertEquivalent(false, SOURCE, SOURCE.replace("int add", "intadd"));
+        assertEquivalent(false, SOURCE, SOURCE + "\nclass Other {}");
+
+        // Comment markers and whitespace within literals are code
+        assertEquivalent(false, SOURCE, SOURCE.replace("http://localhost/api", "http:"));
+        assertEquivalent(false, SOURCE, SOURCE.replace("a /* b */ c", "a c"));
+        assertEquivalent(false, "String s = \"a b\";", "String s = \"ab\";");
+
+        // Whitespace between operator characters can change the operators
+        assertEquivalent(false, "int c = a + +b;", "int c = a++b;");
+        assertEquivalent(false, "boolean c = a = = b;", "boolean c = a == b;");
+        assertEquivalent(false, "int c = a > > b;", "int c = a >> b;");
+    }
+
+    private static void assertEquivalent(boolean expected, String oldSource, String newSource) {
+        Assertions.assertEquals(expected, JavaTokenComparator.isEquivalent(
+                oldSource.getBytes(StandardCharsets.UTF_8), newSource.getBytes(StandardCharsets.UTF_8)), newSource);
+    }
+}
@@ -0,0 +1,111 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.university.ecs.lab.common.models.ir.Microservice;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.models.ir.NodeSet;
+import edu.university.ecs.lab.common.utils.IRFormat;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonWriteBenchmarkTest {
+    private static final int MICROSERVICES = 400;
+    private static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    @Test
+    void testParallelWriteMatchesSequential() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Path jsonFile = Files.createTempFile("synthetic-ir", ".json");
+        Path file = Files.createTempFile("ir", ".json");
+        try {
+            TestUtilities.writeSyntheticSystem(system, 10, jsonFile.toFile());
+            MicroserviceSystem synthetic = JsonReadWriteUtils.readFromJSON(jsonFile.toString(), MicroserviceSystem.class);
+
+            // Pretty output is the same as that of a default Jackson writer
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(jsonFile.toFile(), synthetic);
+            JsonReadWriteUtils.writeToFile(file.toString(), synthetic, IRFormat.JSON, false, true, THREADS);
+            Assertions.assertEquals(Files.readString(jsonFile), Files.readString(file));
+
+            new ObjectMapper().writeValue(jsonFile.toFile(), synthetic);
+            JsonReadWriteUtils.writeToFile(file.toString(), synthetic, IRFormat.JSON, false, false, THREADS);
+            Assertions.assertEquals(Files.readString(jsonFile), Files.readString(file));
+            Assertions.assertEquals(synthetic, JsonReadWriteUtils.readFromJSON(file.toString(), MicroserviceSystem.class));
+        } finally {
+            Files.deleteIfExists(jsonFile);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testReadMicroservices() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Path file = Files.createTempFile("ir", ".bin");
+        try {
+            for (IRFormat format : IRFormat.values()) {
+                JsonReadWriteUtils.writeToFile(file.toString(), system, format, format == IRFormat.SMILE);
+
+                List<Microservice> microservices = new ArrayList<>();
+                MicroserviceSystem read = JsonReadWriteUtils.readMicroservices(file.toString(), microservices::add);
+                Assertions.assertTrue(read.getMicroservices().isEmpty());
+                Assertions.assertEquals(system.getOrphans(), read.getOrphans());
+                Assertions.assertEquals(system.getRoles(), read.getRoles());
+                Assertions.assertEquals(new ArrayList<>(system.getMicroservices()), microservices, format.toString());
+
+                read.setMicroservices(new NodeSet<>(microservices));
+                Assertions.assertEquals(system, read, format.toString());
+            }
+
+            JsonReadWriteUtils.writeToJSON(file.toString(), system);
+            Assertions.assertEquals(system, IRExtractionService.read(file.toString()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSyntheticSystemWrite() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Path file = Files.createTempFile("synthetic-ir", ".json");
+        try {
+            TestUtilities.writeSyntheticSystem(system, MICROSERVICES, file.toFile());
+            MicroserviceSystem synthetic = JsonReadWriteUtils.readFromJSON(file.toString(), MicroserviceSystem.class);
+
+            // Warm up the serializers of both writers, then write on this thread only
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsBytes(synthetic);
+            JsonReadWriteUtils.writeToFile(file.toString(), synthetic, IRFormat.JSON, false, true, 1);
+
+            long perCallBytes = allocatedBytes(() -> new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), synthetic));
+            long sharedBytes = allocatedBytes(() -> JsonReadWriteUtils.writeToFile(file.toString(), synthetic, IRFormat.JSON, false, true, 1));
+            Assertions.assertEquals(synthetic, JsonReadWriteUtils.readFromJSON(file.toString(), MicroserviceSystem.class));
+            Assertions.assertTrue(sharedBytes < perCallBytes);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private interface Write {
+        void run() throws Exception;
+    }
+
+    /**
+     * Runs a write and returns the bytes allocated by the current thread
+     */
+    private static long allocatedBytes(Write write) throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        write.run();
+        return threadMXBean.getThreadAllocatedBytes(threadId) - start;
+    }
+}
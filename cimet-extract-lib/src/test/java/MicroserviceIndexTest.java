@@ -0,0 +1,39 @@
+import edu.university.ecs.lab.common.models.enums.ClassRole;
+import edu.university.ecs.lab.common.models.ir.JClass;
+import edu.university.ecs.lab.common.models.ir.Microservice;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class MicroserviceIndexTest {
+
+    @Test
+    void testLongestPrefixAndAdoption() {
+        Microservice outer = new Microservice("outer", "/outer");
+        Microservice similar = new Microservice("outer-service", "/outer-service");
+        MicroserviceSystem system = new MicroserviceSystem("test", "", new HashSet<>(Set.of(outer, similar)), new HashSet<>());
+
+        Assertions.assertSame(similar, system.findMicroserviceByPath("/outer-service/A.java"));
+        Assertions.assertSame(outer, system.findMicroserviceByPath("/outer/inner/A.java"));
+
+        JClass orphan = new JClass("A", "/outer/inner/A.java", "inner", ClassRole.SERVICE);
+        system.addOrphan(orphan);
+
+        Microservice inner = new Microservice("inner", "/outer/inner");
+        system.adopt(inner);
+        system.addMicroservice(inner);
+
+        Assertions.assertSame(inner, system.findMicroserviceByPath("/outer/inner/A.java"));
+        Assertions.assertTrue(system.hasMicroservicesBelow("/outer"));
+        Assertions.assertTrue(system.getOrphans().isEmpty());
+        Assertions.assertEquals(Set.of(orphan), inner.getServices());
+
+        system.removeMicroservice(inner);
+        system.orphanize(inner);
+        Assertions.assertSame(outer, system.findMicroserviceByPath("/outer/inner/A.java"));
+        Assertions.assertEquals(Set.of(orphan), system.getOrphans());
+    }
+}
@@ -0,0 +1,64 @@
+import edu.university.ecs.lab.common.models.enums.ClassRole;
+import edu.university.ecs.lab.common.models.ir.*;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+public class NodeSetTest {
+
+    @Test
+    void testNodesAreKeyedByID() {
+        JClass jClass = new JClass("A", "/service/A.java", "service", ClassRole.SERVICE);
+        Set<JClass> nodes = new NodeSet<>();
+        Assertions.assertTrue(nodes.add(jClass));
+        Assertions.assertFalse(nodes.add(jClass));
+
+        // Changing contents after insertion does not lose the node
+        jClass.setName("B");
+        Assertions.assertTrue(nodes.contains(jClass));
+        Assertions.assertEquals(new HashSet<>(Set.of(jClass)), nodes);
+
+        // A different node with the same ID is not contained, adding it replaces the old one
+        JClass other = new JClass("C", "/service/A.java", "service", ClassRole.SERVICE);
+        Assertions.assertFalse(nodes.contains(other));
+        Assertions.assertFalse(nodes.remove(other));
+        Assertions.assertTrue(nodes.add(other));
+        Assertions.assertEquals(1, nodes.size());
+
+        Assertions.assertTrue(nodes.remove(other));
+        Assertions.assertTrue(nodes.isEmpty());
+    }
+
+    @Test
+    void testJsonRoundTrip() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        Path path = Files.createTempFile("ir", ".json");
+        try {
+            JsonReadWriteUtils.writeToJSON(path.toString(), system);
+            MicroserviceSystem read = JsonReadWriteUtils.readFromJSON(path.toString(), MicroserviceSystem.class);
+
+            Assertions.assertEquals(system, read);
+
+            // Sets are read as node sets, which still find their nodes after the contents changed
+            for (Microservice microservice : read.getMicroservices()) {
+                for (JClass controller : microservice.getControllers()) {
+                    controller.setName(controller.getName() + "-renamed");
+                    Assertions.assertTrue(microservice.getControllers().contains(controller));
+                }
+                for (ConfigFile file : microservice.getFiles()) {
+                    file.setName(file.getName() + "-renamed");
+                    Assertions.assertTrue(microservice.getFiles().contains(file));
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParallelExtractionTest {
+    @Test
+    void testParallelMatchesSequential() throws Exception {
+        TestUtilities.createLocalSystem();
+
+        MicroserviceSystem sequential = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+        MicroserviceSystem parallel = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 4);
+
+        Assertions.assertEquals(2, sequential.getMicroservices().size());
+        Assertions.assertFalse(sequential.getMicroservices().stream().allMatch(m -> m.getClasses().isEmpty()));
+        Assertions.assertEquals(sequential, parallel);
+    }
+}
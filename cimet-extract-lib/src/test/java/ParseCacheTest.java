@@ -0,0 +1,70 @@
+import edu.university.ecs.lab.common.models.ir.Endpoint;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.ParseCache;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ParseCacheTest {
+    @Test
+    void testWarmExtractionMatchesUncached() throws Exception {
+        TestUtilities.createLocalSystem();
+        Path cachePath = Files.createTempDirectory("parse-cache");
+
+        try {
+            MicroserviceSystem uncached = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+
+            ParseCache cold = new ParseCache(cachePath.toString());
+            MicroserviceSystem coldSystem = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1, cold);
+            Assertions.assertEquals(0, cold.getHits());
+            Assertions.assertTrue(cold.getMisses() > 0);
+
+            ParseCache warm = new ParseCache(cachePath.toString());
+            MicroserviceSystem warmSystem = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 4, warm);
+            Assertions.assertEquals(cold.getMisses(), warm.getHits());
+            Assertions.assertEquals(0, warm.getMisses());
+
+            Assertions.assertEquals(uncached, coldSystem);
+            Assertions.assertEquals(uncached, warmSystem);
+        } finally {
+            TestUtilities.deleteRecursively(cachePath);
+        }
+    }
+
+    @Test
+    void testUncommittedEditIsParsed() throws Exception {
+        TestUtilities.createLocalSystem();
+        Path cachePath = Files.createTempDirectory("parse-cache");
+        Path controller = Path.of(FileUtils.getRepositoryPath(TestUtilities.LOCAL_REPO_NAME), "todo-service", "src", "main", "java",
+                "com", "apssouza", "controllers", "TodoController.java");
+
+        try {
+            MicroserviceSystem committed = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1, new ParseCache(cachePath.toString()));
+            Assertions.assertTrue(endpointUrls(committed).contains("/todos/search"));
+
+            // Edit a tracked file without committing, HEAD still holds the old blob
+            Files.writeString(controller, Files.readString(controller).replace("@GetMapping(\"search\")", "@GetMapping(\"search-all\")"));
+
+            MicroserviceSystem edited = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1, new ParseCache(cachePath.toString()));
+            Assertions.assertTrue(endpointUrls(edited).contains("/todos/search-all"));
+            Assertions.assertFalse(endpointUrls(edited).contains("/todos/search"));
+        } finally {
+            TestUtilities.deleteRecursively(cachePath);
+            TestUtilities.createLocalSystem();
+        }
+    }
+
+    private static Set<String> endpointUrls(MicroserviceSystem system) {
+        return system.getMicroservices().stream()
+                .flatMap(microservice -> microservice.getControllers().stream())
+                .flatMap(controller -> controller.getEndpoints().stream())
+                .map(Endpoint::getUrl)
+                .collect(Collectors.toSet());
+    }
+}
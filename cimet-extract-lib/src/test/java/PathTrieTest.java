@@ -0,0 +1,32 @@
+import edu.university.ecs.lab.common.utils.PathTrie;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class PathTrieTest {
+
+    @Test
+    void testPrefixLookups() {
+        PathTrie<String> trie = new PathTrie<>("/");
+        trie.put("/a", "a");
+        trie.put("/a/b/c", "c");
+        trie.put("/ab", "ab");
+
+        Assertions.assertEquals(3, trie.size());
+        Assertions.assertEquals("c", trie.findLongestPrefix("/a/b/c/D.java"));
+        Assertions.assertEquals("a", trie.findLongestPrefix("/a/b/D.java"));
+        Assertions.assertEquals("ab", trie.findLongestPrefix("/ab/D.java"));
+        Assertions.assertNull(trie.findLongestPrefix("/abc/D.java"));
+
+        Assertions.assertTrue(trie.hasDescendants("/a"));
+        Assertions.assertFalse(trie.hasDescendants("/ab"));
+        Assertions.assertNull(trie.get("/a/b"));
+        Assertions.assertEquals(List.of("a", "c"), trie.findAll("/a"));
+
+        Assertions.assertEquals("c", trie.remove("/a/b/c"));
+        Assertions.assertFalse(trie.hasDescendants("/a"));
+        Assertions.assertEquals("a", trie.findLongestPrefix("/a/b/c/D.java"));
+        Assertions.assertEquals(2, trie.size());
+    }
+}
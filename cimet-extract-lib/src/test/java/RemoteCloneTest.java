@@ -0,0 +1,77 @@
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class RemoteCloneTest {
+    private static final String REPO_NAME = "remote-test-system";
+    private static final String CONFIG_PATH = "todo-service/application.yml";
+
+    @Test
+    void testShallowSparseCloneAndFetch() throws Exception {
+        TestUtilities.createLocalSystem();
+        Path tempPath = Files.createTempDirectory("remote");
+        Path remotePath = tempPath.resolve(REPO_NAME + ".git");
+        Path clonePath = Path.of(FileUtils.getRepositoryPath(REPO_NAME));
+        TestUtilities.deleteRecursively(clonePath);
+
+        try (Git remote = Git.cloneRepository().setURI(Path.of(FileUtils.getRepositoryPath(TestUtilities.LOCAL_REPO_NAME)).toUri().toString())
+                .setDirectory(remotePath.toFile()).call()) {
+            Files.writeString(remotePath.resolve("README.md"), "Test system");
+            remote.add().addFilepattern("README.md").call();
+            commit(remote, "Add readme");
+
+            Path configFile = tempPath.resolve("config.json");
+            Path offlineConfigFile = tempPath.resolve("offline-config.json");
+            String config = "{\"systemName\": \"" + REPO_NAME + "\", \"repositoryURL\": \"" + remotePath.toUri()
+                    + "\", \"baseBranch\": \"main\", \"cloneDepth\": 1, \"sparseCheckout\": true";
+            Files.writeString(configFile, config + "}");
+            Files.writeString(offlineConfigFile, config + ", \"offline\": true}");
+
+            // Only the latest commit and the files the IR is extracted from are cloned
+            GitService gitService = new GitService(configFile.toString());
+            try (Git clone = Git.open(clonePath.toFile())) {
+                Assertions.assertEquals(1, TestUtilities.iterableToList(clone.log().call()).size());
+            }
+            Assertions.assertFalse(Files.exists(clonePath.resolve("README.md")));
+            Assertions.assertTrue(Files.exists(clonePath.resolve("todo-service/pom.xml")));
+
+            MicroserviceSystem local = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+            MicroserviceSystem cloned = IRExtractionService.create(configFile.toString(), 1);
+            Assertions.assertEquals(local.getMicroservices(), cloned.getMicroservices());
+
+            Files.writeString(remotePath.resolve(CONFIG_PATH), "server:\n  port: 8080\n");
+            remote.add().addFilepattern(CONFIG_PATH).call();
+            String newCommit = commit(remote, "Add configuration");
+
+            // An offline configuration uses the existing clone as it is
+            gitService = new GitService(offlineConfigFile.toString());
+            Assertions.assertNotEquals(newCommit, gitService.getHeadCommit());
+            Assertions.assertFalse(Files.exists(clonePath.resolve(CONFIG_PATH)));
+
+            // Otherwise an existing clone is fetched, the branch is fast-forwarded
+            // and a sparse checkout only writes valid files
+            gitService = new GitService(configFile.toString());
+            Assertions.assertEquals(newCommit, gitService.getHeadCommit());
+            try (Git clone = Git.open(clonePath.toFile())) {
+                Assertions.assertEquals(2, TestUtilities.iterableToList(clone.log().call()).size());
+            }
+            Assertions.assertTrue(Files.exists(clonePath.resolve(CONFIG_PATH)));
+            Assertions.assertFalse(Files.exists(clonePath.resolve("README.md")));
+        } finally {
+            TestUtilities.deleteRecursively(clonePath);
+            TestUtilities.deleteRecursively(tempPath);
+        }
+    }
+
+    private static String commit(Git git, String message) throws Exception {
+        return git.commit().setMessage(message).setSign(false)
+                .setAuthor("test", "test@test.com").setCommitter("test", "test@test.com").call().getName();
+    }
+}
@@ -0,0 +1,67 @@
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.models.enums.ClassRole;
+import edu.university.ecs.lab.common.models.ir.JClass;
+import edu.university.ecs.lab.common.models.ir.MethodCall;
+import edu.university.ecs.lab.common.models.ir.RestCall;
+import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
+import edu.university.ecs.lab.common.utils.SymbolSolverContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+public class SourceToObjectUtilsTest {
+    @Test
+    void testDeclarationsParseLikeTheirClass() throws Exception {
+        Config config = ConfigUtil.readConfig(TestUtilities.LOCAL_CONFIG_FILE);
+        SymbolSolverContext context = new SymbolSolverContext(TestUtilities.RESOURCES_PATH);
+        File[] files = new File(TestUtilities.JAVA_FILES_PATH).listFiles();
+        Assertions.assertNotNull(files);
+
+        int compared = 0;
+        for (File file : files) {
+            JClass jClass = SourceToObjectUtils.parseClass(file, config, "", context);
+            if (jClass == null || jClass.getClassRole() == ClassRole.FEIGN_CLIENT || jClass.getClassRole() == ClassRole.REP_REST_RSC) {
+                continue;
+            }
+
+            CompilationUnit cu = context.getJavaParser().parse(file).getResult().orElseThrow();
+            List<MethodDeclaration> methodDeclarations = cu.findAll(MethodDeclaration.class);
+            AnnotationExpr requestMapping = cu.findAll(AnnotationExpr.class).stream()
+                    .filter(ae -> ae.getNameAsString().equals("RequestMapping") && ae.getParentNode().orElseThrow() instanceof ClassOrInterfaceDeclaration)
+                    .findFirst().orElse(null);
+
+            Assertions.assertEquals(jClass.getImports(), SourceToObjectUtils.parseImports(cu.findAll(ImportDeclaration.class)), file.getName());
+            Assertions.assertEquals(jClass.getMethods(), SourceToObjectUtils.parseMethods(methodDeclarations, requestMapping), file.getName());
+            Assertions.assertEquals(jClass.getMethodCalls(), SourceToObjectUtils.parseMethodCalls(methodDeclarations), file.getName());
+            compared++;
+        }
+        Assertions.assertTrue(compared > 0);
+    }
+
+    @Test
+    void testConvertValidRestCalls() {
+        CompilationUnit cu = new SymbolSolverContext(TestUtilities.RESOURCES_PATH).getJavaParser().parse(String.join("\n",
+                "package com.example;",
+                "import org.springframework.web.client.RestTemplate;",
+                "public class OrderService {",
+                "    private RestTemplate restTemplate;",
+                "    public void run() { restTemplate.getForObject(\"/orders/all\", String.class); }",
+                "}")).getResult().orElseThrow();
+        MethodCallExpr mce = cu.findFirst(MethodCallExpr.class).orElseThrow();
+        MethodCall methodCall = new MethodCall("getForObject", "com.example.OrderService", "RestTemplate", "restTemplate",
+                "run", "", "", "OrderService", null);
+
+        MethodCall converted = SourceToObjectUtils.convertValidRestCalls(mce, methodCall);
+        Assertions.assertInstanceOf(RestCall.class, converted);
+        Assertions.assertEquals("/orders/all", ((RestCall) converted).getUrl());
+    }
+}
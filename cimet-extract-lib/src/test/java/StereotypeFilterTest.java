@@ -0,0 +1,68 @@
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.utils.ParseCache;
+import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
+import edu.university.ecs.lab.common.utils.StereotypeFilter;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public class StereotypeFilterTest {
+    @Test
+    void testFilterKeepsEveryParsedClass() throws Exception {
+        Config config = ConfigUtil.readConfig(TestUtilities.LOCAL_CONFIG_FILE);
+        File[] files = new File(TestUtilities.JAVA_FILES_PATH).listFiles();
+        Assertions.assertNotNull(files);
+
+        for (File file : files) {
+            if (SourceToObjectUtils.parseClass(file, config, "") != null) {
+                Assertions.assertTrue(StereotypeFilter.mayHaveClassRole(file), file.getName());
+            }
+        }
+        Assertions.assertFalse(StereotypeFilter.mayHaveClassRole(new File(TestUtilities.JAVA_FILES_PATH, "TestFile4.java")));
+    }
+
+    @Test
+    void testFilterSource() {
+        Assertions.assertTrue(StereotypeFilter.mayHaveClassRole("@Entity class A {}"));
+        Assertions.assertTrue(StereotypeFilter.mayHaveClassRole("@org.springframework.stereotype.Service class A {}"));
+        Assertions.assertTrue(StereotypeFilter.mayHaveClassRole("interface A extends MongoRepository<A, String> {}"));
+        Assertions.assertTrue(StereotypeFilter.mayHaveClassRole("@\\u0053ervice class A {}"));
+        Assertions.assertFalse(StereotypeFilter.mayHaveClassRole("class ServiceUtils { EntityManager em; }"));
+    }
+
+    @Test
+    void testSkipCounts() throws Exception {
+        TestUtilities.createLocalSystem();
+
+        IRExtractionService extractionService = new IRExtractionService(TestUtilities.LOCAL_CONFIG_FILE, Optional.empty());
+        extractionService.cloneAndScanServices();
+
+        Assertions.assertEquals(4, extractionService.getJavaFileCount());
+        Assertions.assertEquals(1, extractionService.getSkippedFileCount());
+    }
+
+    @Test
+    void testSkipCountsWithParseCache() throws Exception {
+        TestUtilities.createLocalSystem();
+        Path cachePath = Files.createTempDirectory("parse-cache");
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                IRExtractionService extractionService = new IRExtractionService(TestUtilities.LOCAL_CONFIG_FILE, Optional.empty());
+                extractionService.setParseCache(new ParseCache(cachePath.toString()));
+                extractionService.cloneAndScanServices();
+
+                Assertions.assertEquals(4, extractionService.getJavaFileCount());
+                Assertions.assertEquals(1, extractionService.getSkippedFileCount());
+            }
+        } finally {
+            TestUtilities.deleteRecursively(cachePath);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.models.ir.Endpoint;
+import edu.university.ecs.lab.common.models.ir.JClass;
+import edu.university.ecs.lab.common.models.ir.Microservice;
+import edu.university.ecs.lab.common.models.ir.MicroserviceSystem;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class SystemIndexTest {
+    private static final String CONTROLLER_PATH = "/todo-service/src/main/java/com/apssouza/controllers/TodoController.java";
+    private static final String SERVICE_PATH = "/ts-rebook-service/src/main/java/rebook/service/RebookServiceImpl.java";
+    private static final String POM_PATH = "/todo-service/pom.xml";
+
+    @Test
+    void testLookupsFollowChanges() throws Exception {
+        TestUtilities.createLocalSystem();
+        MicroserviceSystem system = IRExtractionService.create(TestUtilities.LOCAL_CONFIG_FILE, 1);
+
+        JClass controller = system.findClass(CONTROLLER_PATH);
+        Assertions.assertNotNull(controller);
+        Assertions.assertNotNull(system.findFile(POM_PATH));
+        Assertions.assertNull(system.findClass(POM_PATH));
+        Assertions.assertSame(controller, system.findClassByName("com.apssouza.controllers.TodoController"));
+
+        List<Endpoint> endpoints = system.findEndpoints(HttpMethod.GET, "/todos/{id}/");
+        Assertions.assertEquals(1, endpoints.size());
+        Assertions.assertSame(controller, endpoints.get(0).getParent());
+        Assertions.assertEquals(1, system.findEndpoints(HttpMethod.GET, "/todos/search?email={?}").size());
+        Assertions.assertEquals(6, system.findRestCalls(SERVICE_PATH).size());
+
+        // Both classes and configuration files resolve to their microservice
+        Assertions.assertEquals("todo-service", system.getMicroserviceFromFile(CONTROLLER_PATH));
+        Assertions.assertEquals("todo-service", system.getMicroserviceFromFile(POM_PATH));
+        Assertions.assertEquals("", system.getMicroserviceFromFile("/todo-service/Missing.java"));
+
+        Microservice microservice = system.findMicroserviceByPath(CONTROLLER_PATH);
+        microservice.removeProjectFile(CONTROLLER_PATH);
+        Assertions.assertNull(system.findClass(CONTROLLER_PATH));
+        Assertions.assertEquals("", system.getMicroserviceFromFile(CONTROLLER_PATH));
+        Assertions.assertNull(system.findClassByName("com.apssouza.controllers.TodoController"));
+        Assertions.assertTrue(system.findEndpoints(HttpMethod.GET, "/todos").isEmpty());
+
+        microservice.addJClass(controller);
+        Assertions.assertSame(controller, system.findFile(CONTROLLER_PATH));
+        Assertions.assertEquals("todo-service", system.getMicroserviceFromFile(CONTROLLER_PATH));
+        Assertions.assertEquals(1, system.findEndpoints(HttpMethod.POST, "/todos").size());
+    }
+}
@@ -1,13 +1,70 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import edu.university.ecs.lab.common.models.ir.*;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.revwalk.RevCommit;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 public class TestUtilities {
     public static final String RESOURCES_PATH = "src" + File.separator + "test" + File.separator + "resources";
     public static final String CONFIGS_PATH = RESOURCES_PATH + File.separator + "configs";
     public static final String JAVA_FILES_PATH = RESOURCES_PATH + File.separator + "java_files";
+    public static final String LOCAL_CONFIG_FILE = CONFIGS_PATH + File.separator + "test_config_local.json";
+    public static final String LOCAL_REPO_NAME = "local-test-system";
+
+    /**
+     * Builds a small git repository in the clone directory out of the test java files,
+     * so that extraction can be tested without network access. See LOCAL_CONFIG_FILE.
+     *
+     * @return the commit id of the single commit in the repository
+     */
+    public static String createLocalSystem() throws IOException, GitAPIException {
+        Path root = Path.of(FileUtils.getRepositoryPath(LOCAL_REPO_NAME));
+        deleteRecursively(root);
+
+        writeService(root.resolve("ts-rebook-service"), "rebook/service", Map.of("RebookServiceImpl.java", "TestFile.java"));
+        writeService(root.resolve("todo-service"), "com/apssouza", Map.of(
+                "controllers/TodoController.java", "TestFile2.java",
+                "clients/TodoClient.java", "TestFile3.java",
+                "dto/TodoDto.java", "TestFile4.java"));
+
+        try (Git git = Git.init().setDirectory(root.toFile()).setInitialBranch("main").call()) {
+            git.add().addFilepattern(".").call();
+            return git.commit().setMessage("Initial commit").setSign(false)
+                    .setAuthor("test", "test@test.com").setCommitter("test", "test@test.com").call().getName();
+        }
+    }
+
+    private static void writeService(Path servicePath, String packagePath, Map<String, String> files) throws IOException {
+        Path sourcePath = servicePath.resolve(Path.of("src", "main", "java")).resolve(packagePath);
+        Files.createDirectories(sourcePath);
+        Files.writeString(servicePath.resolve("pom.xml"), "<project><artifactId>" + servicePath.getFileName() + "</artifactId></project>");
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            Path target = sourcePath.resolve(file.getKey());
+            Files.createDirectories(target.getParent());
+            Files.copy(Path.of(JAVA_FILES_PATH, file.getValue()), target);
+        }
+    }
+
+    public static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (var paths = Files.walk(path)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
 
     public static void deepCompareSystems(MicroserviceSystem microserviceSystem1, MicroserviceSystem microserviceSystem2) {
         System.out.println("System equivalence is: " + Objects.deepEquals(microserviceSystem1, microserviceSystem2));
@@ -68,4 +125,29 @@ public class TestUtilities {
 
         return result;
     }
+
+    /**
+     * Writes a system holding copies of the microservices of the given system under new names,
+     * for benchmarks on systems larger than the test repository
+     *
+     * @param system the system to copy the microservices of
+     * @param microservices the number of microservices to write
+     * @param file the JSON file to write
+     */
+    public static void writeSyntheticSystem(MicroserviceSystem system, int microservices, File file) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode root = objectMapper.valueToTree(system);
+        ArrayNode templates = (ArrayNode) root.get("microservices");
+        ArrayNode copies = objectMapper.createArrayNode();
+
+        for (int i = 0; i < microservices; i++) {
+            JsonNode template = templates.get(i % templates.size());
+            String name = template.get("name").asText();
+            String copy = objectMapper.writeValueAsString(template).replace(name, name + "-" + i);
+            copies.add(objectMapper.readTree(copy));
+        }
+
+        root.set("microservices", copies);
+        objectMapper.writeValue(file, root);
+    }
 }
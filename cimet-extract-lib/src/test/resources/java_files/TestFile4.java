@@ -0,0 +1,39 @@
+package com.apssouza.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transfer object of a ToDo, carries no stereotype annotation
+ */
+public class TodoDto {
+
+    private Long id;
+
+    private String description;
+
+    private LocalDateTime dateTime;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+}